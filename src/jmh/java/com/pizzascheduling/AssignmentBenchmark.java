@@ -0,0 +1,120 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One assignment pass with every resource free and every order queued for
+// the stage being measured. A pass changes the scheduler, so each iteration
+// times a single call on a scheduler rebuilt before it, outside the timed
+// region. The order counts stop at 1e5 to keep setup time reasonable; pass
+// -p orders=1000000 to go higher.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, batchSize = 1)
+@Measurement(iterations = 30, batchSize = 1)
+public class AssignmentBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int orders;
+
+    @Param({"2x2x2", "8x4x4", "32x16x16"})
+    public String resources;
+
+    @Param({"FOCUSED", "RR-1", "RR-4", "RR-16"})
+    public String strategy;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeOrders() throws IOException {
+        file = BenchmarkWorkload.writeOrders(orders);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteOrders() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // A fresh scheduler with every order admitted and moved to one stage
+    public abstract static class Stage {
+        PizzaScheduler scheduler;
+
+        abstract Order.State state();
+
+        @Setup(Level.Iteration)
+        public void admitAll(AssignmentBenchmark benchmark) throws IOException {
+            scheduler = new PizzaScheduler(BenchmarkWorkload.config(
+                benchmark.file, benchmark.resources, benchmark.strategy, "TICK"), System.out);
+            scheduler.loadOrders();
+            scheduler.startRun();
+            scheduler.admitArrivals();
+            if (state() != Order.State.PENDING) {
+                // Nothing has been delivered yet, so the slots are 0..n-1
+                OrderStore store = scheduler.getStore();
+                for (int order = 0; order < store.liveSlots(); order++) {
+                    store.setState(order, state());
+                }
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void finishRun() throws IOException {
+            scheduler.finishRun();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ChefStage extends Stage {
+        @Override
+        Order.State state() {
+            return Order.State.PENDING;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OvenStage extends Stage {
+        @Override
+        Order.State state() {
+            return Order.State.OVEN_WAITING;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DriverStage extends Stage {
+        @Override
+        Order.State state() {
+            return Order.State.DRIVER_WAITING;
+        }
+    }
+
+    @Benchmark
+    public void assignOrdersToChefs(ChefStage stage) {
+        stage.scheduler.assignOrdersToChefs();
+    }
+
+    @Benchmark
+    public void assignOrdersToOvens(OvenStage stage) {
+        stage.scheduler.assignOrdersToOvens();
+    }
+
+    @Benchmark
+    public void assignOrdersToDrivers(DriverStage stage) {
+        stage.scheduler.assignOrdersToDrivers();
+    }
+}
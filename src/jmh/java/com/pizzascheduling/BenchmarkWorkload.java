@@ -0,0 +1,61 @@
+package com.pizzascheduling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Order files and scheduler arguments shared by the benchmarks. Files are
+// seeded, so every fork of a benchmark sees the same orders.
+final class BenchmarkWorkload {
+    private static final long SEED = 42;
+
+    private BenchmarkWorkload() {
+    }
+
+    // All orders arrive in minute 1, like the sample inputs
+    static Path writeOrders(int count) throws IOException {
+        Path file = Files.createTempFile("pizza-bench-" + count + "-", ".txt");
+        file.toFile().deleteOnExit();
+        Random random = new Random(SEED);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                out.write("Customer" + random.nextInt(1000));
+                out.write(',');
+                out.write(Integer.toString(1 + random.nextInt(10)));
+                out.write(',');
+                out.write(Integer.toString(5 + random.nextInt(56)));
+                out.write(',');
+                out.write(Integer.toString(random.nextInt(11)));
+                out.newLine();
+            }
+        }
+        return file;
+    }
+
+    // resources is "<chefs>x<ovens>x<drivers>" (JMH splits -p values on commas); strategy is a
+    // chef strategy name, with "-<quantum>" for RR and MLFQ
+    static SchedulerConfig config(Path file, String resources, String strategy, String engine) {
+        String[] counts = resources.split("x");
+        String quantum = "1";
+        int dash = strategy.indexOf('-');
+        if (dash >= 0) {
+            quantum = strategy.substring(dash + 1);
+            strategy = strategy.substring(0, dash);
+        }
+        return SchedulerConfig.parse(new String[] {
+            "--input-file", file.toString(),
+            "--available-chefs", counts[0],
+            "--available-ovens", counts[1],
+            "--available-drivers", counts[2],
+            "--bake-time", "5",
+            "--chef-time", "3",
+            "--chef-strategy", strategy,
+            "--chef-quantum", quantum,
+            "--engine", engine,
+            "--trace", "NONE"
+        });
+    }
+}
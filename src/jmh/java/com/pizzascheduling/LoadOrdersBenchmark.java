@@ -0,0 +1,53 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// loadOrders(): parsing and admitting every order, without scheduling anything
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoadOrdersBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int orders;
+
+    private Path file;
+
+    @Setup
+    public void writeOrders() throws IOException {
+        file = BenchmarkWorkload.writeOrders(orders);
+    }
+
+    @TearDown
+    public void deleteOrders() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int loadOrders() throws IOException {
+        PizzaScheduler scheduler = new PizzaScheduler(
+            BenchmarkWorkload.config(file, "1x1x1", "FOCUSED", "TICK"), System.out);
+        scheduler.loadOrders();
+        scheduler.startRun();
+        scheduler.admitArrivals();
+        scheduler.finishRun();
+        return scheduler.getStore().liveSlots();
+    }
+}
@@ -0,0 +1,60 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Tick loop scaling with --threads on kitchens with thousands of resources.
+// SJF puts one chef on each order, so most chefs count down privately and
+// run in parallel; compare threads=1 against the core count of the machine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ParallelTickBenchmark {
+    @Param({"100000"})
+    public int orders;
+
+    @Param({"1000x500x500", "4000x2000x2000"})
+    public String resources;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path file;
+
+    @Setup
+    public void writeOrders() throws IOException {
+        file = BenchmarkWorkload.writeOrders(orders);
+    }
+
+    @TearDown
+    public void deleteOrders() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int runSimulation() throws IOException {
+        SchedulerConfig config = BenchmarkWorkload.config(file, resources, "SJF", "TICK");
+        config.setThreads(threads);
+        PizzaScheduler scheduler = new PizzaScheduler(config, System.out);
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+        return scheduler.getStore().liveSlots();
+    }
+}
@@ -0,0 +1,60 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// runSimulation() end to end with the trace turned off
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SchedulerBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int orders;
+
+    @Param({"2x2x2", "8x4x4", "32x16x16"})
+    public String resources;
+
+    @Param({"FOCUSED", "RR-1", "RR-4", "RR-16", "SJF", "SRTF", "EDF", "MLFQ-4"})
+    public String strategy;
+
+    @Param({"TICK", "EVENT"})
+    public String engine;
+
+    private Path file;
+
+    @Setup
+    public void writeOrders() throws IOException {
+        file = BenchmarkWorkload.writeOrders(orders);
+    }
+
+    @TearDown
+    public void deleteOrders() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int runSimulation() throws IOException {
+        PizzaScheduler scheduler = new PizzaScheduler(
+            BenchmarkWorkload.config(file, resources, strategy, engine), System.out);
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+        return scheduler.getStore().liveSlots();
+    }
+}
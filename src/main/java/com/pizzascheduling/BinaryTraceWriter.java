@@ -0,0 +1,417 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// The BINARY trace: the FULL trace as deltas. Each minute records only the
+// order lines and resource lines that differ from what was last written,
+// so its size follows the work done rather than orders times minutes.
+// TraceDecoder turns it back into the FULL text for any range of minutes.
+//
+// Orders get trace ids in admission order, the order the FULL trace lists
+// them in, and names are written once. Numbers are varints, zigzag encoded
+// where they may be negative. A record starts with its tag:
+//
+//   MINUTE     minutes since the last MINUTE; the records that follow
+//              belong to that minute, and minutes without records repeat
+//              the previous one
+//   NAME       length, UTF-8 bytes; the next name id
+//   ORDER      name id, state, done, pending, remaining; the next trace id
+//   LINE       trace id, state, done, pending, remaining
+//   REMAINING  trace id, change in remaining
+//   CHEF       chef id, trace id + 1 (0 for none), quantum
+//   OVEN       oven id, trace id + 1 of the pizza in each slot
+//   DRIVER     driver id, count, trace id + 1 of each order still to deliver
+//   SKIP       k, count, then (line, total change) pairs: the k minutes
+//              after the current one only count down, each listed line
+//              changing by the same amount every minute; a line is
+//              trace id * 2 for an order's remaining, chef id * 2 + 1 for a
+//              chef's quantum
+//   END        minutes since the last MINUTE to the last minute of the run
+public class BinaryTraceWriter {
+    static final int MAGIC = 0x505A5452;  // "PZTR"
+    static final int VERSION = 1;
+
+    static final int MINUTE = 1;
+    static final int NAME = 2;
+    static final int ORDER = 3;
+    static final int LINE = 4;
+    static final int REMAINING = 5;
+    static final int CHEF = 6;
+    static final int OVEN = 7;
+    static final int DRIVER = 8;
+    static final int SKIP = 9;
+    static final int END = 10;
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final OutputStream out;
+    private final OrderStore store;
+    private final List<Chef> chefs;
+    private final List<Oven> ovens;
+    private final List<Driver> drivers;
+    private final boolean chefQuantum;
+    private byte[] buffer = new byte[FLUSH_THRESHOLD + 1024];
+    private int length;
+
+    private int markedMinute;  // Minute of the last MINUTE record, 0 before the first
+    private int namesWritten;
+    private int nextTraceId;
+    private final IntList admitted = new IntList();  // Admitted this minute, not written yet
+    private IntList heldBefore = new IntList();  // Orders resources held at the last minute
+    private IntList held = new IntList();
+    private final IntList skipLines = new IntList();
+    private final IntList skipChanges = new IntList();
+
+    // Last written line of each order, by store slot
+    private int[] traceId = new int[0];
+    private byte[] state = new byte[0];
+    private int[] done = new int[0];
+    private int[] pending = new int[0];
+    private int[] remaining = new int[0];
+
+    // Last written resource lines
+    private final int[] chefOrder;
+    private final int[] chefQuanta;
+    private final int[][] ovenSlots;
+    private final int[][] driverOrders;
+    private final int[] scratch;
+
+    public BinaryTraceWriter(OutputStream out, OrderStore store, List<Chef> chefs, List<Oven> ovens,
+                             List<Driver> drivers, boolean chefQuantum) {
+        this.out = out;
+        this.store = store;
+        this.chefs = chefs;
+        this.ovens = ovens;
+        this.drivers = drivers;
+        this.chefQuantum = chefQuantum;
+        this.chefOrder = new int[chefs.size()];
+        this.chefQuanta = new int[chefs.size()];
+        int slots = ovens.isEmpty() ? 1 : ovens.get(0).getSlots();
+        int batch = drivers.isEmpty() ? 1 : drivers.get(0).getMaxBatch();
+        this.ovenSlots = new int[ovens.size()][slots];
+        this.driverOrders = new int[drivers.size()][batch + 1];  // Count, then the orders
+        this.scratch = new int[Math.max(slots, batch + 1)];
+
+        writeInt32(MAGIC);
+        writeVarint(VERSION);
+        writeVarint(chefs.size());
+        writeVarint(chefQuantum ? 1 : 0);
+        writeVarint(ovens.size());
+        writeVarint(slots);
+        writeVarint(drivers.size());
+    }
+
+    // The order joins the trace in the minute it is admitted
+    public void admitted(int order) {
+        admitted.add(order);
+    }
+
+    // Lines that changed during the minute: new orders, orders that changed
+    // state, orders a resource holds now or held last minute, and the
+    // resources that took or dropped orders (plus busy chefs' quanta)
+    public void writeMinute(int minute, IntList changedOrders, ResourcePool chefPool,
+                            ResourcePool ovenPool, ResourcePool driverPool) {
+        for (int i = 0; i < admitted.size(); i++) {
+            writeOrder(minute, admitted.get(i));
+        }
+        admitted.clear();
+        for (int i = 0; i < changedOrders.size(); i++) {
+            updateOrder(minute, changedOrders.get(i));
+        }
+        collectHeld();
+        for (int i = 0; i < held.size(); i++) {
+            updateOrder(minute, held.get(i));
+        }
+        for (int i = 0; i < heldBefore.size(); i++) {
+            updateOrder(minute, heldBefore.get(i));
+        }
+        IntList swap = heldBefore;
+        heldBefore = held;
+        held = swap;
+
+        for (int id = 0; id < chefs.size(); id++) {
+            if (chefPool.isChanged(id) || (chefQuantum && !chefs.get(id).isFree())) {
+                updateChef(minute, id);
+            }
+        }
+        for (int id = ovenPool.nextChanged(0); id >= 0; id = ovenPool.nextChanged(id + 1)) {
+            updateOven(minute, id);
+        }
+        for (int id = driverPool.nextChanged(0); id >= 0; id = driverPool.nextChanged(id + 1)) {
+            updateDriver(minute, id);
+        }
+        flushIfFull();
+    }
+
+    // After `minutes` more minutes that only counted down: every held order
+    // and busy chef moved linearly from the line written for `minute`
+    public void skip(int minute, int minutes) {
+        if (minutes <= 0) {
+            return;
+        }
+        // An order held by several resources is listed once
+        skipLines.clear();
+        skipChanges.clear();
+        for (int i = 0; i < heldBefore.size(); i++) {
+            int order = heldBefore.get(i);
+            int change = store.getTotalRemainingTime(order) - remaining[order];
+            if (change != 0) {
+                remaining[order] += change;
+                skipLines.add(traceId[order] * 2);
+                skipChanges.add(change);
+            }
+        }
+        if (chefQuantum) {
+            for (int id = 0; id < chefs.size(); id++) {
+                Chef chef = chefs.get(id);
+                int change = chef.isFree() ? 0 : chef.getRemainingQuantum() - chefQuanta[id];
+                if (change != 0) {
+                    chefQuanta[id] += change;
+                    skipLines.add(id * 2 + 1);
+                    skipChanges.add(change);
+                }
+            }
+        }
+        if (skipLines.isEmpty()) {
+            return;
+        }
+        mark(minute);
+        writeVarint(SKIP);
+        writeVarint(minutes);
+        writeVarint(skipLines.size());
+        for (int i = 0; i < skipLines.size(); i++) {
+            writeVarint(skipLines.get(i));
+            writeZigzag(skipChanges.get(i));
+        }
+        flushIfFull();
+    }
+
+    public void finish(int lastMinute) throws IOException {
+        writeVarint(END);
+        writeVarint(lastMinute - markedMinute);
+        flush();
+    }
+
+    private void collectHeld() {
+        held.clear();
+        for (Chef chef : chefs) {
+            if (!chef.isFree()) {
+                held.add(chef.getCurrentOrderIndex());
+            }
+        }
+        for (Oven oven : ovens) {
+            if (oven.bakesByPizza()) {
+                for (int slot = 0; slot < oven.getSlots(); slot++) {
+                    if (oven.getSlotOrder(slot) != OrderStore.NONE) {
+                        held.add(oven.getSlotOrder(slot));
+                    }
+                }
+            } else if (!oven.isFree()) {
+                held.add(oven.getCurrentOrderIndex());
+            }
+        }
+        for (Driver driver : drivers) {
+            if (driver.isBatching()) {
+                for (int k = 0; k < driver.getBatchSize(); k++) {
+                    if (driver.getBatchOrder(k) != OrderStore.NONE) {
+                        held.add(driver.getBatchOrder(k));
+                    }
+                }
+            } else if (!driver.isFree()) {
+                held.add(driver.getCurrentOrderIndex());
+            }
+        }
+    }
+
+    private void writeOrder(int minute, int order) {
+        if (order >= traceId.length) {
+            int capacity = Math.max(order + 1, traceId.length * 2);
+            traceId = Arrays.copyOf(traceId, capacity);
+            state = Arrays.copyOf(state, capacity);
+            done = Arrays.copyOf(done, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+        }
+        int name = store.getNameId(order);
+        mark(minute);
+        while (namesWritten <= name) {
+            byte[] bytes = store.getNames().get(namesWritten).getBytes(StandardCharsets.UTF_8);
+            writeVarint(NAME);
+            writeVarint(bytes.length);
+            writeBytes(bytes);
+            namesWritten++;
+        }
+        traceId[order] = nextTraceId++;
+        state[order] = (byte) store.getState(order).ordinal();
+        done[order] = store.getDoneInCurrentState(order);
+        pending[order] = store.getPendingInCurrentState(order);
+        remaining[order] = store.getTotalRemainingTime(order);
+        writeVarint(ORDER);
+        writeVarint(name);
+        writeVarint(state[order]);
+        writeZigzag(done[order]);
+        writeZigzag(pending[order]);
+        writeZigzag(remaining[order]);
+    }
+
+    private void updateOrder(int minute, int order) {
+        int newState = store.getState(order).ordinal();
+        int newDone = store.getDoneInCurrentState(order);
+        int newPending = store.getPendingInCurrentState(order);
+        int newRemaining = store.getTotalRemainingTime(order);
+        if (newState == state[order] && newDone == done[order] && newPending == pending[order]) {
+            if (newRemaining != remaining[order]) {
+                mark(minute);
+                writeVarint(REMAINING);
+                writeVarint(traceId[order]);
+                writeZigzag(newRemaining - remaining[order]);
+                remaining[order] = newRemaining;
+            }
+            return;
+        }
+        state[order] = (byte) newState;
+        done[order] = newDone;
+        pending[order] = newPending;
+        remaining[order] = newRemaining;
+        mark(minute);
+        writeVarint(LINE);
+        writeVarint(traceId[order]);
+        writeVarint(newState);
+        writeZigzag(newDone);
+        writeZigzag(newPending);
+        writeZigzag(newRemaining);
+    }
+
+    private void updateChef(int minute, int id) {
+        Chef chef = chefs.get(id);
+        int order = chef.isFree() ? 0 : traceId[chef.getCurrentOrderIndex()] + 1;
+        int quantum = chef.isFree() || !chefQuantum ? 0 : chef.getRemainingQuantum();
+        if (order == chefOrder[id] && quantum == chefQuanta[id]) {
+            return;
+        }
+        chefOrder[id] = order;
+        chefQuanta[id] = quantum;
+        mark(minute);
+        writeVarint(CHEF);
+        writeVarint(id);
+        writeVarint(order);
+        writeZigzag(quantum);
+    }
+
+    private void updateOven(int minute, int id) {
+        Oven oven = ovens.get(id);
+        int[] slots = ovenSlots[id];
+        if (oven.bakesByPizza()) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                int order = oven.getSlotOrder(slot);
+                scratch[slot] = order == OrderStore.NONE ? 0 : traceId[order] + 1;
+            }
+        } else {
+            scratch[0] = oven.isFree() ? 0 : traceId[oven.getCurrentOrderIndex()] + 1;
+        }
+        if (Arrays.equals(scratch, 0, slots.length, slots, 0, slots.length)) {
+            return;
+        }
+        System.arraycopy(scratch, 0, slots, 0, slots.length);
+        mark(minute);
+        writeVarint(OVEN);
+        writeVarint(id);
+        for (int order : slots) {
+            writeVarint(order);
+        }
+    }
+
+    private void updateDriver(int minute, int id) {
+        Driver driver = drivers.get(id);
+        int count = 0;
+        if (driver.isBatching()) {
+            for (int k = 0; k < driver.getBatchSize(); k++) {
+                int order = driver.getBatchOrder(k);
+                if (order != OrderStore.NONE) {
+                    scratch[++count] = traceId[order] + 1;
+                }
+            }
+        } else if (!driver.isFree()) {
+            scratch[++count] = traceId[driver.getCurrentOrderIndex()] + 1;
+        }
+        scratch[0] = count;
+        int[] last = driverOrders[id];
+        if (Arrays.equals(scratch, 0, count + 1, last, 0, last[0] + 1)) {
+            return;
+        }
+        System.arraycopy(scratch, 0, last, 0, count + 1);
+        mark(minute);
+        writeVarint(DRIVER);
+        writeVarint(id);
+        writeVarint(count);
+        for (int k = 1; k <= count; k++) {
+            writeVarint(scratch[k]);
+        }
+    }
+
+    // Starts the minute's records if this is its first one
+    private void mark(int minute) {
+        if (minute == markedMinute) {
+            return;
+        }
+        writeVarint(MINUTE);
+        writeVarint(minute - markedMinute);
+        markedMinute = minute;
+    }
+
+    private void writeInt32(int value) {
+        ensure(4);
+        buffer[length++] = (byte) (value >>> 24);
+        buffer[length++] = (byte) (value >>> 16);
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeZigzag(int value) {
+        writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+
+    private void flushIfFull() {
+        if (length >= FLUSH_THRESHOLD) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void flush() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+        out.flush();
+    }
+}
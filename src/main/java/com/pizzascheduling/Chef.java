@@ -1,103 +1,175 @@
 package com.pizzascheduling;
 
+import java.io.IOException;
+
 public class Chef {
     private final int id;
-    private Order currentOrder;
-    private final String strategy;
+    private final OrderStore store;
+    private int currentOrder;  // Store slot, OrderStore.NONE when idle
+    private final ChefStrategy strategy;
+    private final boolean usesQuantum;  // Fixed by the strategy, read every minute
     private int remainingQuantum;
-    private final int prepTime;
+    private final ResourcePool pool;
+    private long busyMinutes;  // Minutes that started with an order in hand
 
-    public Chef(int id, String strategy, int prepTime) {
+    public Chef(int id, ChefStrategy strategy, OrderStore store, ResourcePool pool) {
         this.id = id;
         this.strategy = strategy;
-        this.prepTime = prepTime;
-        this.currentOrder = null;
+        this.usesQuantum = strategy.usesQuantum();
+        this.store = store;
+        this.pool = pool;
+        this.currentOrder = OrderStore.NONE;
         this.remainingQuantum = 0;
+        pool.release(id);
     }
 
     public boolean isFree() {
-        return currentOrder == null;
+        return currentOrder == OrderStore.NONE;
     }
 
-    public void assignOrder(Order order) {
-        if (order == null) {
+    public void assignOrder(int order) {
+        if (order == OrderStore.NONE) {
             throw new IllegalArgumentException("Cannot assign null order to chef");
         }
         
-        if (currentOrder != null && strategy.equals("FOCUSED")) {
-            throw new IllegalStateException("Chef is already working on an order in FOCUSED mode");
+        if (currentOrder != OrderStore.NONE) {
+            throw new IllegalStateException("Chef is already working on an order");
         }
 
         // Don't reassign if the order is already in OVEN_WAITING or later states
-        if (order.getCurrentState() == Order.State.OVEN_WAITING ||
-            order.getCurrentState() == Order.State.OVEN_PREPARING ||
-            order.getCurrentState() == Order.State.DRIVER_WAITING ||
-            order.getCurrentState() == Order.State.DELIVERED) {
+        Order.State state = store.getState(order);
+        if (state == Order.State.OVEN_WAITING ||
+            state == Order.State.OVEN_PREPARING ||
+            state == Order.State.DRIVER_WAITING ||
+            state == Order.State.DELIVERED) {
             return;
         }
 
         this.currentOrder = order;
+        store.addChef(order);
+        pool.acquire(id);
         // Set to PREPARING state for both PENDING and CHEF_WAITING states
-        if (order.getCurrentState() == Order.State.PENDING || 
-            order.getCurrentState() == Order.State.CHEF_WAITING) {
-            order.setState(Order.State.PREPARING);
+        if (state == Order.State.PENDING || 
+            state == Order.State.CHEF_WAITING) {
+            store.setState(order, Order.State.PREPARING);
         }
         
         // Set initial prep time for the pizza if it's zero
-        if (order.getRemainingPrepTime() == 0) {
-            order.setRemainingPrepTime(prepTime);
+        if (store.getRemainingPrepTime(order) == 0) {
+            store.setRemainingPrepTime(order, store.getChefTime(order));
         }
     }
 
     public void work() {
-        if (currentOrder == null) {
+        if (currentOrder == OrderStore.NONE) {
             return;
         }
+        busyMinutes++;
 
         // Release the order if it's moved past PREPARING state
-        if (currentOrder.getCurrentState() != Order.State.PREPARING) {
-            currentOrder = null;
+        if (store.getState(currentOrder) != Order.State.PREPARING) {
+            release();
             return;
         }
 
-        currentOrder.decrementRemainingPrepTime();
+        store.decrementRemainingPrepTime(currentOrder, 1);
         
-        if (strategy.equals("RR")) {
+        if (usesQuantum) {
             remainingQuantum--;
         }
 
-        if (currentOrder.getRemainingPrepTime() == 0) {
-            currentOrder.incrementPizzasPrepared();
+        if (store.getRemainingPrepTime(currentOrder) == 0) {
+            store.incrementPizzasPrepared(currentOrder);
             
             // If all pizzas are prepared, move to next state and release the order
-            if (currentOrder.getPizzasPrepared() == currentOrder.getNumPizzas()) {
-                currentOrder.setState(Order.State.OVEN_WAITING);
-                currentOrder = null;
+            if (store.getPizzasPrepared(currentOrder) == store.getNumPizzas(currentOrder)) {
+                store.setState(currentOrder, Order.State.OVEN_WAITING);
+                release();
                 return;
             }
 
-            // If not all pizzas are prepared
-            if (strategy.equals("FOCUSED")) {
-                currentOrder.setRemainingPrepTime(prepTime);
-            } else {
-                // In RR mode, only release if quantum is expired
-                currentOrder.setRemainingPrepTime(prepTime);
-                if (remainingQuantum <= 0) {
-                    currentOrder.setState(Order.State.CHEF_WAITING);
-                    currentOrder = null;
-                }
+            // If not all pizzas are prepared, start the next one; with a
+            // quantum, only release if the quantum is expired
+            store.setRemainingPrepTime(currentOrder, store.getChefTime(currentOrder));
+            if (usesQuantum && remainingQuantum <= 0) {
+                giveBack();
             }
-        } else if (strategy.equals("RR") && remainingQuantum <= 0) {
+        } else if (usesQuantum && remainingQuantum <= 0) {
             // Release order if quantum expired and pizza not completed
-            currentOrder.setState(Order.State.CHEF_WAITING);
-            currentOrder = null;
+            giveBack();
         }
     }
 
-    public Order getCurrentOrder() {
+    private void giveBack() {
+        strategy.quantumExpired(store, currentOrder);
+        store.setState(currentOrder, Order.State.CHEF_WAITING);
+        release();
+    }
+
+    // Puts the order back in the queue so the chef can take another; the
+    // order keeps the progress on its current pizza
+    public void preempt() {
+        if (currentOrder == OrderStore.NONE) {
+            throw new IllegalStateException("Chef has no order to give up");
+        }
+        store.setState(currentOrder, Order.State.CHEF_WAITING);
+        release();
+    }
+
+    private void release() {
+        int order = currentOrder;
+        currentOrder = OrderStore.NONE;
+        pool.release(id);
+        store.removeChef(order);
+    }
+
+    // True if work() this minute would only count down an order no other
+    // resource holds, or do nothing, so it can run on any thread
+    public boolean canWorkInParallel() {
+        if (currentOrder == OrderStore.NONE) {
+            return true;
+        }
+        return store.getHolders(currentOrder) == 1 &&
+               store.getState(currentOrder) == Order.State.PREPARING &&
+               store.getRemainingPrepTime(currentOrder) > 1 &&
+               (!usesQuantum || remainingQuantum > 1);
+    }
+
+    // Advance several minutes at once; the caller guarantees nothing completes or expires
+    public void advance(int minutes) {
+        if (currentOrder == OrderStore.NONE) {
+            return;
+        }
+        busyMinutes += minutes;
+        store.decrementRemainingPrepTime(currentOrder, minutes);
+        if (usesQuantum) {
+            remainingQuantum -= minutes;
+        }
+    }
+
+    // The order's holder count and the pool are saved with the store and pool
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(currentOrder);
+        out.writeInt(remainingQuantum);
+        out.writeLong(busyMinutes);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        currentOrder = in.readInt();
+        remainingQuantum = in.readInt();
+        busyMinutes = in.readLong();
+        pool.setWorking(id, currentOrder != OrderStore.NONE);
+    }
+
+    // Store slot of the current order, OrderStore.NONE when idle
+    public int getCurrentOrderIndex() {
         return currentOrder;
     }
 
+    public Order getCurrentOrder() {
+        return currentOrder == OrderStore.NONE ? null : store.view(currentOrder);
+    }
+
     public void setRemainingQuantum(int quantum) {
         this.remainingQuantum = quantum;
     }
@@ -106,18 +178,31 @@ public class Chef {
         return remainingQuantum;
     }
 
+    public long getBusyMinutes() {
+        return busyMinutes;
+    }
+
     public int getId() {
         return id;
     }
 
-    @Override
-    public String toString() {
-        if (currentOrder == null) {
-            return String.format("Chef%d,None", id);
+    // Same text as toString(), without the intermediate String
+    public void appendTo(StringBuilder out) {
+        out.append("Chef").append(id).append(',');
+        if (currentOrder == OrderStore.NONE) {
+            out.append("None");
+            return;
         }
-        if (strategy.equals("RR")) {
-            return String.format("Chef%d,%s,%d", id, currentOrder.getPerson(), remainingQuantum);
+        out.append(store.getPerson(currentOrder));
+        if (usesQuantum) {
+            out.append(',').append(remainingQuantum);
         }
-        return String.format("Chef%d,%s", id, currentOrder.getPerson());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.toString();
     }
 } 
\ No newline at end of file
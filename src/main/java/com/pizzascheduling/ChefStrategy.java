@@ -0,0 +1,59 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// How chefs pick orders. The strategy is chosen once from --chef-strategy:
+// it orders the chef queue, hands queued orders to free chefs, and says
+// whether chefs work to a quantum. Chefs call back when a quantum runs out.
+public interface ChefStrategy extends OrderQueue.Ordering {
+    String[] NAMES = {"FOCUSED", "RR", "SJF", "SRTF", "EDF", "MLFQ"};
+
+    static boolean isValidName(String name) {
+        for (String valid : NAMES) {
+            if (valid.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // True for the strategies that take --chef-quantum
+    static boolean usesQuantum(String name) {
+        return name.equals("RR") || name.equals("MLFQ");
+    }
+
+    static ChefStrategy create(String name, int quantum) {
+        switch (name) {
+            case "FOCUSED":
+                return new FocusedStrategy();
+            case "RR":
+                return new RoundRobinStrategy(quantum);
+            case "SJF":
+                return new ShortestJobFirstStrategy();
+            case "SRTF":
+                return new ShortestRemainingTimeStrategy();
+            case "EDF":
+                return new EarliestDeadlineFirstStrategy();
+            case "MLFQ":
+                return new MultilevelFeedbackStrategy(quantum);
+            default:
+                throw new IllegalArgumentException("Unknown chef strategy: " + name);
+        }
+    }
+
+    String getName();
+
+    // Chefs count down a quantum and give the order back when it runs out
+    boolean usesQuantum();
+
+    // Most chefs the strategy puts on one order at a time
+    int maxChefsPerOrder(int chefs, int pizzas);
+
+    // Hands queued orders to free chefs, and may preempt busy ones
+    void assign(OrderQueue queue, List<Chef> chefs, ResourcePool freeChefs, OrderStore store);
+
+    // A chef's quantum ran out before the order was ready; called before the
+    // order goes back to the queue
+    default void quantumExpired(OrderStore store, int order) {
+    }
+}
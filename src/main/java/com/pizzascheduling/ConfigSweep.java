@@ -0,0 +1,292 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Runs every combination of staffing levels and chef strategies against one
+// parsed order set, in parallel, and picks the cheapest combination that
+// meets the latency and makespan targets.
+//
+// Ranges are "N", "A..B" or "A,B,C". The quantum range only applies to RR
+// and MLFQ.
+// Sweeping --driver-batch compares batched driver runs against one order
+// per driver (batch 1) on throughput and tail latency.
+// Any other option is passed through to each run (input file or generated
+// workload, bake/chef time, engine). The per-run trace is always off.
+public class ConfigSweep {
+    // One combination and, once it has run, its results
+    public static class Result {
+        private final SchedulerConfig config;
+        private final RunSummary summary;
+        private final long cost;
+
+        Result(SchedulerConfig config, RunSummary summary, long cost) {
+            this.config = config;
+            this.summary = summary;
+            this.cost = cost;
+        }
+
+        public SchedulerConfig getConfig() {
+            return config;
+        }
+
+        public RunSummary getSummary() {
+            return summary;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+    }
+
+    private final SchedulerConfig base;
+    private int[] chefCounts = {1};
+    private int[] ovenCounts = {1};
+    private int[] driverCounts = {1};
+    private int[] driverBatches = {1};
+    private String[] strategies = {"FOCUSED"};
+    private int[] quanta = {1};
+    private int chefCost = 1;
+    private int ovenCost = 1;
+    private int driverCost = 1;
+    private double targetMeanLatency = Double.MAX_VALUE;
+    private int targetP99Latency = Integer.MAX_VALUE;
+    private int targetMinutes = Integer.MAX_VALUE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public ConfigSweep(SchedulerConfig base) {
+        this.base = base;
+    }
+
+    public static ConfigSweep parse(String[] args) {
+        SchedulerConfig base = new SchedulerConfig();
+        ConfigSweep sweep = new ConfigSweep(base);
+        SchedulerConfig.forEachArgument(args, (arg, value) -> {
+            switch (arg) {
+                case "--available-chefs":
+                    sweep.chefCounts = parseRange(value);
+                    break;
+                case "--available-ovens":
+                    sweep.ovenCounts = parseRange(value);
+                    break;
+                case "--available-drivers":
+                    sweep.driverCounts = parseRange(value);
+                    break;
+                case "--driver-batch":
+                    sweep.driverBatches = parseRange(value);
+                    break;
+                case "--chef-strategy":
+                    sweep.strategies = value.split(",");
+                    break;
+                case "--chef-quantum":
+                    sweep.quanta = parseRange(value);
+                    break;
+                case "--chef-cost":
+                    sweep.chefCost = Integer.parseInt(value);
+                    break;
+                case "--oven-cost":
+                    sweep.ovenCost = Integer.parseInt(value);
+                    break;
+                case "--driver-cost":
+                    sweep.driverCost = Integer.parseInt(value);
+                    break;
+                case "--target-mean-latency":
+                    sweep.targetMeanLatency = Double.parseDouble(value);
+                    break;
+                case "--target-p99-latency":
+                    sweep.targetP99Latency = Integer.parseInt(value);
+                    break;
+                case "--target-minutes":
+                    sweep.targetMinutes = Integer.parseInt(value);
+                    break;
+                case "--parallelism":
+                    sweep.parallelism = Integer.parseInt(value);
+                    break;
+                case "--trace":
+                case "--archive-file":
+                case "--metrics-file":
+                case "--snapshot-file":
+                case "--resume-from":
+                    throw new IllegalArgumentException(arg + " is not supported in a sweep");
+                default:
+                    if (!base.set(arg, value)) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+            }
+        });
+        if (sweep.parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return sweep;
+    }
+
+    static int[] parseRange(String value) {
+        int[] range;
+        if (value.contains("..")) {
+            String[] bounds = value.split("\\.\\.", 2);
+            int from = Integer.parseInt(bounds[0]);
+            int to = Integer.parseInt(bounds[1]);
+            if (to < from) {
+                throw new IllegalArgumentException("Empty range: " + value);
+            }
+            range = new int[to - from + 1];
+            for (int i = 0; i < range.length; i++) {
+                range[i] = from + i;
+            }
+        } else {
+            String[] parts = value.split(",");
+            range = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                range[i] = Integer.parseInt(parts[i]);
+            }
+        }
+        return range;
+    }
+
+    // Every combination, in chefs, ovens, drivers, batch, strategy, quantum order
+    public List<SchedulerConfig> configurations() {
+        List<SchedulerConfig> configs = new ArrayList<>();
+        for (int chefs : chefCounts) {
+            for (int ovens : ovenCounts) {
+                for (int drivers : driverCounts) {
+                    for (int batch : driverBatches) {
+                        for (String strategy : strategies) {
+                            int[] strategyQuanta = ChefStrategy.usesQuantum(strategy) ? quanta : new int[] {0};
+                            for (int quantum : strategyQuanta) {
+                                SchedulerConfig config = base.copy();
+                                config.setAvailableChefs(chefs);
+                                config.setAvailableOvens(ovens);
+                                config.setAvailableDrivers(drivers);
+                                config.setDriverBatch(batch);
+                                config.setChefStrategy(strategy);
+                                config.setChefQuantum(quantum);
+                                config.setTrace("NONE");
+                                config.validateSettings();
+                                configs.add(config);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    // Parses the orders once, then runs each configuration on a fork-join pool.
+    // Results come back in configurations() order.
+    public List<Result> run() throws IOException, InterruptedException {
+        List<SchedulerConfig> configs = configurations();
+        base.validateInput();
+        OrderSet orders = OrderSet.load(base.openInput());
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (SchedulerConfig config : configs) {
+                futures.add(pool.submit(() -> {
+                    PizzaScheduler scheduler = new PizzaScheduler(config, orders, discard);
+                    scheduler.loadOrders();
+                    return new Result(config, scheduler.runSimulation(), cost(config));
+                }));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long cost(SchedulerConfig config) {
+        return (long) config.getAvailableChefs() * chefCost +
+               (long) config.getAvailableOvens() * ovenCost +
+               (long) config.getAvailableDrivers() * driverCost;
+    }
+
+    public boolean meetsTarget(Result result) {
+        RunSummary summary = result.getSummary();
+        return summary.getMeanLatency() <= targetMeanLatency &&
+               summary.getP99Latency() <= targetP99Latency &&
+               summary.getMinutes() <= targetMinutes;
+    }
+
+    // Cheapest result that meets the targets, ties going to the lower p99
+    // latency and then to the earlier configuration; null if none does
+    public Result cheapest(List<Result> results) {
+        Result best = null;
+        for (Result result : results) {
+            if (!meetsTarget(result)) {
+                continue;
+            }
+            if (best == null || result.getCost() < best.getCost() ||
+                (result.getCost() == best.getCost() &&
+                 result.getSummary().getP99Latency() < best.getSummary().getP99Latency())) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    public void report(List<Result> results, PrintStream out) {
+        out.println("Chefs,Ovens,Drivers,Batch,Strategy,Quantum,Cost,Minutes,MeanLatency,P99Latency," +
+            "DeliveriesPerDriverHour,MeetsTarget");
+        for (Result result : results) {
+            out.println(format(result) + "," + (meetsTarget(result) ? "yes" : "no"));
+        }
+        Result best = cheapest(results);
+        if (best == null) {
+            out.println("No configuration meets the target");
+        } else {
+            out.println("Cheapest," + format(best));
+        }
+    }
+
+    private static String format(Result result) {
+        SchedulerConfig config = result.getConfig();
+        RunSummary summary = result.getSummary();
+        return config.getAvailableChefs() + "," + config.getAvailableOvens() + "," +
+               config.getAvailableDrivers() + "," + config.getDriverBatch() + "," + config.getChefStrategy() + "," +
+               config.getChefQuantum() + "," + result.getCost() + "," + summary.getMinutes() + "," +
+               String.format(Locale.ROOT, "%.2f", summary.getMeanLatency()) + "," + summary.getP99Latency() + "," +
+               String.format(Locale.ROOT, "%.2f", summary.getDeliveriesPerDriverHour());
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        try {
+            ConfigSweep sweep = parse(args);
+            sweep.report(sweep.run(), out);
+            return 0;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
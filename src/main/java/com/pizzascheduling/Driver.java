@@ -1,53 +1,332 @@
 package com.pizzascheduling;
 
+import java.io.IOException;
+
+// A driver with a batch size of 1 carries one order at a time, as it always
+// has. A batching driver collects up to batchSize ready orders into a run
+// and delivers them in order of delivery time: each stop before an order
+// adds stopTime minutes to that order's delivery. While loading, the driver
+// is out of the free pool; the scheduler decides when the run leaves.
 public class Driver {
     private final int id;
-    private Order currentOrder;
+    private final OrderStore store;
+    private int currentOrder;  // Store slot, OrderStore.NONE when idle
+    private final ResourcePool pool;
+    private long busyMinutes;  // Minutes that started with an order in hand
+
+    // Batching drivers only
+    private final int[] batchOrders;  // By delivery time; OrderStore.NONE once delivered
+    private final int stopTime;
+    private int batchSize;  // Orders taken for the current run
+    private int undelivered;
+    private boolean departed;
+    private int waitLeft;  // Minutes a loading driver still waits for more orders
+    private long runs;  // Trips started, one per order for non-batching drivers
+
+    public Driver(int id, OrderStore store, ResourcePool pool) {
+        this(id, 1, 0, store, pool);
+    }
 
-    public Driver(int id) {
+    public Driver(int id, int maxBatch, int stopTime, OrderStore store, ResourcePool pool) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Driver batch size must be positive");
+        }
         this.id = id;
-        this.currentOrder = null;
+        this.store = store;
+        this.pool = pool;
+        this.currentOrder = OrderStore.NONE;
+        this.batchOrders = new int[maxBatch];
+        this.stopTime = stopTime;
+        this.batchSize = 0;
+        this.undelivered = 0;
+        this.departed = false;
+        pool.release(id);
+    }
+
+    public boolean isBatching() {
+        return batchOrders.length > 1;
+    }
+
+    // Holding orders for a run that has not left yet
+    public boolean isLoading() {
+        return batchSize > 0 && !departed;
+    }
+
+    public int getMaxBatch() {
+        return batchOrders.length;
+    }
+
+    // Orders taken for the current run, delivered ones included
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    // The run's k-th order by delivery time, OrderStore.NONE once delivered
+    public int getBatchOrder(int k) {
+        return batchOrders[k];
+    }
+
+    public boolean isBatchFull() {
+        return batchSize == batchOrders.length;
+    }
+
+    public int getWaitLeft() {
+        return waitLeft;
+    }
+
+    // True if the order can join the run without any delivery in it taking
+    // longer than maxDelivery minutes from departure (0 for no bound). An
+    // empty run takes any order.
+    public boolean fits(int order, int maxDelivery) {
+        if (isBatchFull()) {
+            return false;
+        }
+        if (batchSize == 0 || maxDelivery == 0) {
+            return true;
+        }
+        int deliveryTime = store.getDeliveryTime(order);
+        int position = 0;
+        while (position < batchSize && store.getDeliveryTime(batchOrders[position]) <= deliveryTime) {
+            position++;
+        }
+        if (deliveryTime + position * stopTime > maxDelivery) {
+            return false;
+        }
+        // Orders after the new one are one stop later
+        for (int k = position; k < batchSize; k++) {
+            if (store.getDeliveryTime(batchOrders[k]) + (k + 1) * stopTime > maxDelivery) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Adds a ready order to the run being loaded. The first order starts the
+    // wait for more.
+    public void addToBatch(int order, int wait) {
+        if (isBatchFull() || departed) {
+            throw new IllegalStateException("Driver cannot take more orders for this run");
+        }
+        int deliveryTime = store.getDeliveryTime(order);
+        int k = batchSize;
+        while (k > 0 && store.getDeliveryTime(batchOrders[k - 1]) > deliveryTime) {
+            batchOrders[k] = batchOrders[k - 1];
+            k--;
+        }
+        batchOrders[k] = order;
+        if (batchSize == 0) {
+            waitLeft = wait;
+            pool.acquire(id);
+        } else {
+            pool.markChanged(id);
+        }
+        batchSize++;
+        store.addHolder(order);
+    }
+
+    // Leaves with the loaded orders; each order's remaining delivery time
+    // becomes the minutes until its stop
+    public void depart() {
+        if (batchSize == 0 || departed) {
+            throw new IllegalStateException("Driver has no run to start");
+        }
+        departed = true;
+        undelivered = batchSize;
+        runs++;
+        pool.touch(id);
+        for (int k = 0; k < batchSize; k++) {
+            store.setRemainingDeliveryTime(batchOrders[k], store.getDeliveryTime(batchOrders[k]) + k * stopTime);
+        }
+    }
+
+    private void workBatch(int minutes) {
+        if (batchSize == 0) {
+            return;
+        }
+        busyMinutes += minutes;
+        if (!departed) {
+            waitLeft = Math.max(0, waitLeft - minutes);
+            return;
+        }
+        for (int k = 0; k < batchSize; k++) {
+            int order = batchOrders[k];
+            if (order == OrderStore.NONE) {
+                continue;
+            }
+            store.decrementRemainingDeliveryTime(order, minutes);
+            if (store.getRemainingDeliveryTime(order) > 0) {
+                continue;
+            }
+            batchOrders[k] = OrderStore.NONE;
+            undelivered--;
+            pool.markChanged(id);
+            store.setState(order, Order.State.DELIVERED);
+            store.removeHolder(order);
+        }
+        if (undelivered == 0) {
+            batchSize = 0;
+            departed = false;
+            pool.release(id);
+        }
+    }
+
+    // Batching drivers: minutes that can pass before the run leaves or a
+    // delivery finishes
+    public int quietMinutes() {
+        if (batchSize == 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (!departed) {
+            return waitLeft;
+        }
+        int quiet = Integer.MAX_VALUE;
+        for (int k = 0; k < batchSize; k++) {
+            if (batchOrders[k] != OrderStore.NONE) {
+                quiet = Math.min(quiet, store.getRemainingDeliveryTime(batchOrders[k]) - 1);
+            }
+        }
+        return quiet;
+    }
+
+    public long getRuns() {
+        return runs;
     }
 
     public boolean isFree() {
-        return currentOrder == null;
+        return currentOrder == OrderStore.NONE;
     }
 
-    public void assignOrder(Order order) {
-        if (order == null) {
+    public void assignOrder(int order) {
+        if (order == OrderStore.NONE) {
             throw new IllegalArgumentException("Cannot assign null order to driver");
         }
         
-        if (currentOrder != null) {
+        if (currentOrder != OrderStore.NONE) {
             throw new IllegalStateException("Driver is already delivering an order");
         }
 
         this.currentOrder = order;
+        store.addHolder(order);
+        pool.acquire(id);
+        runs++;
         // The delivery time is already set in the order from creation
     }
 
     public void work() {
-        if (currentOrder == null) {
+        if (isBatching()) {
+            workBatch(1);
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
             return;
         }
+        busyMinutes++;
 
-        currentOrder.decrementRemainingDeliveryTime();
+        store.decrementRemainingDeliveryTime(currentOrder, 1);
         
-        if (currentOrder.getRemainingDeliveryTime() == 0) {
-            currentOrder.setState(Order.State.DELIVERED);
-            currentOrder = null;
+        if (store.getRemainingDeliveryTime(currentOrder) == 0) {
+            store.setState(currentOrder, Order.State.DELIVERED);
+            release();
         }
     }
 
-    public Order getCurrentOrder() {
+    private void release() {
+        int order = currentOrder;
+        currentOrder = OrderStore.NONE;
+        pool.release(id);
+        store.removeHolder(order);
+    }
+
+    // True if work() this minute would only count down orders no other
+    // resource holds, or do nothing, so it can run on any thread
+    public boolean canWorkInParallel() {
+        if (isBatching()) {
+            return quietMinutes() >= 1;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            return true;
+        }
+        return store.getHolders(currentOrder) == 1 && store.getRemainingDeliveryTime(currentOrder) > 1;
+    }
+
+    // Advance several minutes at once; the caller guarantees no delivery finishes
+    public void advance(int minutes) {
+        if (isBatching()) {
+            workBatch(minutes);
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            return;
+        }
+        busyMinutes += minutes;
+        store.decrementRemainingDeliveryTime(currentOrder, minutes);
+    }
+
+    // The batch size is part of the configuration and is not saved
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(currentOrder);
+        out.writeLong(busyMinutes);
+        out.writeLong(runs);
+        out.writeInt(batchSize);
+        out.writeInt(undelivered);
+        out.writeBoolean(departed);
+        out.writeInt(waitLeft);
+        out.writeInts(batchOrders, batchOrders.length);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        currentOrder = in.readInt();
+        busyMinutes = in.readLong();
+        runs = in.readLong();
+        batchSize = in.readInt();
+        undelivered = in.readInt();
+        departed = in.readBoolean();
+        waitLeft = in.readInt();
+        in.readInts(batchOrders, batchOrders.length);
+        pool.setWorking(id, isBatching() ? batchSize > 0 : currentOrder != OrderStore.NONE);
+    }
+
+    // Store slot of the current order, OrderStore.NONE when idle
+    public int getCurrentOrderIndex() {
         return currentOrder;
     }
 
+    public Order getCurrentOrder() {
+        return currentOrder == OrderStore.NONE ? null : store.view(currentOrder);
+    }
+
+    public long getBusyMinutes() {
+        return busyMinutes;
+    }
+
+    // Same text as toString(), without the intermediate String
+    // Batching drivers list the orders still to deliver: Driver0,Juan,Maria
+    public void appendTo(StringBuilder out) {
+        out.append("Driver").append(id).append(',');
+        if (isBatching()) {
+            boolean any = false;
+            for (int k = 0; k < batchSize; k++) {
+                if (batchOrders[k] != OrderStore.NONE) {
+                    out.append(any ? "," : "").append(store.getPerson(batchOrders[k]));
+                    any = true;
+                }
+            }
+            if (!any) {
+                out.append("None");
+            }
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            out.append("None");
+            return;
+        }
+        out.append(store.getPerson(currentOrder));
+    }
+
     @Override
     public String toString() {
-        if (currentOrder == null) {
-            return String.format("Driver%d,None", id);
-        }
-        return String.format("Driver%d,%s", id, currentOrder.getPerson());
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.toString();
     }
 } 
\ No newline at end of file
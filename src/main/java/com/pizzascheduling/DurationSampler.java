@@ -0,0 +1,169 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+
+// Draws each order's chef, bake and delivery times when it arrives, for
+// stochastic runs. A distribution is "FIXED" (the configured time, the
+// default), "EXPONENTIAL", or "UNIFORM", "NORMAL" or "LOGNORMAL" followed
+// by ":cv", the standard deviation over the mean (0.25 if left out). Every
+// draw has the configured time as its mean and is rounded to a whole
+// minute of at least 1. All of an order's pizzas share its draws.
+//
+// The generator is SplitMix64 on one long, so a run allocates nothing per
+// draw, the same seed gives the same run, and the state fits in a snapshot.
+class DurationSampler {
+    private static final double DEFAULT_CV = 0.25;
+
+    private final String chefKind;
+    private final double chefCv;
+    private final String bakeKind;
+    private final double bakeCv;
+    private final String deliveryKind;
+    private final double deliveryCv;
+    private long state;
+    private double spareGaussian;
+    private boolean hasSpare;
+
+    DurationSampler(String chefTime, String bakeTime, String deliveryTime, long seed) {
+        this.chefKind = kind(chefTime);
+        this.chefCv = cv(chefTime);
+        this.bakeKind = kind(bakeTime);
+        this.bakeCv = cv(bakeTime);
+        this.deliveryKind = kind(deliveryTime);
+        this.deliveryCv = cv(deliveryTime);
+        this.state = seed;
+    }
+
+    // Throws if the distribution is not one of the above
+    static void validate(String distribution) {
+        String kind = kind(distribution);
+        double cv = cv(distribution);
+        switch (kind) {
+            case "FIXED":
+            case "EXPONENTIAL":
+                if (distribution.contains(":")) {
+                    throw new IllegalArgumentException(kind + " takes no parameter");
+                }
+                return;
+            case "UNIFORM":
+                if (!(cv > 0)) {
+                    throw new IllegalArgumentException(kind + " cv must be positive");
+                }
+                // Wider than this the lower end would go below zero
+                if (cv > 1 / Math.sqrt(3)) {
+                    throw new IllegalArgumentException("UNIFORM cv must be at most 0.577");
+                }
+                return;
+            case "NORMAL":
+            case "LOGNORMAL":
+                if (!(cv > 0)) {
+                    throw new IllegalArgumentException(kind + " cv must be positive");
+                }
+                return;
+            default:
+                throw new IllegalArgumentException("Invalid duration distribution: " + distribution);
+        }
+    }
+
+    static boolean isFixed(String distribution) {
+        return kind(distribution).equals("FIXED");
+    }
+
+    private static String kind(String distribution) {
+        int colon = distribution.indexOf(':');
+        return (colon < 0 ? distribution : distribution.substring(0, colon)).toUpperCase();
+    }
+
+    private static double cv(String distribution) {
+        int colon = distribution.indexOf(':');
+        if (colon < 0) {
+            return DEFAULT_CV;
+        }
+        try {
+            return Double.parseDouble(distribution.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + distribution);
+        }
+    }
+
+    boolean samplesDelivery() {
+        return !deliveryKind.equals("FIXED");
+    }
+
+    int chefTime(int mean) {
+        return sample(chefKind, chefCv, mean);
+    }
+
+    int bakeTime(int mean) {
+        return sample(bakeKind, bakeCv, mean);
+    }
+
+    int deliveryTime(int mean) {
+        return sample(deliveryKind, deliveryCv, mean);
+    }
+
+    private int sample(String kind, double cv, int mean) {
+        double value;
+        switch (kind) {
+            case "FIXED":
+                return mean;
+            case "EXPONENTIAL":
+                value = -mean * Math.log(1 - nextDouble());
+                break;
+            case "UNIFORM":
+                value = mean * (1 + cv * Math.sqrt(3) * (2 * nextDouble() - 1));
+                break;
+            case "NORMAL":
+                value = mean * (1 + cv * nextGaussian());
+                break;
+            default:
+                double sigma2 = Math.log(1 + cv * cv);
+                value = mean * Math.exp(Math.sqrt(sigma2) * nextGaussian() - sigma2 / 2);
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.round(value)));
+    }
+
+    private long nextLong() {
+        long z = state += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // In [0, 1)
+    private double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // Marsaglia's polar method, which makes two at a time
+    private double nextGaussian() {
+        if (hasSpare) {
+            hasSpare = false;
+            return spareGaussian;
+        }
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * nextDouble() - 1;
+            v = 2 * nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        spareGaussian = v * scale;
+        hasSpare = true;
+        return u * scale;
+    }
+
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeLong(state);
+        out.writeLong(Double.doubleToLongBits(spareGaussian));
+        out.writeBoolean(hasSpare);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        state = in.readLong();
+        spareGaussian = Double.longBitsToDouble(in.readLong());
+        hasSpare = in.readBoolean();
+    }
+}
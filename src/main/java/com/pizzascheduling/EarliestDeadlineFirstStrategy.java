@@ -0,0 +1,23 @@
+package com.pizzascheduling;
+
+// Preemptive earliest deadline first. An order's deadline is its arrival
+// minute plus its delivery time, so short delivery windows start first.
+public class EarliestDeadlineFirstStrategy extends SingleChefStrategy {
+    public EarliestDeadlineFirstStrategy() {
+        super(true);
+    }
+
+    @Override
+    public String getName() {
+        return "EDF";
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        return Long.compare(deadline(store, a), deadline(store, b));
+    }
+
+    private static long deadline(OrderStore store, int order) {
+        return (long) store.getArrivalMinute(order) + store.getDeliveryTime(order);
+    }
+}
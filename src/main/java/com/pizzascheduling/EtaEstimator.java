@@ -0,0 +1,473 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Predicts the minute an order will be delivered from the current state,
+// without simulating ahead. Each stage (chefs, ovens, drivers) drains work,
+// in resource-minutes, at one unit per resource per minute, lower priority
+// values first as the queues serve them. At each stage the order is done no
+// sooner than
+//
+//   - its own work there, from the minute after it leaves the previous
+//     stage, at the most resources one order can use (chef strategy,
+//     pizzas, slots; drivers join it one per minute), and
+//   - all the work ahead of it there, from the moment the stage gets any:
+//     work on a resource now, plus every order with the same or a better
+//     priority that has not finished the stage, wherever it is now.
+//
+// Drivers without batching work differently. A free driver joins the best
+// order out for delivery or waiting for it, so orders take the drivers in
+// turn instead of sharing them: an order's own delivery starts once the
+// work ahead has drained, and ramps up from there. The drivers that join
+// last often find the order delivered a minute later, so the work ahead is
+// scaled up by the driver-minutes spent per minute of delivery so far.
+//
+// Waiting work is summed per priority and kept up to date from the state
+// changes, so a query is one pass over the priority buckets and the
+// resources. It does not follow chef strategies that reorder the queue
+// (SJF, EDF, ...), counts later orders of the same priority as ahead,
+// treats a batching driver as one driver per batch place, and cannot know
+// about better-priority orders that arrive later. That last one makes it
+// early under load: an order with a poor priority is passed by every
+// better one that arrives while it waits, so with several priorities in
+// play the mean error grows with the queues, and without bound once a
+// stage takes work faster than it can drain it.
+class EtaEstimator {
+    private static final int BUCKETS = 64;  // Priorities outside 0..63 share the end buckets
+    private static final double NEVER = Double.MAX_VALUE;
+
+    private final OrderStore store;
+    private final ChefStrategy chefStrategy;
+    private final OrderQueue chefQueue;
+    private final OrderQueue ovenQueue;
+    private final List<Chef> chefs;
+    private final List<Oven> ovens;
+    private final List<Driver> drivers;
+    private final int chefTime;  // Configured means, for orders not placed yet
+    private final int bakeTime;
+    private final boolean byPizza;
+    private final boolean batching;
+    private final int ovenRate;
+    private final int driverBatch;
+    private int chefCount;  // On shift
+    private int driverCount;
+    private int driverRate;
+
+    // Work by priority bucket
+    private final long[] prepWaiting = new long[BUCKETS];  // Of orders waiting for a chef
+    private final long[] bakeWaiting = new long[BUCKETS];  // Of orders not baking yet
+    private final long[] deliveryWaiting = new long[BUCKETS];  // Of orders not delivered yet
+    private int atOvens;  // Orders waiting for an oven
+    private int atDrivers;  // Orders waiting for or out with a driver
+    private long deliveredWork;  // Delivery minutes of the orders delivered so far
+
+    // Set by sumAhead(): work ahead of the queried bucket, and the earliest
+    // time each later stage gets any of it
+    private double prepAhead;
+    private double bakeAhead;
+    private double deliveryAhead;
+    private double ovensStart;
+    private double driversStart;
+    private double deliveryOverhead;  // Driver-minutes per minute of delivery, at least 1
+
+    // Accuracy tracking: the estimate made when each order was admitted, by slot
+    private boolean tracking;
+    private int[] predicted = new int[0];
+    private final LatencyHistogram absoluteError = new LatencyHistogram();
+    private long errorTotal;  // Actual minus predicted
+
+    EtaEstimator(OrderStore store, ChefStrategy chefStrategy, OrderQueue chefQueue, OrderQueue ovenQueue,
+                 List<Chef> chefs, List<Oven> ovens, List<Driver> drivers,
+                 int chefTime, int bakeTime, int ovenSlots, boolean byPizza, int driverBatch) {
+        this.store = store;
+        this.chefStrategy = chefStrategy;
+        this.chefQueue = chefQueue;
+        this.ovenQueue = ovenQueue;
+        this.chefs = chefs;
+        this.ovens = ovens;
+        this.drivers = drivers;
+        this.chefTime = chefTime;
+        this.bakeTime = bakeTime;
+        this.byPizza = byPizza;
+        this.batching = driverBatch > 1;
+        this.ovenRate = ovens.size() * ovenSlots;
+        this.driverBatch = driverBatch;
+        setStaffing(chefs.size(), drivers.size());
+    }
+
+    // Chefs and drivers on shift, when shifts change them. With none on
+    // shift the estimate assumes one will come.
+    void setStaffing(int chefCount, int driverCount) {
+        this.chefCount = Math.max(1, chefCount);
+        this.driverCount = Math.max(1, driverCount);
+        this.driverRate = this.driverCount * driverBatch;
+    }
+
+    void setTracking(boolean tracking) {
+        this.tracking = tracking;
+    }
+
+    void admitted(int order, int minute) {
+        int bucket = bucket(store.getPriority(order));
+        prepWaiting[bucket] += store.getRemainingPrepWork(order);
+        bakeWaiting[bucket] += bakeWork(order);
+        deliveryWaiting[bucket] += store.getDeliveryTime(order);
+        if (tracking) {
+            if (order >= predicted.length) {
+                predicted = Arrays.copyOf(predicted, Math.max(64, order * 2));
+            }
+            predicted[order] = estimate(order, minute);
+        }
+    }
+
+    // A pizza's progress doesn't change while its order waits for a chef,
+    // so the prep work taken out on leaving the queue is what was put in
+    void stateChanged(int order, Order.State from, Order.State to, int minute) {
+        int bucket = bucket(store.getPriority(order));
+        if (waitsForChef(from)) {
+            prepWaiting[bucket] -= store.getRemainingPrepWork(order);
+        }
+        if (waitsForChef(to)) {
+            prepWaiting[bucket] += store.getRemainingPrepWork(order);
+        }
+        if (from == Order.State.OVEN_WAITING) {
+            atOvens--;
+        } else if (to == Order.State.OVEN_WAITING) {
+            atOvens++;
+        }
+        if (to == Order.State.OVEN_PREPARING) {
+            bakeWaiting[bucket] -= bakeWork(order);
+        } else if (to == Order.State.DRIVER_WAITING) {
+            atDrivers++;
+        } else if (to == Order.State.DELIVERED) {
+            atDrivers--;
+            deliveryWaiting[bucket] -= store.getDeliveryTime(order);
+            deliveredWork += store.getDeliveryTime(order);
+            if (tracking) {
+                int error = minute - predicted[order];
+                absoluteError.record(Math.abs(error));
+                errorTotal += error;
+            }
+        }
+    }
+
+    private static boolean waitsForChef(Order.State state) {
+        return state == Order.State.PENDING || state == Order.State.CHEF_WAITING;
+    }
+
+    // Bake minutes for an order whose pizzas bake for `bakeTime` each. A
+    // single-slot oven counts the order's first pizza down from bakeTime
+    // times the pizzas, then one bakeTime per remaining pizza; baking by
+    // pizza, each slot bakes one.
+    private int bakeWork(int pizzas, int bakeTime) {
+        return byPizza ? pizzas * bakeTime : (2 * pizzas - 1) * bakeTime;
+    }
+
+    // Admitted orders have their own bake time, drawn on arrival
+    private int bakeWork(int order) {
+        return bakeWork(store.getNumPizzas(order), store.getBakeTime(order));
+    }
+
+    // Minutes for one order's own work at each stage, at the most resources it can get
+    private double prepMinutes(int work, int pizzas) {
+        return (double) work / chefStrategy.maxChefsPerOrder(chefCount, pizzas);
+    }
+
+    private double bakeMinutes(int pizzas, int bakeTime) {
+        if (byPizza) {
+            return bakeTime * (double) ((pizzas + ovenRate - 1) / ovenRate);
+        }
+        return (double) bakeWork(pizzas, bakeTime) / Math.min(ovens.size(), pizzas);
+    }
+
+    private double bakeMinutes(int order) {
+        return bakeMinutes(store.getNumPizzas(order), store.getBakeTime(order));
+    }
+
+    private double deliveryMinutes(int deliveryTime) {
+        return batching ? deliveryTime : rampMinutes(deliveryTime, 0, driverCount);
+    }
+
+    // Drivers join an order one per minute, as the queue hands it out once
+    // per pass: minutes for `work` with `already` on it, at most `most`
+    private static int rampMinutes(int work, int already, int most) {
+        long ramp = Math.max(0, most - already);
+        long rampWork = ramp * already + ramp * (ramp + 1) / 2;
+        if (work > rampWork) {
+            return (int) (ramp + (work - rampWork + most - 1) / most);
+        }
+        double b = 2.0 * already + 1;
+        int minutes = (int) Math.ceil((Math.sqrt(b * b + 8.0 * work) - b) / 2 - 1e-9);
+        while ((long) minutes * already + (long) minutes * (minutes + 1) / 2 < work) {
+            minutes++;
+        }
+        return minutes;
+    }
+
+    // Delivery minute of a live order, queried at the start of `minute`
+    int estimate(int order, int minute) {
+        Order.State state = store.getState(order);
+        if (state == Order.State.DELIVERED) {
+            throw new IllegalArgumentException("Order is already delivered");
+        }
+        double start = minute - 1;  // Minutes are counted from the end of the previous one
+        sumAhead(bucket(store.getPriority(order)), start);
+        int pizzas = store.getNumPizzas(order);
+        double finish = start;
+
+        if (waitsForChef(state)) {
+            int prep = store.getRemainingPrepWork(order);
+            finish = stage(finish, prepMinutes(prep, pizzas), start, prepAhead, chefCount);
+        } else if (state == Order.State.PREPARING) {
+            finish = start + (double) store.getRemainingPrepWork(order) / store.getChefs(order);
+        }
+
+        if (state.ordinal() < Order.State.OVEN_PREPARING.ordinal()) {
+            finish = stage(handoff(finish), bakeMinutes(order), ovensStart, bakeAhead, ovenRate);
+        } else if (state == Order.State.OVEN_PREPARING) {
+            finish = Math.max(finish, start + bakingMinutesLeft(order));
+        }
+
+        int delivering = driversOn(order);
+        if (delivering == 0) {
+            int delivery = store.getRemainingDeliveryTime(order);
+            finish = driverStage(handoff(finish), delivery, driversStart, deliveryAhead);
+        } else {
+            int left = store.getRemainingDeliveryTime(order);
+            double minutes = batching ? left : rampMinutes(left, delivering, driverCount);
+            finish = Math.max(finish, start + minutes);
+        }
+        return (int) Math.ceil(finish - 1e-9);
+    }
+
+    // Delivery minute of an order placed at the start of `minute`
+    int estimateNew(int numPizzas, int deliveryTime, int priority, int minute) {
+        double start = minute - 1;
+        sumAhead(bucket(priority), start);
+        int prep = numPizzas * chefTime;
+        double finish = stage(start, prepMinutes(prep, numPizzas), start, prepAhead + prep, chefCount);
+        finish = stage(handoff(finish), bakeMinutes(numPizzas, bakeTime), ovensStart,
+            bakeAhead + bakeWork(numPizzas, bakeTime), ovenRate);
+        finish = driverStage(handoff(finish), deliveryTime, driversStart,
+            deliveryAhead + deliveryTime * deliveryOverhead);
+        return (int) Math.ceil(finish - 1e-9);
+    }
+
+    // An order ready during a minute reaches the next stage's queue at its
+    // end, and is picked up in the next minute
+    private static double handoff(double ready) {
+        return Math.ceil(ready - 1e-9);
+    }
+
+    // Done after its own minutes there, and after the stage has drained
+    // everything ahead of it (its own work included)
+    private static double stage(double previous, double own, double stageStart, double ahead, int rate) {
+        if (own <= 0) {
+            return previous;
+        }
+        return Math.max(previous + own, Math.min(stageStart, previous) + ahead / rate);
+    }
+
+    // `ahead` includes the order's own `delivery`, in driver-minutes
+    private double driverStage(double previous, int delivery, double stageStart, double ahead) {
+        if (batching) {
+            return stage(previous, deliveryMinutes(delivery), stageStart, ahead, driverRate);
+        }
+        double others = Math.max(0, ahead - delivery * deliveryOverhead);
+        return Math.max(previous, Math.min(stageStart, previous) + others / driverRate) + deliveryMinutes(delivery);
+    }
+
+    // Waiting work in buckets up to `bucket`, plus everything on a resource,
+    // and when the ovens and drivers next get work: now if they have some,
+    // else when the first order gets through the stages before them.
+    // Delivery work comes out in driver-minutes.
+    private void sumAhead(int bucket, double start) {
+        long prep = 0;
+        long bake = 0;
+        long delivery = 0;
+        for (int b = 0; b <= bucket; b++) {
+            prep += prepWaiting[b];
+            bake += bakeWaiting[b];
+            delivery += deliveryWaiting[b];
+        }
+        prepAhead = prep;
+        bakeAhead = bake;
+        deliveryAhead = delivery;
+
+        double ovensFirst = NEVER;
+        double driversFirst = NEVER;
+        int head = chefQueue.peek();
+        if (head != OrderStore.NONE) {
+            int pizzas = store.getNumPizzas(head);
+            double prepped = handoff(start + prepMinutes(store.getRemainingPrepWork(head), pizzas));
+            ovensFirst = prepped;
+            driversFirst = handoff(prepped + bakeMinutes(head));
+        }
+        for (Chef chef : chefs) {
+            int order = chef.getCurrentOrderIndex();
+            if (order != OrderStore.NONE && store.getState(order) == Order.State.PREPARING) {
+                int work = store.getRemainingPrepWork(order);
+                prepAhead += (double) work / store.getChefs(order);
+                double prepped = handoff(start + (double) work / store.getChefs(order));
+                ovensFirst = Math.min(ovensFirst, prepped);
+                double baked = handoff(prepped + bakeMinutes(order));
+                driversFirst = Math.min(driversFirst, baked);
+            }
+        }
+
+        head = ovenQueue.peek();
+        if (head != OrderStore.NONE) {
+            driversFirst = Math.min(driversFirst, handoff(start + bakeMinutes(head)));
+        }
+        boolean baking = false;
+        for (Oven oven : ovens) {
+            if (byPizza) {
+                for (int slot = 0; slot < oven.getSlots(); slot++) {
+                    int order = oven.getSlotOrder(slot);
+                    // Pizzas of an order still waiting for slots are in bakeWaiting
+                    if (order != OrderStore.NONE && store.getState(order) == Order.State.OVEN_PREPARING) {
+                        bakeAhead += oven.getSlotRemaining(slot);
+                        baking = true;
+                        driversFirst = Math.min(driversFirst, start + store.getRemainingBakeTime(order));
+                    }
+                }
+                continue;
+            }
+            int order = oven.getCurrentOrderIndex();
+            if (order != OrderStore.NONE && store.getState(order) == Order.State.OVEN_PREPARING) {
+                bakeAhead += (double) bakingLeft(order) / ovensOn(order);
+                baking = true;
+                driversFirst = Math.min(driversFirst, start + bakingMinutesLeft(order));
+            }
+        }
+
+        long driverMinutes = 0;
+        double deliveryDone = deliveredWork;
+        for (Driver driver : drivers) {
+            if (driver.isBatching()) {
+                if (driver.isLoading()) {
+                    continue;
+                }
+                for (int k = 0; k < driver.getBatchSize(); k++) {
+                    int order = driver.getBatchOrder(k);
+                    if (order != OrderStore.NONE) {
+                        delivering(order, 1, bucket);
+                    }
+                }
+                continue;
+            }
+            driverMinutes += driver.getBusyMinutes();
+            int order = driver.getCurrentOrderIndex();
+            if (order != OrderStore.NONE) {
+                int sharing = Math.max(1, store.getHolders(order) - store.getChefs(order));
+                delivering(order, sharing, bucket);
+                int done = store.getDeliveryTime(order) - store.getRemainingDeliveryTime(order);
+                deliveryDone += (double) done / sharing;
+            }
+        }
+        deliveryOverhead = deliveryDone == 0 ? 1 : Math.max(1, driverMinutes / deliveryDone);
+        deliveryAhead *= deliveryOverhead;
+
+        ovensStart = atOvens > 0 || baking || ovensFirst == NEVER ? start : ovensFirst;
+        driversStart = atDrivers > 0 || driversFirst == NEVER ? start : driversFirst;
+    }
+
+    // One of the `sharing` drivers on the order
+    private void delivering(int order, int sharing, int bucket) {
+        deliveryAhead += (double) store.getRemainingDeliveryTime(order) / sharing;
+        if (bucket(store.getPriority(order)) <= bucket) {
+            deliveryAhead -= (double) store.getDeliveryTime(order) / sharing;
+        }
+    }
+
+    // Minutes until a baking order is out of the oven. Baking by pizza, an order's
+    // bake time follows its last pizza, which went in last.
+    private double bakingMinutesLeft(int order) {
+        if (byPizza) {
+            return store.getRemainingBakeTime(order);
+        }
+        return (double) bakingLeft(order) / ovensOn(order);
+    }
+
+    // Single-slot ovens: the current countdown plus one bake time per pizza after it
+    private int bakingLeft(int order) {
+        int after = store.getNumPizzas(order) - store.getPizzasBaked(order) - 1;
+        return store.getRemainingBakeTime(order) + Math.max(0, after) * store.getBakeTime(order);
+    }
+
+    // While an order bakes, its other holders are chefs that have not let go yet
+    private int ovensOn(int order) {
+        return Math.max(1, store.getHolders(order) - store.getChefs(order));
+    }
+
+    // Drivers out with the order, 0 if it is not out for delivery
+    private int driversOn(int order) {
+        int count = 0;
+        for (Driver driver : drivers) {
+            if (driver.isBatching()) {
+                if (driver.isLoading()) {
+                    continue;
+                }
+                for (int k = 0; k < driver.getBatchSize(); k++) {
+                    if (driver.getBatchOrder(k) == order) {
+                        return 1;
+                    }
+                }
+            } else if (driver.getCurrentOrderIndex() == order) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int bucket(int priority) {
+        return Math.max(0, Math.min(BUCKETS - 1, priority));
+    }
+
+    // Error of the estimates made on admission against the simulated
+    // delivery minutes, as CSV
+    void writeReport(String path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            long count = absoluteError.getCount();
+            out.write("orders,meanError,meanAbsoluteError,p50AbsoluteError,p90AbsoluteError," +
+                "p99AbsoluteError,maxAbsoluteError\n");
+            out.write(count + "," + String.format(Locale.ROOT, "%.2f", count == 0 ? 0.0 : (double) errorTotal / count) +
+                "," + String.format(Locale.ROOT, "%.2f", absoluteError.getMean()) + "," +
+                absoluteError.percentile(50) + "," + absoluteError.percentile(90) + "," +
+                absoluteError.percentile(99) + "," + absoluteError.getMax() + "\n");
+        }
+    }
+
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeLongs(prepWaiting, BUCKETS);
+        out.writeLongs(bakeWaiting, BUCKETS);
+        out.writeLongs(deliveryWaiting, BUCKETS);
+        out.writeInt(atOvens);
+        out.writeInt(atDrivers);
+        out.writeLong(deliveredWork);
+        out.writeInt(predicted.length);
+        out.writeInts(predicted, predicted.length);
+        absoluteError.saveState(out);
+        out.writeLong(errorTotal);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        in.readLongs(prepWaiting, BUCKETS);
+        in.readLongs(bakeWaiting, BUCKETS);
+        in.readLongs(deliveryWaiting, BUCKETS);
+        atOvens = in.readInt();
+        atDrivers = in.readInt();
+        deliveredWork = in.readLong();
+        predicted = new int[in.readCount()];
+        in.readInts(predicted, predicted.length);
+        absoluteError.restoreState(in);
+        errorTotal = in.readLong();
+    }
+}
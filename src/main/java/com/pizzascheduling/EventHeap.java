@@ -0,0 +1,111 @@
+package com.pizzascheduling;
+
+import java.util.Arrays;
+
+// Binary min-heap of the minute of each resource's next event, for the
+// event engine. Resources are keys 0..size-1: chefs, then ovens, then
+// drivers. Rescheduling a key leaves its old entry in the heap; entries
+// whose minute no longer matches the key's are dropped when they reach the
+// top. Each entry packs the minute into the high half of a long and the key
+// into the low half, so ties go to the lowest key.
+public class EventHeap {
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final int[] scheduled;  // Minute of each key's live entry, NONE if it has none
+    private long[] heap;
+    private int size;
+
+    public EventHeap(int keys) {
+        this.scheduled = new int[keys];
+        Arrays.fill(scheduled, NONE);
+        this.heap = new long[16];
+        this.size = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(scheduled, NONE);
+        size = 0;
+    }
+
+    // Integer.MAX_VALUE for a key with nothing coming up
+    public void schedule(int key, int minute) {
+        if (scheduled[key] == minute) {
+            return;
+        }
+        scheduled[key] = minute;
+        if (minute == NONE) {
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = ((long) minute << 32) | key;
+        siftUp(size);
+        size++;
+    }
+
+    // Earliest scheduled minute, Integer.MAX_VALUE when nothing is scheduled
+    public int nextMinute() {
+        dropStale();
+        return size == 0 ? NONE : (int) (heap[0] >>> 32);
+    }
+
+    // Removes and returns a key scheduled for `minute` or earlier, or -1 if
+    // there is none
+    public int pollDue(int minute) {
+        int next = nextMinute();
+        if (next == NONE || next > minute) {
+            return -1;
+        }
+        int key = (int) heap[0];
+        scheduled[key] = NONE;
+        removeTop();
+        return key;
+    }
+
+    private void dropStale() {
+        while (size > 0 && scheduled[(int) heap[0]] != (int) (heap[0] >>> 32)) {
+            removeTop();
+        }
+    }
+
+    private void removeTop() {
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int i) {
+        long entry = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private void siftDown(int i) {
+        long entry = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= entry) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// Every free chef works on the highest priority order until it is ready
+public class FocusedStrategy implements ChefStrategy {
+    @Override
+    public String getName() {
+        return "FOCUSED";
+    }
+
+    @Override
+    public boolean usesQuantum() {
+        return false;
+    }
+
+    @Override
+    public int maxChefsPerOrder(int chefs, int pizzas) {
+        return chefs;
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        return Integer.compare(store.getPriority(a), store.getPriority(b));
+    }
+
+    @Override
+    public void assign(OrderQueue queue, List<Chef> chefs, ResourcePool freeChefs, OrderStore store) {
+        int highestPriorityOrder = queue.peek();
+        if (highestPriorityOrder == OrderStore.NONE) {
+            return;
+        }
+        for (int id = freeChefs.nextFree(0); id >= 0; id = freeChefs.nextFree(id + 1)) {
+            chefs.get(id).assignOrder(highestPriorityOrder);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Growable list of ints, used for lists of order slots without boxing
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this.values = new int[16];
+        this.size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(size);
+        out.writeInts(values, size);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        size = in.readCount();
+        values = new int[Math.max(16, size)];
+        in.readInts(values, size);
+    }
+
+    // Sorts order slots by their position in the input
+    public void sortBySequence(OrderStore store) {
+        long[] keyed = new long[size];
+        for (int i = 0; i < size; i++) {
+            keyed[i] = ((long) store.getSequence(values[i]) << 32) | (values[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < size; i++) {
+            values[i] = (int) keyed[i];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Fixed-size histogram of minute durations. Values below 64 get a bucket
+// each; larger values share log-scaled buckets, 32 per power of two, so a
+// percentile is off by at most about 3% while recording stays a couple of
+// shifts and an array increment. Count, total and max are exact.
+public class LatencyHistogram {
+    private static final int LINEAR = 64;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = LINEAR + (31 - 6) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private int max;
+
+    public void record(int value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucket(value)]++;
+        count++;
+        total += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    // Adds every value recorded in `other`, e.g. to combine per-store histograms
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    // Only the buckets in use, as bucket and count pairs
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(total);
+        out.writeInt(max);
+        int used = 0;
+        for (long bucketCount : counts) {
+            if (bucketCount != 0) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (counts[bucket] != 0) {
+                out.writeInt(bucket);
+                out.writeLong(counts[bucket]);
+            }
+        }
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        count = in.readLong();
+        total = in.readLong();
+        max = in.readInt();
+        Arrays.fill(counts, 0);
+        int used = in.readCount();
+        for (int i = 0; i < used; i++) {
+            int bucket = in.readInt();
+            if (bucket < 0 || bucket >= BUCKETS) {
+                throw new IOException("Snapshot has an invalid histogram bucket: " + bucket);
+            }
+            counts[bucket] = in.readLong();
+        }
+    }
+
+    private static int bucket(int value) {
+        if (value < LINEAR) {
+            return value;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int sub = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 6) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that falls in the bucket
+    private static int upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 6;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long low = (1L << exponent) + ((long) sub << (exponent - SUB_BUCKET_BITS));
+        return (int) Math.min(Integer.MAX_VALUE, low + (1L << (exponent - SUB_BUCKET_BITS)) - 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    // Nearest-rank percentile, 0 < p <= 100
+    public int percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, upperBound(bucket));
+            }
+        }
+        return max;
+    }
+}
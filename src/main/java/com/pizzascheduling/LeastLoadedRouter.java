@@ -0,0 +1,21 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// The store with the fewest outstanding pizzas per chef, ties going to the
+// lower store index
+public class LeastLoadedRouter implements OrderRouter {
+    @Override
+    public int route(int pizzas, long[] outstanding, List<SchedulerConfig> stores) {
+        int best = 0;
+        double bestLoad = Double.MAX_VALUE;
+        for (int s = 0; s < stores.size(); s++) {
+            double load = (double) outstanding[s] / stores.get(s).getAvailableChefs();
+            if (load < bestLoad) {
+                best = s;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
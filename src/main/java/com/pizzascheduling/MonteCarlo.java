@@ -0,0 +1,248 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Runs many replications of one configuration with stochastic chef, bake
+// and delivery times (--chef-time-dist, --bake-time-dist,
+// --delivery-time-dist; see DurationSampler) and reports how the makespan
+// and each priority's p95 latency vary across them.
+//
+// The orders are parsed once and shared. Replication r draws its durations
+// from its own seed, derived from --seed and r, so it does not depend on
+// which thread runs it or on --parallelism. Each thread runs a contiguous
+// block of replications and writes its results into primitive arrays at
+// the replications' indexes, so threads share nothing while they run.
+//
+// For each metric the report gives the mean over replications with a 95%
+// confidence interval for it (normal approximation), and the 2.5th and
+// 97.5th percentiles of the replications themselves.
+public class MonteCarlo {
+    private static final String ALL = "ALL";
+    private static final double Z95 = 1.959964;
+
+    // Per-replication results, by replication index
+    public static class Result {
+        private final int[] minutes;
+        private final double[] meanLatency;
+        private final int[] priorities;
+        private final int[][] p95Latency;  // By position in priorities, then replication
+
+        Result(int replications, int[] priorities) {
+            this.minutes = new int[replications];
+            this.meanLatency = new double[replications];
+            this.priorities = priorities;
+            this.p95Latency = new int[priorities.length][replications];
+        }
+
+        public int getReplications() {
+            return minutes.length;
+        }
+
+        public int[] getMinutes() {
+            return minutes;
+        }
+
+        public double[] getMeanLatency() {
+            return meanLatency;
+        }
+
+        // Every priority among the orders, ascending
+        public int[] getPriorities() {
+            return priorities;
+        }
+
+        public int[] getP95Latency(int priority) {
+            int index = Arrays.binarySearch(priorities, priority);
+            if (index < 0) {
+                throw new IllegalArgumentException("No orders with priority " + priority);
+            }
+            return p95Latency[index];
+        }
+    }
+
+    private final SchedulerConfig base;
+    private int replications = 1000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public MonteCarlo(SchedulerConfig base) {
+        this.base = base;
+    }
+
+    public static MonteCarlo parse(String[] args) {
+        SchedulerConfig base = new SchedulerConfig();
+        MonteCarlo monteCarlo = new MonteCarlo(base);
+        SchedulerConfig.forEachArgument(args, (arg, value) -> {
+            switch (arg) {
+                case "--replications":
+                    monteCarlo.replications = Integer.parseInt(value);
+                    break;
+                case "--parallelism":
+                    monteCarlo.parallelism = Integer.parseInt(value);
+                    break;
+                case "--trace":
+                case "--archive-file":
+                case "--metrics-file":
+                case "--snapshot-file":
+                case "--resume-from":
+                case "--eta-report":
+                    throw new IllegalArgumentException(arg + " is not supported in Monte Carlo runs");
+                default:
+                    if (!base.set(arg, value)) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+            }
+        });
+        if (monteCarlo.replications <= 0) {
+            throw new IllegalArgumentException("Replications must be positive");
+        }
+        if (monteCarlo.parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        base.setTrace("NONE");
+        base.validateSettings();
+        if (!base.isStochastic()) {
+            throw new IllegalArgumentException(
+                "Set --chef-time-dist, --bake-time-dist or --delivery-time-dist, or every replication is the same");
+        }
+        return monteCarlo;
+    }
+
+    // Seed of replication r: SplitMix64's output for r, so neighbouring
+    // replications get unrelated streams
+    static long replicationSeed(long seed, int replication) {
+        long z = seed + (replication + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public Result run() throws IOException, InterruptedException {
+        base.validateInput();
+        OrderSet orders = OrderSet.load(base.openInput());
+        Result result = new Result(replications, orders.getPriorities());
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+        int blocks = Math.min(parallelism, replications);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int block = 0; block < blocks; block++) {
+                int from = (int) ((long) replications * block / blocks);
+                int to = (int) ((long) replications * (block + 1) / blocks);
+                futures.add(pool.submit(() -> {
+                    runBlock(orders, from, to, result, discard);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // The scheduler reads its config only when built, so one copy serves the block
+    private void runBlock(OrderSet orders, int from, int to, Result result, PrintStream discard)
+            throws IOException {
+        SchedulerConfig config = base.copy();
+        for (int replication = from; replication < to; replication++) {
+            config.setSeed(replicationSeed(base.getSeed(), replication));
+            PizzaScheduler scheduler = new PizzaScheduler(config, orders, discard);
+            scheduler.loadOrders();
+            RunSummary summary = scheduler.runSimulation();
+            result.minutes[replication] = summary.getMinutes();
+            result.meanLatency[replication] = summary.getMeanLatency();
+            RunMetrics metrics = scheduler.getMetrics();
+            for (int p = 0; p < result.priorities.length; p++) {
+                result.p95Latency[p][replication] = metrics.getLatencyHistogram(result.priorities[p]).percentile(95);
+            }
+        }
+    }
+
+    public void report(Result result, PrintStream out) {
+        out.println("Metric,Priority,Replications,Mean,StdDev,MeanLow95,MeanHigh95,P2.5,P97.5");
+        double[] values = new double[result.getReplications()];
+        for (int r = 0; r < values.length; r++) {
+            values[r] = result.minutes[r];
+        }
+        out.println(row("Minutes", ALL, values));
+        out.println(row("MeanLatency", ALL, result.meanLatency.clone()));
+        for (int p = 0; p < result.priorities.length; p++) {
+            for (int r = 0; r < values.length; r++) {
+                values[r] = result.p95Latency[p][r];
+            }
+            out.println(row("P95Latency", Integer.toString(result.priorities[p]), values));
+        }
+    }
+
+    // Sorts `values`
+    private static String row(String metric, String priority, double[] values) {
+        int n = values.length;
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        double mean = sum / n;
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        double stdDev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+        double halfWidth = Z95 * stdDev / Math.sqrt(n);
+        Arrays.sort(values);
+        return metric + "," + priority + "," + n + "," + decimal(mean) + "," + decimal(stdDev) + "," +
+               decimal(mean - halfWidth) + "," + decimal(mean + halfWidth) + "," + decimal(rank(values, 2.5)) + "," +
+               decimal(rank(values, 97.5));
+    }
+
+    // Always with a decimal point, so the CSV columns hold in every locale
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    // Nearest rank, like LatencyHistogram.percentile()
+    private static double rank(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        try {
+            MonteCarlo monteCarlo = parse(args);
+            monteCarlo.report(monteCarlo.run(), out);
+            return 0;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pizzascheduling;
+
+// Multilevel feedback queue. New orders start on the top level; an order
+// that uses up its quantum drops a level, and each level down doubles the
+// quantum. The queue takes the highest level first, then priority, so
+// small orders finish quickly while large ones get longer turns.
+public class MultilevelFeedbackStrategy extends SingleChefStrategy {
+    static final int LEVELS = 3;
+
+    private final int quantum;
+
+    public MultilevelFeedbackStrategy(int quantum) {
+        super(false);
+        this.quantum = quantum;
+    }
+
+    @Override
+    public String getName() {
+        return "MLFQ";
+    }
+
+    @Override
+    public boolean usesQuantum() {
+        return true;
+    }
+
+    @Override
+    protected int quantumFor(OrderStore store, int order) {
+        return quantum << store.getChefLevel(order);
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        int levelA = store.getChefLevel(a);
+        int levelB = store.getChefLevel(b);
+        if (levelA != levelB) {
+            return Integer.compare(levelA, levelB);
+        }
+        return Integer.compare(store.getPriority(a), store.getPriority(b));
+    }
+
+    @Override
+    public void quantumExpired(OrderStore store, int order) {
+        store.setChefLevel(order, Math.min(LEVELS - 1, store.getChefLevel(order) + 1));
+    }
+}
@@ -0,0 +1,105 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Interned customer names. Each distinct name is stored once and referred to
+// by an int id. Lookups hash the raw UTF-8 bytes, so a name that has been
+// seen before costs no String allocation.
+public class NameTable {
+    private String[] names;
+    private byte[][] encoded;
+    private int[] slots;  // Open addressing over name ids, -1 when empty
+    private int count;
+
+    public NameTable() {
+        this.names = new String[64];
+        this.encoded = new byte[64][];
+        this.slots = new int[128];
+        Arrays.fill(slots, -1);
+        this.count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String get(int id) {
+        return names[id];
+    }
+
+    public int intern(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+    public int intern(byte[] bytes, int offset, int length) {
+        int mask = slots.length - 1;
+        int slot = hash(bytes, offset, length) & mask;
+        while (slots[slot] >= 0) {
+            byte[] candidate = encoded[slots[slot]];
+            if (candidate.length == length &&
+                Arrays.equals(candidate, 0, length, bytes, offset, offset + length)) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+            encoded = Arrays.copyOf(encoded, count * 2);
+        }
+        int id = count++;
+        encoded[id] = Arrays.copyOfRange(bytes, offset, offset + length);
+        names[id] = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        slots[slot] = id;
+        if (count * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // Names in id order
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(count);
+        for (int id = 0; id < count; id++) {
+            out.writeInt(encoded[id].length);
+            out.writeBytes(encoded[id], encoded[id].length);
+        }
+    }
+
+    // Interns the saved names in id order. A table that already holds names
+    // (one shared with an OrderSet) must give them the same ids.
+    void restoreState(SnapshotReader in) throws IOException {
+        int saved = in.readCount();
+        for (int id = 0; id < saved; id++) {
+            byte[] bytes = new byte[in.readCount()];
+            in.readBytes(bytes, bytes.length);
+            if (intern(bytes, 0, bytes.length) != id) {
+                throw new IllegalArgumentException("Snapshot names do not match the order input");
+            }
+        }
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hash(encoded[id], 0, encoded[id].length) & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
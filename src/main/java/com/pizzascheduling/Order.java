@@ -1,5 +1,7 @@
 package com.pizzascheduling;
 
+// View of one order in an OrderStore. The scheduler works on store slots
+// directly; this class keeps the object API for everything else.
 public class Order {
     public enum State {
         PENDING,
@@ -11,193 +13,178 @@ public class Order {
         DELIVERED
     }
 
-    private final String person;
-    private final int numPizzas;
-    private final int deliveryTime;
-    private final int priority;
-    private State currentState;
-    
-    // Tracking progress
-    private int pizzasPrepared;  // Only incremented when a pizza fully completes preparation
-    private int pizzasBaked;     // Only incremented when a pizza fully completes baking
-    private int remainingPrepTime;  // For current pizza only
-    private int remainingBakeTime;  // For current pizza only
-    private int remainingDeliveryTime;  // For whole order
-    private int chefTime;  // Store the time needed per pizza
-    private int bakeTime;  // Store the time needed per pizza
+    // Notified whenever an order moves to a different state
+    public interface StateListener {
+        void stateChanged(int order, State from, State to);
+    }
+
+    private final OrderStore store;
+    private final int index;
 
+    // A standalone order with a store of its own
     public Order(String person, int numPizzas, int deliveryTime, int priority) {
-        this.person = person;
-        this.numPizzas = numPizzas;
-        this.deliveryTime = deliveryTime;
-        this.priority = priority;
-        this.currentState = State.PENDING;
-        this.pizzasPrepared = 0;
-        this.pizzasBaked = 0;
-        this.remainingPrepTime = 0;
-        this.remainingBakeTime = 0;
-        this.remainingDeliveryTime = deliveryTime;
+        this.store = new OrderStore(new NameTable(), 1);
+        this.index = store.add(person, numPizzas, deliveryTime, priority);
+    }
+
+    public Order(OrderStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    public OrderStore getStore() {
+        return store;
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     public String getPerson() {
-        return person;
+        return store.getPerson(index);
     }
 
     public int getNumPizzas() {
-        return numPizzas;
+        return store.getNumPizzas(index);
     }
 
     public int getDeliveryTime() {
-        return deliveryTime;
+        return store.getDeliveryTime(index);
     }
 
     public int getPriority() {
-        return priority;
+        return store.getPriority(index);
+    }
+
+    public int getArrivalMinute() {
+        return store.getArrivalMinute(index);
+    }
+
+    public void setArrivalMinute(int arrivalMinute) {
+        store.setArrivalMinute(index, arrivalMinute);
     }
 
     public State getCurrentState() {
-        return currentState;
+        return store.getState(index);
     }
 
     public void setState(State state) {
-        this.currentState = state;
-        // When transitioning to OVEN_WAITING, set initial bake time
-        if (state == State.OVEN_WAITING) {
-            this.remainingBakeTime = bakeTime * numPizzas;
-        }
+        store.setState(index, state);
+    }
+
+    public int getSequence() {
+        return store.getSequence(index);
+    }
+
+    public void setSequence(int sequence) {
+        store.setSequence(index, sequence);
     }
 
     public int getPizzasPrepared() {
-        return pizzasPrepared;
+        return store.getPizzasPrepared(index);
     }
 
     public int getPizzasBaked() {
-        return pizzasBaked;
+        return store.getPizzasBaked(index);
     }
 
     public int getRemainingPrepTime() {
-        return remainingPrepTime;
+        return store.getRemainingPrepTime(index);
     }
 
     public int getRemainingBakeTime() {
-        return remainingBakeTime;
+        return store.getRemainingBakeTime(index);
     }
 
     public int getRemainingDeliveryTime() {
-        return remainingDeliveryTime;
+        return store.getRemainingDeliveryTime(index);
     }
 
     public void incrementPizzasPrepared() {
-        this.pizzasPrepared++;
-        // Reset prep time for next pizza
-        if (pizzasPrepared < numPizzas) {
-            this.remainingPrepTime = chefTime;
-        }
+        store.incrementPizzasPrepared(index);
     }
 
     public void incrementPizzasBaked() {
-        this.pizzasBaked++;
+        store.incrementPizzasBaked(index);
     }
 
     public void setRemainingPrepTime(int time) {
-        this.remainingPrepTime = time;
+        store.setRemainingPrepTime(index, time);
     }
 
     public void setRemainingBakeTime(int time) {
-        this.remainingBakeTime = time;
+        store.setRemainingBakeTime(index, time);
     }
 
     public void decrementRemainingPrepTime() {
-        if (this.remainingPrepTime > 0) {
-            this.remainingPrepTime--;
-        }
+        store.decrementRemainingPrepTime(index, 1);
     }
 
     public void decrementRemainingBakeTime() {
-        if (this.remainingBakeTime > 0) {
-            this.remainingBakeTime--;
-        }
+        store.decrementRemainingBakeTime(index, 1);
     }
 
     public void decrementRemainingDeliveryTime() {
-        if (this.remainingDeliveryTime > 0) {
-            this.remainingDeliveryTime--;
-        }
+        store.decrementRemainingDeliveryTime(index, 1);
+    }
+
+    // Bulk countdowns used by the event engine to skip quiet minutes
+    public void decrementRemainingPrepTime(int minutes) {
+        store.decrementRemainingPrepTime(index, minutes);
+    }
+
+    public void decrementRemainingBakeTime(int minutes) {
+        store.decrementRemainingBakeTime(index, minutes);
+    }
+
+    public void decrementRemainingDeliveryTime(int minutes) {
+        store.decrementRemainingDeliveryTime(index, minutes);
     }
 
     // Add methods to set the time requirements
     public void setChefTime(int chefTime) {
-        this.chefTime = chefTime;
-        if (currentState == State.PENDING) {
-            this.remainingPrepTime = chefTime;
-        }
+        store.setChefTime(index, chefTime);
     }
 
     public void setBakeTime(int bakeTime) {
-        this.bakeTime = bakeTime;
+        store.setBakeTime(index, bakeTime);
     }
 
     public int getTotalRemainingTime() {
-        switch (currentState) {
-            case PENDING:
-                return numPizzas * chefTime;
-            case PREPARING:
-                return remainingPrepTime + ((numPizzas - (pizzasPrepared + 1)) * chefTime);
-            case OVEN_WAITING:
-                return bakeTime * numPizzas;
-            case OVEN_PREPARING:
-                return remainingBakeTime;
-            case DRIVER_WAITING:
-                return deliveryTime;
-            case DELIVERED:
-                return remainingDeliveryTime;
-            default:
-                return 0;
-        }
+        return store.getTotalRemainingTime(index);
     }
 
     public int getDoneInCurrentState() {
-        switch (currentState) {
-            case PREPARING:
-            case CHEF_WAITING:
-                return 0;  // No pizzas are "done" until they complete the state
-            case OVEN_PREPARING:
-                return pizzasBaked;
-            case DRIVER_WAITING:
-                return 0;
-            case DELIVERED:
-                return numPizzas;
-            default:
-                return 0;
-        }
+        return store.getDoneInCurrentState(index);
     }
 
     public int getPendingInCurrentState() {
-        switch (currentState) {
-            case PENDING:
-            case PREPARING:
-            case CHEF_WAITING:
-                return numPizzas;  // All pizzas are pending until they complete preparation
-            case OVEN_WAITING:
-            case OVEN_PREPARING:
-                return numPizzas - pizzasBaked;
-            case DRIVER_WAITING:
-                return numPizzas;
-            case DELIVERED:
-                return 0;
-            default:
-                return 0;
+        return store.getPendingInCurrentState(index);
+    }
+
+    // Same text as toString(), without the intermediate String
+    public void appendTo(StringBuilder out) {
+        store.appendTo(index, out);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Order)) {
+            return false;
         }
+        Order that = (Order) other;
+        return store == that.store && index == that.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(store) * 31 + index;
     }
 
     @Override
     public String toString() {
-        return String.format("%s,%s,%d,%d,%d", 
-            person, 
-            currentState,
-            getDoneInCurrentState(),
-            getPendingInCurrentState(),
-            getTotalRemainingTime()
-        );
-    }
-} 
\ No newline at end of file
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.toString();
+    }
+}
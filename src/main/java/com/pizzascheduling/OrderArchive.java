@@ -0,0 +1,142 @@
+package com.pizzascheduling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Final stats of delivered orders, kept in parallel primitive arrays. Every
+// full block of records is appended to the spill file and the arrays are
+// reused, and close() writes the last partial block, so memory stays bounded
+// however many orders retire. Without a spill file nothing reads the records,
+// so only their count is kept.
+public class OrderArchive implements Closeable {
+    private static final int BLOCK_SIZE = 4096;
+
+    // Called once per archived order, in retirement order
+    public interface RecordVisitor {
+        void visit(int sequence, String person, int numPizzas, int deliveryTime,
+                   int priority, int arrivalMinute, int deliveredMinute);
+    }
+
+    private final Path spillFile;
+    private DataOutputStream spill;
+    private long spilled;  // Records in the spill file, or counted without one
+    private boolean closed;
+
+    // The block being filled; null without a spill file
+    private int count;
+    private final int[] sequence;
+    private final String[] person;
+    private final int[] numPizzas;
+    private final int[] deliveryTime;
+    private final int[] priority;
+    private final int[] arrivalMinute;
+    private final int[] deliveredMinute;
+
+    // spillFile may be null to only count the records
+    public OrderArchive(Path spillFile) {
+        this.spillFile = spillFile;
+        this.spilled = 0;
+        this.count = 0;
+        if (spillFile == null) {
+            this.sequence = null;
+            this.person = null;
+            this.numPizzas = null;
+            this.deliveryTime = null;
+            this.priority = null;
+            this.arrivalMinute = null;
+            this.deliveredMinute = null;
+            return;
+        }
+        this.sequence = new int[BLOCK_SIZE];
+        this.person = new String[BLOCK_SIZE];
+        this.numPizzas = new int[BLOCK_SIZE];
+        this.deliveryTime = new int[BLOCK_SIZE];
+        this.priority = new int[BLOCK_SIZE];
+        this.arrivalMinute = new int[BLOCK_SIZE];
+        this.deliveredMinute = new int[BLOCK_SIZE];
+    }
+
+    public void add(OrderStore store, int order, int minute) throws IOException {
+        if (spillFile == null) {
+            spilled++;
+            return;
+        }
+        if (count == sequence.length) {
+            spillBlock();
+        }
+        sequence[count] = store.getSequence(order);
+        person[count] = store.getPerson(order);
+        numPizzas[count] = store.getNumPizzas(order);
+        deliveryTime[count] = store.getDeliveryTime(order);
+        priority[count] = store.getPriority(order);
+        arrivalMinute[count] = store.getArrivalMinute(order);
+        deliveredMinute[count] = minute;
+        count++;
+    }
+
+    public long size() {
+        return spilled + count;
+    }
+
+    // Replays spilled records first, then the ones still in memory; visits
+    // nothing without a spill file
+    public void forEach(RecordVisitor visitor) throws IOException {
+        if (spillFile != null && spilled > 0) {
+            if (spill != null) {
+                spill.flush();
+            }
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(spillFile)))) {
+                for (long i = 0; i < spilled; i++) {
+                    int seq = in.readInt();
+                    String name = in.readUTF();
+                    visitor.visit(seq, name, in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                }
+            } catch (EOFException e) {
+                throw new IOException("Order archive is truncated: " + spillFile, e);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            visitor.visit(sequence[i], person[i], numPizzas[i], deliveryTime[i],
+                priority[i], arrivalMinute[i], deliveredMinute[i]);
+        }
+    }
+
+    private void spillBlock() throws IOException {
+        if (spill == null) {
+            spill = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+        }
+        for (int i = 0; i < count; i++) {
+            spill.writeInt(sequence[i]);
+            spill.writeUTF(person[i]);
+            spill.writeInt(numPizzas[i]);
+            spill.writeInt(deliveryTime[i]);
+            spill.writeInt(priority[i]);
+            spill.writeInt(arrivalMinute[i]);
+            spill.writeInt(deliveredMinute[i]);
+        }
+        spilled += count;
+        Arrays.fill(person, 0, count, null);
+        count = 0;
+    }
+
+    // Writes the records still in memory, creating the file even if there are none
+    @Override
+    public void close() throws IOException {
+        if (spillFile == null || closed) {
+            return;
+        }
+        closed = true;
+        spillBlock();
+        spill.close();
+        spill = null;
+    }
+}
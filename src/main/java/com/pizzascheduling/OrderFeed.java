@@ -0,0 +1,95 @@
+package com.pizzascheduling;
+
+import java.util.Arrays;
+
+// Orders handed to a scheduler while it runs. offer() queues an order with
+// its arrival minute; the scheduler's OrderSource reads whatever has been
+// offered so far and keeps waiting for more until finish() is called.
+// Names are ids in the NameTable the scheduler's store was built with.
+// Not synchronized: offer only while the scheduler is not running, with a
+// happens-before edge (an executor hand-off, a lock) in between.
+public class OrderFeed implements OrderInput {
+    private int[] nameId = new int[16];
+    private int[] numPizzas = new int[16];
+    private int[] deliveryTime = new int[16];
+    private int[] priority = new int[16];
+    private int[] arrivalMinute = new int[16];
+    private int[] sequence = new int[16];
+    private int head;
+    private int tail;
+    private boolean finished;
+
+    public void offer(int nameId, int numPizzas, int deliveryTime, int priority,
+                      int arrivalMinute, int sequence) {
+        if (finished) {
+            throw new IllegalStateException("Order feed is finished");
+        }
+        if (tail == this.nameId.length) {
+            grow();
+        }
+        this.nameId[tail] = nameId;
+        this.numPizzas[tail] = numPizzas;
+        this.deliveryTime[tail] = deliveryTime;
+        this.priority[tail] = priority;
+        this.arrivalMinute[tail] = arrivalMinute;
+        this.sequence[tail] = sequence;
+        tail++;
+    }
+
+    // Copies the order at `order` in another store that shares the name table
+    public void offer(OrderStore source, int order) {
+        offer(source.getNameId(order), source.getNumPizzas(order), source.getDeliveryTime(order),
+            source.getPriority(order), source.getArrivalMinute(order), source.getSequence(order));
+    }
+
+    // Shifts the unread orders to the front before growing
+    private void grow() {
+        int pending = tail - head;
+        int capacity = pending * 2 > nameId.length ? nameId.length * 2 : nameId.length;
+        nameId = compact(nameId, capacity);
+        numPizzas = compact(numPizzas, capacity);
+        deliveryTime = compact(deliveryTime, capacity);
+        priority = compact(priority, capacity);
+        arrivalMinute = compact(arrivalMinute, capacity);
+        sequence = compact(sequence, capacity);
+        head = 0;
+        tail = pending;
+    }
+
+    private int[] compact(int[] values, int capacity) {
+        return Arrays.copyOfRange(values, head, head + capacity);
+    }
+
+    // No more orders will be offered
+    public void finish() {
+        finished = true;
+    }
+
+    public int pending() {
+        return tail - head;
+    }
+
+    @Override
+    public int read(OrderStore store) {
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+            return OrderStore.NONE;
+        }
+        int order = store.add(nameId[head], numPizzas[head], deliveryTime[head], priority[head]);
+        store.setArrivalMinute(order, arrivalMinute[head]);
+        store.setSequence(order, sequence[head]);
+        head++;
+        return order;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !finished;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.pizzascheduling;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// A stream of orders for OrderSource: an order file, a generated workload
+// or an OrderSet that was parsed earlier
+public interface OrderInput extends Closeable {
+    // Adds the next order to the store and returns its slot, or OrderStore.NONE at the end
+    int read(OrderStore store) throws IOException;
+
+    // True while more orders may follow a read() that returned OrderStore.NONE
+    default boolean isOpen() {
+        return false;
+    }
+}
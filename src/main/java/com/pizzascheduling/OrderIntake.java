@@ -0,0 +1,160 @@
+package com.pizzascheduling;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded queue between the threads that receive orders (PizzaServer's
+// connections) and the thread that runs the scheduler. Producers claim a
+// position with one compare-and-set on the tail and publish the slot by
+// bumping its sequence number; the consumer drains without locking. When
+// the ring is full offer() fails and put() waits, so a slow scheduler
+// pushes back on whoever is sending orders.
+//
+// The consumer also remembers when each drained order was received, until
+// started() reports that a chef took it.
+public class OrderIntake {
+    private final int mask;
+    private final AtomicLongArray sequence;  // Position + 1 once published, position + capacity once consumed
+    private final String[] person;
+    private final int[] numPizzas;
+    private final int[] deliveryTime;
+    private final int[] priority;
+    private final long[] receivedNanos;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean closed;
+
+    // Consumer side
+    private long head;
+    private long[] waiting = new long[64];  // Received time by order sequence, ring from firstWaiting
+    private long firstWaiting;
+
+    public OrderIntake(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Intake capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequence = new AtomicLongArray(size);
+        for (int slot = 0; slot < size; slot++) {
+            sequence.set(slot, slot);
+        }
+        this.person = new String[size];
+        this.numPizzas = new int[size];
+        this.deliveryTime = new int[size];
+        this.priority = new int[size];
+        this.receivedNanos = new long[size];
+        Arrays.fill(waiting, Long.MIN_VALUE);
+    }
+
+    // False if the intake is full or closed
+    public boolean offer(String person, int numPizzas, int deliveryTime, int priority) {
+        long position = tail.get();
+        while (!closed) {
+            int slot = (int) position & mask;
+            long published = sequence.get(slot);
+            if (published == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    this.person[slot] = person;
+                    this.numPizzas[slot] = numPizzas;
+                    this.deliveryTime[slot] = deliveryTime;
+                    this.priority[slot] = priority;
+                    this.receivedNanos[slot] = System.nanoTime();
+                    sequence.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (published < position) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        return false;
+    }
+
+    // Waits for room; false if the intake was closed first
+    public boolean put(String person, int numPizzas, int deliveryTime, int priority) {
+        while (!offer(person, numPizzas, deliveryTime, priority)) {
+            if (closed) {
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        return true;
+    }
+
+    // No more orders are accepted; the ones already in can still be drained
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // True once closed and drained
+    public boolean isFinished() {
+        return closed && isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return sequence.get((int) head & mask) != head + 1;
+    }
+
+    // Moves every published order into the feed, arriving at `minute`. The
+    // order's position in the intake becomes its sequence. Consumer only.
+    public int drainTo(OrderFeed feed, NameTable names, int minute) {
+        int drained = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequence.get(slot) != head + 1) {
+                return drained;
+            }
+            feed.offer(names.intern(person[slot]), numPizzas[slot], deliveryTime[slot], priority[slot],
+                minute, (int) head);
+            remember(head, receivedNanos[slot]);
+            person[slot] = null;
+            sequence.set(slot, head + mask + 1);
+            head++;
+            drained++;
+        }
+    }
+
+    // Received time of the order with this sequence, forgotten afterwards;
+    // Long.MIN_VALUE if unknown or already reported. Consumer only. Order
+    // sequences are the intake position cut to an int, so they wrap after
+    // 2^31 orders; the offset from firstWaiting is taken in int arithmetic,
+    // which wraps the same way.
+    public long started(int orderSequence) {
+        int offset = orderSequence - (int) firstWaiting;
+        if (offset < 0 || offset >= head - firstWaiting) {
+            return Long.MIN_VALUE;
+        }
+        long position = firstWaiting + offset;
+        int index = (int) (position & (waiting.length - 1));
+        long received = waiting[index];
+        waiting[index] = Long.MIN_VALUE;
+        // Orders start out of sequence, so the ring only shrinks past a run of started ones
+        while (firstWaiting < head && waiting[(int) (firstWaiting & (waiting.length - 1))] == Long.MIN_VALUE) {
+            firstWaiting++;
+        }
+        return received;
+    }
+
+    private void remember(long orderSequence, long received) {
+        if (orderSequence - firstWaiting >= waiting.length) {
+            long[] larger = new long[waiting.length * 2];
+            Arrays.fill(larger, Long.MIN_VALUE);
+            for (long s = firstWaiting; s < orderSequence; s++) {
+                larger[(int) (s & (larger.length - 1))] = waiting[(int) (s & (waiting.length - 1))];
+            }
+            waiting = larger;
+        }
+        waiting[(int) (orderSequence & (waiting.length - 1))] = received;
+    }
+}
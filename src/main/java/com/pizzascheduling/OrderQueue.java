@@ -0,0 +1,156 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Binary min-heap of order slots keyed by priority (or arrival minute, or a
+// chef strategy's ordering), with input order breaking ties the same way the
+// old stable sort did. Each order remembers its heap position in the store so
+// it can be removed in O(log n) when its state changes. An order can be in at
+// most one queue at a time. Keys must not change while an order is queued.
+public class OrderQueue {
+    // Negative if order a goes before order b, 0 if the ordering has no preference
+    public interface Ordering {
+        int compare(OrderStore store, int a, int b);
+    }
+
+    public enum Key implements Ordering {
+        PRIORITY {
+            @Override
+            public int compare(OrderStore store, int a, int b) {
+                return Integer.compare(store.getPriority(a), store.getPriority(b));
+            }
+        },
+        ARRIVAL {
+            @Override
+            public int compare(OrderStore store, int a, int b) {
+                return Integer.compare(store.getArrivalMinute(a), store.getArrivalMinute(b));
+            }
+        }
+    }
+
+    private final OrderStore store;
+    private final Ordering ordering;
+    private int[] heap;
+    private int size;
+
+    public OrderQueue(OrderStore store) {
+        this(store, Key.PRIORITY);
+    }
+
+    public OrderQueue(OrderStore store, Ordering ordering) {
+        this.store = store;
+        this.ordering = ordering;
+        this.heap = new int[16];
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Head of the queue, OrderStore.NONE when empty
+    public int peek() {
+        return size == 0 ? OrderStore.NONE : heap[0];
+    }
+
+    public int poll() {
+        if (size == 0) {
+            return OrderStore.NONE;
+        }
+        int head = heap[0];
+        remove(head);
+        return head;
+    }
+
+    public void add(int order) {
+        if (store.getQueueIndex(order) != OrderStore.NONE) {
+            throw new IllegalStateException("Order is already queued: " + store.getPerson(order));
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = order;
+        store.setQueueIndex(order, size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    public void remove(int order) {
+        int index = store.getQueueIndex(order);
+        if (index < 0 || index >= size || heap[index] != order) {
+            return;
+        }
+        size--;
+        store.setQueueIndex(order, OrderStore.NONE);
+        if (index == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[index] = last;
+        store.setQueueIndex(last, index);
+        siftDown(index);
+        siftUp(store.getQueueIndex(last));
+    }
+
+    // The heap as it is; queued orders keep their heap positions in the store
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(size);
+        out.writeInts(heap, size);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        size = in.readCount();
+        heap = new int[Math.max(16, size)];
+        in.readInts(heap, size);
+    }
+
+    private void siftUp(int index) {
+        int order = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(order, heap[parent])) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(order, index);
+    }
+
+    private void siftDown(int index) {
+        int order = heap[index];
+        int half = size / 2;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], order)) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(order, index);
+    }
+
+    private void place(int order, int index) {
+        heap[index] = order;
+        store.setQueueIndex(order, index);
+    }
+
+    // The ordering first, then earlier input position
+    private boolean before(int a, int b) {
+        int order = ordering.compare(store, a, b);
+        if (order != 0) {
+            return order < 0;
+        }
+        return store.getSequence(a) < store.getSequence(b);
+    }
+}
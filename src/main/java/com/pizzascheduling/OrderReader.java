@@ -0,0 +1,202 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streaming parser for order files ("person,pizzas,deliveryTime,priority"
+// per line, optionally followed by ",arrivalMinute"). Reads the channel in
+// large blocks and scans the bytes directly for commas and line ends,
+// parsing the numbers in place and interning the name straight from the
+// bytes. Orders go directly into an OrderStore, so a line with an
+// already-seen name allocates nothing.
+public class OrderReader implements OrderInput {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private int position;  // Start of the unparsed bytes in the buffer
+    private boolean endOfInput;
+    private boolean skipLineFeed;  // Last block ended in '\r', drop a leading '\n'
+    private long lineNumber;
+    private int ordersRead;
+    private OrderStore ownStore;  // Backs next() when no store is given
+
+    // Field boundaries of the line being parsed
+    private final int[] fieldStart = new int[5];
+    private final int[] fieldEnd = new int[5];
+
+    public OrderReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.limit(0);
+        this.position = 0;
+        this.endOfInput = false;
+        this.lineNumber = 0;
+    }
+
+    public static OrderReader open(String path) throws IOException {
+        return new OrderReader(FileChannel.open(Paths.get(path), StandardOpenOption.READ));
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Next order in the input as a standalone view, or null at the end
+    public Order next() throws IOException {
+        if (ownStore == null) {
+            ownStore = new OrderStore();
+        }
+        int order = read(ownStore);
+        return order == OrderStore.NONE ? null : ownStore.view(order);
+    }
+
+    // Reads the next order into the store and returns its slot, or OrderStore.NONE at the end.
+    // The order's sequence is its position in the input.
+    @Override
+    public int read(OrderStore store) throws IOException {
+        while (true) {
+            byte[] bytes = buffer.array();
+            int limit = buffer.limit();
+
+            if (skipLineFeed && position < limit) {
+                if (bytes[position] == '\n') {
+                    position++;
+                }
+                skipLineFeed = false;
+            }
+
+            int end = position;
+            while (end < limit && bytes[end] != '\n' && bytes[end] != '\r') {
+                end++;
+            }
+
+            if (end < limit) {
+                int start = position;
+                position = end + 1;
+                if (bytes[end] == '\r') {
+                    if (position < limit) {
+                        if (bytes[position] == '\n') {
+                            position++;
+                        }
+                    } else {
+                        skipLineFeed = true;
+                    }
+                }
+                return parseLine(store, bytes, start, end);
+            }
+
+            if (endOfInput) {
+                if (position < limit) {
+                    int start = position;
+                    position = limit;
+                    return parseLine(store, bytes, start, limit);
+                }
+                return OrderStore.NONE;
+            }
+
+            fill();
+        }
+    }
+
+    // Keep the partial line and read more after it, growing the buffer for very long lines
+    private void fill() throws IOException {
+        int remaining = buffer.limit() - position;
+        if (remaining == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer.array(), position, remaining);
+            buffer = larger;
+        } else {
+            byte[] bytes = buffer.array();
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+            buffer.clear();
+            buffer.position(remaining);
+        }
+        position = 0;
+
+        int read = 0;
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+        if (read < 0) {
+            endOfInput = true;
+        }
+        buffer.flip();
+    }
+
+    private int parseLine(OrderStore store, byte[] bytes, int start, int end) {
+        lineNumber++;
+        int field = 0;
+        fieldStart[0] = start;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == ',') {
+                if (field == 4) {
+                    throw malformed(bytes, start, end);
+                }
+                fieldEnd[field] = i;
+                field++;
+                fieldStart[field] = i + 1;
+            }
+        }
+        if (field < 3) {
+            throw malformed(bytes, start, end);
+        }
+        fieldEnd[field] = end;
+
+        int numPizzas = parseInt(bytes, 1, start, end);
+        int deliveryTime = parseInt(bytes, 2, start, end);
+        int priority = parseInt(bytes, 3, start, end);
+        int arrivalMinute = field == 4 ? parseInt(bytes, 4, start, end) : 1;
+        int person = store.getNames().intern(bytes, fieldStart[0], fieldEnd[0] - fieldStart[0]);
+        int order = store.add(person, numPizzas, deliveryTime, priority);
+        store.setArrivalMinute(order, arrivalMinute);
+        store.setSequence(order, ordersRead++);
+        return order;
+    }
+
+    // Same accepted syntax as Integer.parseInt: optional sign, then decimal digits
+    private int parseInt(byte[] bytes, int field, int lineStart, int lineEnd) {
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw malformed(bytes, lineStart, lineEnd);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(bytes, lineStart, lineEnd);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw malformed(bytes, lineStart, lineEnd);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw malformed(bytes, lineStart, lineEnd);
+        }
+        return (int) value;
+    }
+
+    private IllegalArgumentException malformed(byte[] bytes, int start, int end) {
+        String line = new String(Arrays.copyOfRange(bytes, start, end), StandardCharsets.UTF_8);
+        return new IllegalArgumentException("Invalid order format on line " + lineNumber + ": " + line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// Picks the store for each incoming order in a StoreFleet. Routers see the
+// stores' configs and their outstanding pizzas: routed to the store and not
+// delivered by the last synchronization point.
+public interface OrderRouter {
+    String[] NAMES = {"ROUND_ROBIN", "LEAST_LOADED", "SHORTEST_WAIT"};
+
+    static boolean isValidName(String name) {
+        for (String valid : NAMES) {
+            if (valid.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static OrderRouter create(String name) {
+        switch (name) {
+            case "ROUND_ROBIN":
+                return new RoundRobinRouter();
+            case "LEAST_LOADED":
+                return new LeastLoadedRouter();
+            case "SHORTEST_WAIT":
+                return new ShortestWaitRouter();
+            default:
+                throw new IllegalArgumentException("Unknown router: " + name);
+        }
+    }
+
+    // Index of the store that gets an order of `pizzas` pizzas
+    int route(int pizzas, long[] outstanding, List<SchedulerConfig> stores);
+}
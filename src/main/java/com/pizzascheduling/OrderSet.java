@@ -0,0 +1,71 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Orders parsed once and replayed into any number of runs. The set is never
+// written after load(), so runs on different threads can read it at the
+// same time; each run copies the rows it needs into its own OrderStore,
+// which shares this set's name table.
+public class OrderSet {
+    private final OrderStore orders;
+    private final int size;
+
+    private OrderSet(OrderStore orders, int size) {
+        this.orders = orders;
+        this.size = size;
+    }
+
+    public static OrderSet load(OrderInput input) throws IOException {
+        OrderStore orders = new OrderStore();
+        orders.setRecycling(false);
+        int size = 0;
+        try (OrderInput in = input) {
+            while (in.read(orders) != OrderStore.NONE) {
+                size++;
+            }
+        }
+        return new OrderSet(orders, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NameTable getNames() {
+        return orders.getNames();
+    }
+
+    // Every priority in the set, ascending
+    public int[] getPriorities() {
+        int[] priorities = new int[size];
+        for (int order = 0; order < size; order++) {
+            priorities[order] = orders.getPriority(order);
+        }
+        return Arrays.stream(priorities).sorted().distinct().toArray();
+    }
+
+    // The orders from the start, for a store that uses getNames()
+    public OrderInput open() {
+        return new OrderInput() {
+            private int next = 0;
+
+            @Override
+            public int read(OrderStore store) {
+                if (next == size) {
+                    return OrderStore.NONE;
+                }
+                int source = next++;
+                int order = store.add(orders.getNameId(source), orders.getNumPizzas(source),
+                    orders.getDeliveryTime(source), orders.getPriority(source));
+                store.setArrivalMinute(order, orders.getArrivalMinute(source));
+                store.setSequence(order, orders.getSequence(source));
+                return order;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
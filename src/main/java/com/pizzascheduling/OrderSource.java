@@ -0,0 +1,102 @@
+package com.pizzascheduling;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Hands out orders from an OrderInput as the clock reaches their arrival
+// minute. Up to `window` orders are read ahead and kept sorted by arrival
+// (then input position), so input that is sorted, or only out of order
+// within the window, streams with bounded memory. An order that shows up
+// after its arrival minute has passed is released straight away. An open
+// input (OrderFeed) that has nothing to read yet is not the end of the input.
+public class OrderSource implements Closeable {
+    private final OrderInput input;
+    private final OrderStore store;
+    private final int window;
+    private final OrderQueue buffer;
+    private boolean exhausted;
+    private long ordersRead;  // Taken from the input so far, for snapshots
+
+    public OrderSource(OrderInput input, OrderStore store, int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Reorder window must be positive");
+        }
+        this.input = input;
+        this.store = store;
+        this.window = window;
+        this.buffer = new OrderQueue(store, OrderQueue.Key.ARRIVAL);
+        this.exhausted = false;
+    }
+
+    // Next order that has arrived by `minute`, or OrderStore.NONE if none has
+    public int poll(int minute) throws IOException {
+        fill();
+        int head = buffer.peek();
+        if (head == OrderStore.NONE || store.getArrivalMinute(head) > minute) {
+            return OrderStore.NONE;
+        }
+        return buffer.poll();
+    }
+
+    // Arrival minute of the next buffered order, or Integer.MAX_VALUE when the input is used up
+    public int nextArrival() throws IOException {
+        fill();
+        int head = buffer.peek();
+        return head == OrderStore.NONE ? Integer.MAX_VALUE : store.getArrivalMinute(head);
+    }
+
+    // True once every order of the input has been handed out
+    public boolean isEmpty() throws IOException {
+        fill();
+        return buffer.isEmpty() && exhausted;
+    }
+
+    private void fill() throws IOException {
+        while (!exhausted && buffer.size() < window) {
+            int order = input.read(store);
+            if (order == OrderStore.NONE) {
+                if (input.isOpen()) {
+                    return;
+                }
+                exhausted = true;
+                input.close();
+            } else {
+                ordersRead++;
+                buffer.add(order);
+            }
+        }
+    }
+
+    // The read-ahead buffer refers to store slots, so the store is saved too
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeLong(ordersRead);
+        out.writeBoolean(exhausted);
+        buffer.saveState(out);
+    }
+
+    // Reads the input up to where the saved source had got, dropping the
+    // orders (they are in the restored store or already delivered), then
+    // restores the buffer. Names are interned again but keep their ids.
+    void restoreState(SnapshotReader in) throws IOException {
+        long saved = in.readLong();
+        OrderStore skipped = new OrderStore(store.getNames(), 16);
+        for (long i = 0; i < saved; i++) {
+            int order = input.read(skipped);
+            if (order == OrderStore.NONE) {
+                throw new IllegalArgumentException("Order input ends before the snapshot's position");
+            }
+            skipped.retire(order);
+        }
+        ordersRead = saved;
+        exhausted = in.readBoolean();
+        if (exhausted) {
+            input.close();
+        }
+        buffer.restoreState(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,542 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Struct-of-arrays storage for orders. Every per-order field lives in a
+// parallel primitive array and an order is just its slot index, so the hot
+// loop reads ints instead of chasing Order objects. Order is a view over one
+// slot for code that wants the object API.
+//
+// Slots of delivered orders are reused once nothing refers to them any more:
+// chefs, ovens and drivers register as holders of the slot they work on, and
+// a retired slot is recycled when its last holder lets go. Recycling can be
+// turned off when delivered orders must stay readable (the FULL trace).
+public class OrderStore {
+    public static final int NONE = -1;
+
+    private static final Order.State[] STATES = Order.State.values();
+
+    private final NameTable names;
+    private boolean recycling;
+    private Order.StateListener stateListener;
+
+    private int capacity;
+    private int size;  // Slots handed out so far, including recycled ones
+    private int[] freeSlots;
+    private int freeCount;
+
+    // Order data
+    private int[] nameId;
+    private int[] numPizzas;
+    private int[] deliveryTime;
+    private int[] priority;
+    private int[] arrivalMinute;  // First minute the order can be scheduled
+    private byte[] state;
+
+    // Tracking progress
+    private int[] pizzasPrepared;  // Only incremented when a pizza fully completes preparation
+    private int[] pizzasBaked;     // Only incremented when a pizza fully completes baking
+    private int[] pizzasInOven;    // Pizzas sitting in deck oven slots
+    private int[] remainingPrepTime;  // For current pizza only
+    private int[] remainingBakeTime;  // For current pizza only
+    private int[] remainingDeliveryTime;  // For whole order
+    private int[] chefTime;  // Store the time needed per pizza
+    private int[] bakeTime;  // Store the time needed per pizza
+
+    // Scheduling bookkeeping
+    private int[] sequence;  // Position in the input: the order's unique id, breaks priority ties
+    private int[] queueIndex;  // Slot in the current queue, NONE when not queued
+    private int[] changedMinute;  // Last minute the trace recorded a state change, 0 if never
+    private int[] stateSince;  // Minute the order entered its current state, for RunMetrics
+    private int[] holders;  // Resources currently pointing at the order
+    private int[] chefs;  // Chefs among the holders
+    private boolean[] retired;
+    private int[] chefLevel;  // Feedback queue level for the MLFQ chef strategy, 0 is the top
+
+    public OrderStore() {
+        this(new NameTable(), 64);
+    }
+
+    public OrderStore(NameTable names, int initialCapacity) {
+        this.names = names;
+        this.recycling = true;
+        this.capacity = Math.max(1, initialCapacity);
+        this.size = 0;
+        this.freeSlots = new int[16];
+        this.freeCount = 0;
+        this.nameId = new int[capacity];
+        this.numPizzas = new int[capacity];
+        this.deliveryTime = new int[capacity];
+        this.priority = new int[capacity];
+        this.arrivalMinute = new int[capacity];
+        this.state = new byte[capacity];
+        this.pizzasPrepared = new int[capacity];
+        this.pizzasBaked = new int[capacity];
+        this.pizzasInOven = new int[capacity];
+        this.remainingPrepTime = new int[capacity];
+        this.remainingBakeTime = new int[capacity];
+        this.remainingDeliveryTime = new int[capacity];
+        this.chefTime = new int[capacity];
+        this.bakeTime = new int[capacity];
+        this.sequence = new int[capacity];
+        this.queueIndex = new int[capacity];
+        this.changedMinute = new int[capacity];
+        this.stateSince = new int[capacity];
+        this.holders = new int[capacity];
+        this.chefs = new int[capacity];
+        this.retired = new boolean[capacity];
+        this.chefLevel = new int[capacity];
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public void setRecycling(boolean recycling) {
+        this.recycling = recycling;
+    }
+
+    public void setStateListener(Order.StateListener stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    // Slots currently in use
+    public int liveSlots() {
+        return size - freeCount;
+    }
+
+    public int add(String person, int numPizzas, int deliveryTime, int priority) {
+        return add(names.intern(person), numPizzas, deliveryTime, priority);
+    }
+
+    public int add(int nameId, int numPizzas, int deliveryTime, int priority) {
+        int order;
+        if (freeCount > 0) {
+            order = freeSlots[--freeCount];
+        } else {
+            if (size == capacity) {
+                grow();
+            }
+            order = size++;
+        }
+        this.nameId[order] = nameId;
+        this.numPizzas[order] = numPizzas;
+        this.deliveryTime[order] = deliveryTime;
+        this.priority[order] = priority;
+        this.arrivalMinute[order] = 1;
+        this.state[order] = (byte) Order.State.PENDING.ordinal();
+        this.pizzasPrepared[order] = 0;
+        this.pizzasBaked[order] = 0;
+        this.pizzasInOven[order] = 0;
+        this.remainingPrepTime[order] = 0;
+        this.remainingBakeTime[order] = 0;
+        this.remainingDeliveryTime[order] = deliveryTime;
+        this.chefTime[order] = 0;
+        this.bakeTime[order] = 0;
+        this.sequence[order] = 0;
+        this.queueIndex[order] = NONE;
+        this.changedMinute[order] = 0;
+        this.stateSince[order] = 0;
+        this.holders[order] = 0;
+        this.chefs[order] = 0;
+        this.retired[order] = false;
+        this.chefLevel[order] = 0;
+        return order;
+    }
+
+    // The order is finished; its slot is reused once no resource holds it
+    public void retire(int order) {
+        retired[order] = true;
+        freeIfUnused(order);
+    }
+
+    // Number of chefs, ovens and drivers currently pointing at the order
+    public int getHolders(int order) {
+        return holders[order];
+    }
+
+    public void addHolder(int order) {
+        holders[order]++;
+    }
+
+    public void removeHolder(int order) {
+        holders[order]--;
+        freeIfUnused(order);
+    }
+
+    // Number of chefs currently pointing at the order, including ones that
+    // have not yet noticed it moved on
+    public int getChefs(int order) {
+        return chefs[order];
+    }
+
+    public void addChef(int order) {
+        chefs[order]++;
+        addHolder(order);
+    }
+
+    public void removeChef(int order) {
+        chefs[order]--;
+        removeHolder(order);
+    }
+
+    private void freeIfUnused(int order) {
+        if (!recycling || !retired[order] || holders[order] > 0) {
+            return;
+        }
+        retired[order] = false;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = order;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        nameId = Arrays.copyOf(nameId, capacity);
+        numPizzas = Arrays.copyOf(numPizzas, capacity);
+        deliveryTime = Arrays.copyOf(deliveryTime, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        arrivalMinute = Arrays.copyOf(arrivalMinute, capacity);
+        state = Arrays.copyOf(state, capacity);
+        pizzasPrepared = Arrays.copyOf(pizzasPrepared, capacity);
+        pizzasBaked = Arrays.copyOf(pizzasBaked, capacity);
+        pizzasInOven = Arrays.copyOf(pizzasInOven, capacity);
+        remainingPrepTime = Arrays.copyOf(remainingPrepTime, capacity);
+        remainingBakeTime = Arrays.copyOf(remainingBakeTime, capacity);
+        remainingDeliveryTime = Arrays.copyOf(remainingDeliveryTime, capacity);
+        chefTime = Arrays.copyOf(chefTime, capacity);
+        bakeTime = Arrays.copyOf(bakeTime, capacity);
+        sequence = Arrays.copyOf(sequence, capacity);
+        queueIndex = Arrays.copyOf(queueIndex, capacity);
+        changedMinute = Arrays.copyOf(changedMinute, capacity);
+        stateSince = Arrays.copyOf(stateSince, capacity);
+        holders = Arrays.copyOf(holders, capacity);
+        chefs = Arrays.copyOf(chefs, capacity);
+        retired = Arrays.copyOf(retired, capacity);
+        chefLevel = Arrays.copyOf(chefLevel, capacity);
+    }
+
+    // Every slot handed out so far and the free list; the name table and
+    // recycling flag are saved by their owners
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(freeCount);
+        out.writeInts(freeSlots, freeCount);
+        out.writeInts(nameId, size);
+        out.writeInts(numPizzas, size);
+        out.writeInts(deliveryTime, size);
+        out.writeInts(priority, size);
+        out.writeInts(arrivalMinute, size);
+        out.writeBytes(state, size);
+        out.writeInts(pizzasPrepared, size);
+        out.writeInts(pizzasBaked, size);
+        out.writeInts(pizzasInOven, size);
+        out.writeInts(remainingPrepTime, size);
+        out.writeInts(remainingBakeTime, size);
+        out.writeInts(remainingDeliveryTime, size);
+        out.writeInts(chefTime, size);
+        out.writeInts(bakeTime, size);
+        out.writeInts(sequence, size);
+        out.writeInts(queueIndex, size);
+        out.writeInts(changedMinute, size);
+        out.writeInts(stateSince, size);
+        out.writeInts(holders, size);
+        out.writeInts(chefs, size);
+        out.writeBooleans(retired, size);
+        out.writeInts(chefLevel, size);
+    }
+
+    // Only into a store that has not handed out any slot yet
+    void restoreState(SnapshotReader in) throws IOException {
+        if (size != 0) {
+            throw new IllegalStateException("Cannot restore into a store that is in use");
+        }
+        int saved = in.readCount();
+        while (capacity < saved) {
+            grow();
+        }
+        size = saved;
+        freeCount = in.readCount();
+        if (freeSlots.length < freeCount) {
+            freeSlots = new int[freeCount];
+        }
+        in.readInts(freeSlots, freeCount);
+        in.readInts(nameId, size);
+        in.readInts(numPizzas, size);
+        in.readInts(deliveryTime, size);
+        in.readInts(priority, size);
+        in.readInts(arrivalMinute, size);
+        in.readBytes(state, size);
+        in.readInts(pizzasPrepared, size);
+        in.readInts(pizzasBaked, size);
+        in.readInts(pizzasInOven, size);
+        in.readInts(remainingPrepTime, size);
+        in.readInts(remainingBakeTime, size);
+        in.readInts(remainingDeliveryTime, size);
+        in.readInts(chefTime, size);
+        in.readInts(bakeTime, size);
+        in.readInts(sequence, size);
+        in.readInts(queueIndex, size);
+        in.readInts(changedMinute, size);
+        in.readInts(stateSince, size);
+        in.readInts(holders, size);
+        in.readInts(chefs, size);
+        in.readBooleans(retired, size);
+        in.readInts(chefLevel, size);
+    }
+
+    public Order view(int order) {
+        return new Order(this, order);
+    }
+
+    public String getPerson(int order) {
+        return names.get(nameId[order]);
+    }
+
+    public int getNameId(int order) {
+        return nameId[order];
+    }
+
+    public int getNumPizzas(int order) {
+        return numPizzas[order];
+    }
+
+    public int getDeliveryTime(int order) {
+        return deliveryTime[order];
+    }
+
+    // Before the order is out for delivery
+    public void setDeliveryTime(int order, int time) {
+        deliveryTime[order] = time;
+        remainingDeliveryTime[order] = time;
+    }
+
+    public int getPriority(int order) {
+        return priority[order];
+    }
+
+    public int getArrivalMinute(int order) {
+        return arrivalMinute[order];
+    }
+
+    public void setArrivalMinute(int order, int minute) {
+        arrivalMinute[order] = minute;
+    }
+
+    public Order.State getState(int order) {
+        return STATES[state[order]];
+    }
+
+    public void setState(int order, Order.State newState) {
+        Order.State previous = STATES[state[order]];
+        state[order] = (byte) newState.ordinal();
+        // When transitioning to OVEN_WAITING, set initial bake time
+        if (newState == Order.State.OVEN_WAITING) {
+            remainingBakeTime[order] = bakeTime[order] * numPizzas[order];
+        }
+        if (stateListener != null && previous != newState) {
+            stateListener.stateChanged(order, previous, newState);
+        }
+    }
+
+    public int getSequence(int order) {
+        return sequence[order];
+    }
+
+    public void setSequence(int order, int value) {
+        sequence[order] = value;
+    }
+
+    int getQueueIndex(int order) {
+        return queueIndex[order];
+    }
+
+    void setQueueIndex(int order, int index) {
+        queueIndex[order] = index;
+    }
+
+    int getChangedMinute(int order) {
+        return changedMinute[order];
+    }
+
+    void setChangedMinute(int order, int minute) {
+        changedMinute[order] = minute;
+    }
+
+    int getStateSince(int order) {
+        return stateSince[order];
+    }
+
+    void setStateSince(int order, int minute) {
+        stateSince[order] = minute;
+    }
+
+    public int getPizzasPrepared(int order) {
+        return pizzasPrepared[order];
+    }
+
+    public int getPizzasBaked(int order) {
+        return pizzasBaked[order];
+    }
+
+    public int getRemainingPrepTime(int order) {
+        return remainingPrepTime[order];
+    }
+
+    public int getRemainingBakeTime(int order) {
+        return remainingBakeTime[order];
+    }
+
+    public int getRemainingDeliveryTime(int order) {
+        return remainingDeliveryTime[order];
+    }
+
+    public void incrementPizzasPrepared(int order) {
+        pizzasPrepared[order]++;
+        // Reset prep time for next pizza
+        if (pizzasPrepared[order] < numPizzas[order]) {
+            remainingPrepTime[order] = chefTime[order];
+        }
+    }
+
+    public void incrementPizzasBaked(int order) {
+        pizzasBaked[order]++;
+    }
+
+    public int getPizzasInOven(int order) {
+        return pizzasInOven[order];
+    }
+
+    public void addPizzaInOven(int order) {
+        pizzasInOven[order]++;
+    }
+
+    public void removePizzaInOven(int order) {
+        pizzasInOven[order]--;
+    }
+
+    // Chef minutes left on the order: the current pizza plus the ones not started
+    public int getRemainingPrepWork(int order) {
+        int remaining = (numPizzas[order] - pizzasPrepared[order]) * chefTime[order];
+        if (remainingPrepTime[order] > 0) {
+            remaining -= chefTime[order] - remainingPrepTime[order];
+        }
+        return remaining;
+    }
+
+    public int getChefLevel(int order) {
+        return chefLevel[order];
+    }
+
+    public void setChefLevel(int order, int level) {
+        chefLevel[order] = level;
+    }
+
+    public void setRemainingPrepTime(int order, int time) {
+        remainingPrepTime[order] = time;
+    }
+
+    public void setRemainingBakeTime(int order, int time) {
+        remainingBakeTime[order] = time;
+    }
+
+    public void setRemainingDeliveryTime(int order, int time) {
+        remainingDeliveryTime[order] = time;
+    }
+
+    // Countdowns never go below zero; minutes > 1 is used by the event engine
+    public void decrementRemainingPrepTime(int order, int minutes) {
+        remainingPrepTime[order] = Math.max(0, remainingPrepTime[order] - minutes);
+    }
+
+    public void decrementRemainingBakeTime(int order, int minutes) {
+        remainingBakeTime[order] = Math.max(0, remainingBakeTime[order] - minutes);
+    }
+
+    public void decrementRemainingDeliveryTime(int order, int minutes) {
+        remainingDeliveryTime[order] = Math.max(0, remainingDeliveryTime[order] - minutes);
+    }
+
+    public void setChefTime(int order, int time) {
+        chefTime[order] = time;
+        if (state[order] == Order.State.PENDING.ordinal()) {
+            remainingPrepTime[order] = time;
+        }
+    }
+
+    public int getChefTime(int order) {
+        return chefTime[order];
+    }
+
+    public void setBakeTime(int order, int time) {
+        bakeTime[order] = time;
+    }
+
+    public int getBakeTime(int order) {
+        return bakeTime[order];
+    }
+
+    public int getTotalRemainingTime(int order) {
+        switch (getState(order)) {
+            case PENDING:
+                return numPizzas[order] * chefTime[order];
+            case PREPARING:
+                return remainingPrepTime[order] + ((numPizzas[order] - (pizzasPrepared[order] + 1)) * chefTime[order]);
+            case OVEN_WAITING:
+                return bakeTime[order] * numPizzas[order];
+            case OVEN_PREPARING:
+                return remainingBakeTime[order];
+            case DRIVER_WAITING:
+                return deliveryTime[order];
+            case DELIVERED:
+                return remainingDeliveryTime[order];
+            default:
+                return 0;
+        }
+    }
+
+    public int getDoneInCurrentState(int order) {
+        switch (getState(order)) {
+            case PREPARING:
+            case CHEF_WAITING:
+                return 0;  // No pizzas are "done" until they complete the state
+            case OVEN_PREPARING:
+                return pizzasBaked[order];
+            case DRIVER_WAITING:
+                return 0;
+            case DELIVERED:
+                return numPizzas[order];
+            default:
+                return 0;
+        }
+    }
+
+    public int getPendingInCurrentState(int order) {
+        switch (getState(order)) {
+            case PENDING:
+            case PREPARING:
+            case CHEF_WAITING:
+                return numPizzas[order];  // All pizzas are pending until they complete preparation
+            case OVEN_WAITING:
+            case OVEN_PREPARING:
+                return numPizzas[order] - pizzasBaked[order];
+            case DRIVER_WAITING:
+                return numPizzas[order];
+            case DELIVERED:
+                return 0;
+            default:
+                return 0;
+        }
+    }
+
+    // Trace line for the order: person,state,done,pending,remaining
+    public void appendTo(int order, StringBuilder out) {
+        out.append(getPerson(order)).append(',')
+            .append(getState(order).name()).append(',')
+            .append(getDoneInCurrentState(order)).append(',')
+            .append(getPendingInCurrentState(order)).append(',')
+            .append(getTotalRemainingTime(order));
+    }
+}
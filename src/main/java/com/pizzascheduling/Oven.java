@@ -1,76 +1,290 @@
 package com.pizzascheduling;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+// A single-slot oven works on one order at a time and counts down the
+// order's shared bake time, as it always has. An oven with several slots
+// (a deck oven), or any oven when baking by pizza, bakes one pizza per slot
+// instead: every slot has its own timer and the slots may hold pizzas from
+// different orders. The oven is in the free pool while it has an empty
+// slot. Bake times are the order's own.
 public class Oven {
     private final int id;
-    private Order currentOrder;
-    private final int bakeTime;
+    private final OrderStore store;
+    private int currentOrder;  // Store slot, OrderStore.NONE when idle
+    private final ResourcePool pool;
+    private long busyMinutes;  // Minutes that started with an order in hand
+    private final boolean byPizza;  // Slots bake single pizzas on their own timers
+
+    // Baking by pizza only
+    private final int[] slotOrder;  // Order of the pizza in each slot, OrderStore.NONE when empty
+    private final int[] slotRemaining;  // Bake minutes left for the pizza in each slot
+    private final boolean[] slotTracksOrder;  // Last pizza of its order: mirrors its timer into the store
+    private int occupiedSlots;
 
-    public Oven(int id, int bakeTime) {
+    public Oven(int id, OrderStore store, ResourcePool pool) {
+        this(id, 1, false, store, pool);
+    }
+
+    // byPizza makes even a single-slot oven bake pizzas, not orders
+    public Oven(int id, int slots, boolean byPizza, OrderStore store, ResourcePool pool) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Oven slots must be positive");
+        }
         this.id = id;
-        this.bakeTime = bakeTime;
-        this.currentOrder = null;
+        this.byPizza = byPizza || slots > 1;
+        this.store = store;
+        this.pool = pool;
+        this.currentOrder = OrderStore.NONE;
+        this.slotOrder = new int[slots];
+        this.slotRemaining = new int[slots];
+        this.slotTracksOrder = new boolean[slots];
+        Arrays.fill(slotOrder, OrderStore.NONE);
+        this.occupiedSlots = 0;
+        pool.release(id);
+    }
+
+    public boolean bakesByPizza() {
+        return byPizza;
+    }
+
+    public int getSlots() {
+        return slotOrder.length;
+    }
+
+    // Baking by pizza: order of the pizza in the slot, OrderStore.NONE when empty
+    public int getSlotOrder(int slot) {
+        return slotOrder[slot];
+    }
+
+    public int getSlotRemaining(int slot) {
+        return slotRemaining[slot];
+    }
+
+    public int getOccupiedSlots() {
+        return occupiedSlots;
+    }
+
+    // Baking by pizza: puts one pizza of the order into a free slot. lastPizza
+    // marks the order's final pizza, whose timer becomes the order's
+    // remaining bake time.
+    public void placePizza(int order, boolean lastPizza) {
+        if (occupiedSlots == slotOrder.length) {
+            throw new IllegalStateException("Oven has no free slot");
+        }
+        int slot = 0;
+        while (slotOrder[slot] != OrderStore.NONE) {
+            slot++;
+        }
+        slotOrder[slot] = order;
+        slotRemaining[slot] = store.getBakeTime(order);
+        slotTracksOrder[slot] = lastPizza;
+        occupiedSlots++;
+        store.addHolder(order);
+        store.addPizzaInOven(order);
+        if (lastPizza) {
+            store.setRemainingBakeTime(order, slotRemaining[slot]);
+        }
+        if (occupiedSlots == slotOrder.length) {
+            pool.acquire(id);
+        } else {
+            pool.markChanged(id);
+            pool.setWorking(id, true);
+        }
+    }
+
+    private void workSlots(int minutes) {
+        if (occupiedSlots == 0) {
+            return;
+        }
+        busyMinutes += minutes;
+        for (int slot = 0; slot < slotOrder.length; slot++) {
+            int order = slotOrder[slot];
+            if (order == OrderStore.NONE) {
+                continue;
+            }
+            slotRemaining[slot] -= minutes;
+            if (slotTracksOrder[slot]) {
+                store.setRemainingBakeTime(order, slotRemaining[slot]);
+            }
+            if (slotRemaining[slot] > 0) {
+                continue;
+            }
+            slotOrder[slot] = OrderStore.NONE;
+            occupiedSlots--;
+            pool.release(id);
+            store.removePizzaInOven(order);
+            store.incrementPizzasBaked(order);
+            if (store.getPizzasBaked(order) == store.getNumPizzas(order)) {
+                store.setState(order, Order.State.DRIVER_WAITING);
+            }
+            store.removeHolder(order);
+        }
+        // Releasing a slot takes the oven off the pool's working list
+        pool.setWorking(id, occupiedSlots > 0);
+    }
+
+    // Baking by pizza: minutes that can pass before a pizza comes out
+    public int quietMinutes() {
+        int quiet = Integer.MAX_VALUE;
+        for (int slot = 0; slot < slotOrder.length; slot++) {
+            if (slotOrder[slot] != OrderStore.NONE) {
+                quiet = Math.min(quiet, slotRemaining[slot] - 1);
+            }
+        }
+        return quiet;
     }
 
     public boolean isFree() {
-        return currentOrder == null;
+        return currentOrder == OrderStore.NONE;
     }
 
-    public void assignOrder(Order order) {
-        if (order == null) {
+    public void assignOrder(int order) {
+        if (order == OrderStore.NONE) {
             throw new IllegalArgumentException("Cannot assign null order to oven");
         }
         
-        if (currentOrder != null) {
+        if (currentOrder != OrderStore.NONE) {
             throw new IllegalStateException("Oven is already baking a pizza");
         }
 
         this.currentOrder = order;
-        if (order.getCurrentState() == Order.State.OVEN_WAITING) {
-            order.setState(Order.State.OVEN_PREPARING);
+        store.addHolder(order);
+        pool.acquire(id);
+        if (store.getState(order) == Order.State.OVEN_WAITING) {
+            store.setState(order, Order.State.OVEN_PREPARING);
         }
         
         // Set initial bake time for the pizza
-        if (order.getRemainingBakeTime() == 0) {
-            order.setRemainingBakeTime(bakeTime);
+        if (store.getRemainingBakeTime(order) == 0) {
+            store.setRemainingBakeTime(order, store.getBakeTime(order));
         }
     }
 
     public void work() {
-        if (currentOrder == null) {
+        if (bakesByPizza()) {
+            workSlots(1);
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
             return;
         }
+        busyMinutes++;
 
         // Release the order if it's moved past OVEN_PREPARING state
-        if (currentOrder.getCurrentState() != Order.State.OVEN_PREPARING) {
-            currentOrder = null;
+        if (store.getState(currentOrder) != Order.State.OVEN_PREPARING) {
+            release();
             return;
         }
 
-        currentOrder.decrementRemainingBakeTime();
+        store.decrementRemainingBakeTime(currentOrder, 1);
         
-        if (currentOrder.getRemainingBakeTime() == 0) {
-            currentOrder.incrementPizzasBaked();
+        if (store.getRemainingBakeTime(currentOrder) == 0) {
+            store.incrementPizzasBaked(currentOrder);
             
             // If all pizzas are baked, move to next state and release the order
-            if (currentOrder.getPizzasBaked() == currentOrder.getNumPizzas()) {
-                currentOrder.setState(Order.State.DRIVER_WAITING);
-                currentOrder = null;
+            if (store.getPizzasBaked(currentOrder) == store.getNumPizzas(currentOrder)) {
+                store.setState(currentOrder, Order.State.DRIVER_WAITING);
+                release();
             } else {
                 // Start next pizza
-                currentOrder.setRemainingBakeTime(bakeTime);
+                store.setRemainingBakeTime(currentOrder, store.getBakeTime(currentOrder));
             }
         }
     }
 
-    public Order getCurrentOrder() {
+    private void release() {
+        int order = currentOrder;
+        currentOrder = OrderStore.NONE;
+        pool.release(id);
+        store.removeHolder(order);
+    }
+
+    // True if work() this minute would only count down timers no other
+    // resource writes, or do nothing, so it can run on any thread
+    public boolean canWorkInParallel() {
+        if (bakesByPizza()) {
+            return quietMinutes() >= 1;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            return true;
+        }
+        return store.getHolders(currentOrder) == 1 &&
+               store.getState(currentOrder) == Order.State.OVEN_PREPARING &&
+               store.getRemainingBakeTime(currentOrder) > 1;
+    }
+
+    // Advance several minutes at once; the caller guarantees no pizza finishes
+    public void advance(int minutes) {
+        if (bakesByPizza()) {
+            workSlots(minutes);
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            return;
+        }
+        busyMinutes += minutes;
+        store.decrementRemainingBakeTime(currentOrder, minutes);
+    }
+
+    // The slot count and bake unit are part of the configuration and are not saved
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(currentOrder);
+        out.writeLong(busyMinutes);
+        out.writeInt(occupiedSlots);
+        out.writeInts(slotOrder, slotOrder.length);
+        out.writeInts(slotRemaining, slotRemaining.length);
+        out.writeBooleans(slotTracksOrder, slotTracksOrder.length);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        currentOrder = in.readInt();
+        busyMinutes = in.readLong();
+        occupiedSlots = in.readInt();
+        in.readInts(slotOrder, slotOrder.length);
+        in.readInts(slotRemaining, slotRemaining.length);
+        in.readBooleans(slotTracksOrder, slotTracksOrder.length);
+        pool.setWorking(id, bakesByPizza() ? occupiedSlots > 0 : currentOrder != OrderStore.NONE);
+    }
+
+    // Store slot of the current order, OrderStore.NONE when idle
+    public int getCurrentOrderIndex() {
         return currentOrder;
     }
 
+    public Order getCurrentOrder() {
+        return currentOrder == OrderStore.NONE ? null : store.view(currentOrder);
+    }
+
+    public long getBusyMinutes() {
+        return busyMinutes;
+    }
+
+    // Same text as toString(), without the intermediate String
+    // Ovens baking by pizza list every slot: Oven0,Juan,Maria,None
+    public void appendTo(StringBuilder out) {
+        out.append("Oven").append(id).append(',');
+        if (bakesByPizza()) {
+            for (int slot = 0; slot < slotOrder.length; slot++) {
+                if (slot > 0) {
+                    out.append(',');
+                }
+                out.append(slotOrder[slot] == OrderStore.NONE ? "None" : store.getPerson(slotOrder[slot]));
+            }
+            return;
+        }
+        if (currentOrder == OrderStore.NONE) {
+            out.append("None");
+            return;
+        }
+        out.append(store.getPerson(currentOrder));
+    }
+
     @Override
     public String toString() {
-        if (currentOrder == null) {
-            return String.format("Oven%d,None", id);
-        }
-        return String.format("Oven%d,%s", id, currentOrder.getPerson());
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.toString();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.pizzascheduling;
+
+import java.util.List;
+import java.util.concurrent.Phaser;
+
+// Runs the resources' work for one minute on several threads. Chefs, ovens
+// and drivers are split into contiguous partitions, one per thread. Each
+// thread advances the resources in its partition whose work() would only
+// count down state no other resource touches; the rest (anything that
+// finishes, expires, releases or shares its order) is deferred and then run
+// on the calling thread in the serial chefs, ovens, drivers order. The
+// parallel part commutes with the deferred part, so the minute ends exactly
+// as the serial loop would leave it. Threads meet at a phaser at the start
+// and end of the parallel part.
+class ParallelTicker implements AutoCloseable {
+    private final List<Chef> chefs;
+    private final List<Oven> ovens;
+    private final List<Driver> drivers;
+    private final int[] bounds;  // Partition p covers resources bounds[p] until bounds[p + 1]
+    private final IntList[] deferred;  // Per partition, resources left for the calling thread
+    private final Phaser phaser;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    ParallelTicker(int threads, List<Chef> chefs, List<Oven> ovens, List<Driver> drivers) {
+        if (threads <= 1) {
+            throw new IllegalArgumentException("Parallel ticks need at least two threads");
+        }
+        this.chefs = chefs;
+        this.ovens = ovens;
+        this.drivers = drivers;
+        int resources = chefs.size() + ovens.size() + drivers.size();
+        this.bounds = new int[threads + 1];
+        this.deferred = new IntList[threads];
+        for (int p = 0; p < threads; p++) {
+            bounds[p + 1] = (int) ((long) resources * (p + 1) / threads);
+            deferred[p] = new IntList();
+        }
+        this.phaser = new Phaser(threads);
+        // The calling thread works partition 0
+        for (int p = 1; p < threads; p++) {
+            int partition = p;
+            Thread worker = new Thread(() -> workLoop(partition), "pizza-tick-" + p);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void workLoop(int partition) {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (closed) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            try {
+                advancePartition(partition);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    // One minute of work() on every resource
+    void workMinute() {
+        phaser.arriveAndAwaitAdvance();
+        advancePartition(0);
+        phaser.arriveAndAwaitAdvance();
+        Throwable e = failure;
+        if (e != null) {
+            failure = null;
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new IllegalStateException(e);
+        }
+        for (IntList list : deferred) {
+            for (int i = 0; i < list.size(); i++) {
+                work(list.get(i));
+            }
+        }
+    }
+
+    private void advancePartition(int partition) {
+        IntList list = deferred[partition];
+        list.clear();
+        for (int i = bounds[partition]; i < bounds[partition + 1]; i++) {
+            if (!advanceIfPrivate(i)) {
+                list.add(i);
+            }
+        }
+    }
+
+    private boolean advanceIfPrivate(int resource) {
+        if (resource < chefs.size()) {
+            Chef chef = chefs.get(resource);
+            if (chef.canWorkInParallel()) {
+                chef.advance(1);
+                return true;
+            }
+            return false;
+        }
+        resource -= chefs.size();
+        if (resource < ovens.size()) {
+            Oven oven = ovens.get(resource);
+            if (oven.canWorkInParallel()) {
+                oven.advance(1);
+                return true;
+            }
+            return false;
+        }
+        Driver driver = drivers.get(resource - ovens.size());
+        if (driver.canWorkInParallel()) {
+            driver.advance(1);
+            return true;
+        }
+        return false;
+    }
+
+    private void work(int resource) {
+        if (resource < chefs.size()) {
+            chefs.get(resource).work();
+            return;
+        }
+        resource -= chefs.size();
+        if (resource < ovens.size()) {
+            ovens.get(resource).work();
+            return;
+        }
+        drivers.get(resource - ovens.size()).work();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        phaser.arriveAndDeregister();
+    }
+}
@@ -1,238 +1,409 @@
 package com.pizzascheduling;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class PizzaScheduler {
-    private int availableChefs;
-    private int availableOvens;
-    private int availableDrivers;
-    private int bakeTime;
-    private int chefTime;
-    private String chefStrategy;
-    private int chefQuantum;
-    private String inputFile;
-    private List<Order> orders;
+    private static final int SNAPSHOT_MAGIC = 0x505A534E;  // "PZSN"
+    private static final int SNAPSHOT_VERSION = 7;
+
+    private final SchedulerConfig config;
+    private final OrderInput input;  // Orders to run, or null to read config's input
+    private final PrintStream out;
+    private final int availableChefs;
+    private final int availableOvens;
+    private final int availableDrivers;
+    private final int bakeTime;
+    private final int ovenSlots;
+    private final boolean bakeByPizza;  // Ovens bake single pizzas, each on its own timer
+    private final int driverBatch;
+    private final int driverBatchWait;
+    private final int driverMaxDelivery;
+    private final int driverStopTime;
+    private final int chefTime;
+    private final ChefStrategy chefStrategy;
+    private final String engine;
+    private final int threads;
+    private ParallelTicker ticker;  // Only with more than one thread
+    private final String trace;
+    private final int reorderWindow;
+    private final String archiveFile;
+    private final OrderStore store;
+    private IntList orders;  // Every admitted order, kept only for the FULL trace
+    private int liveOrders;  // Admitted and not yet delivered
+    private OrderSource orderSource;  // Orders that have not arrived yet
+    private OrderArchive archive;  // Delivered orders
+    private int admittedOrders;
+    private long admittedPizzas;
+    // Orders waiting for each stage, kept up to date by OrderStore.setState
+    private final OrderQueue chefQueue;
+    private final OrderQueue ovenQueue;
+    private final OrderQueue driverQueue;
     private List<Chef> chefs;
     private List<Oven> ovens;
     private List<Driver> drivers;
+    // Idle resources by id, updated as resources take and drop orders
+    private final ResourcePool freeChefs = new ResourcePool();
+    private final ResourcePool freeOvens = new ResourcePool();
+    private final ResourcePool freeDrivers = new ResourcePool();
     private int currentMinute;
+    private TraceWriter traceWriter;
+    private BinaryTraceWriter binaryTrace;  // Only for the BINARY trace
+    // Orders that changed state in the current minute, for the CHANGES trace
+    private final IntList changedOrders = new IntList();
+    private final IntList assignedDrivers = new IntList();  // Scratch list for assignOrdersToDrivers
+    // Event engine only: each resource's next event, and whether an order
+    // left a stage while other resources still held it
+    private EventHeap events;
+    private boolean holdersWentStale;
+    private int deliveredOrders;
+    private long deliveredPizzas;
+    private int lastDeliveryMinute;
+    private long deliveryMinuteTotal;
+    private final RunMetrics metrics = new RunMetrics();
+    private final String metricsFile;
+    private final String metricsFormat;
+    private final String snapshotFile;
+    private final int snapshotInterval;
+    private final String resumeFile;
+    private final String etaReportFile;
+    private EtaEstimator eta;
+    private final DurationSampler durations;
+    private final Staffing staffing;  // Only when chefs or drivers change during the run
+    // Resource-minutes: resources on shift or finishing their work, times minutes
+    private long chefMinutes;
+    private long ovenMinutes;
+    private long driverMinutes;
+    private IntConsumer startListener;
+
+    // All state belongs to the instance and the trace goes to `out`, so
+    // several schedulers can run side by side on different threads
+    public PizzaScheduler(SchedulerConfig config, PrintStream out) {
+        this(config, null, out);
+    }
+
+    // Runs the preloaded orders instead of the config's input
+    public PizzaScheduler(SchedulerConfig config, OrderSet preloadedOrders, PrintStream out) {
+        this(config, preloadedOrders == null ? null : preloadedOrders.getNames(),
+             preloadedOrders == null ? null : preloadedOrders.open(), out);
+    }
 
-    public PizzaScheduler(String[] args) {
-        parseArguments(args);
-        orders = new ArrayList<>();
+    // Runs the orders from `input`, whose names are interned in `names`,
+    // instead of the config's input
+    public PizzaScheduler(SchedulerConfig config, NameTable names, OrderInput input, PrintStream out) {
+        if (input == null) {
+            config.validate();
+        } else {
+            config.validateSettings();
+        }
+        this.config = config;
+        this.input = input;
+        this.out = out;
+        this.availableChefs = config.getAvailableChefs();
+        this.availableOvens = config.getAvailableOvens();
+        this.availableDrivers = config.getAvailableDrivers();
+        this.bakeTime = config.getBakeTime();
+        this.ovenSlots = config.getOvenSlots();
+        this.bakeByPizza = ovenSlots > 1 || config.getBakeUnit().equals("PIZZA");
+        this.driverBatch = config.getDriverBatch();
+        this.driverBatchWait = config.getDriverBatchWait();
+        this.driverMaxDelivery = config.getDriverMaxDelivery();
+        this.driverStopTime = config.getDriverStopTime();
+        this.chefTime = config.getChefTime();
+        this.chefStrategy = ChefStrategy.create(config.getChefStrategy(), config.getChefQuantum());
+        this.engine = config.getEngine();
+        this.threads = config.getThreads();
+        this.trace = config.getTrace();
+        this.reorderWindow = config.getReorderWindow();
+        this.archiveFile = config.getArchiveFile();
+        this.metricsFile = config.getMetricsFile();
+        this.metricsFormat = config.getMetricsFormat();
+        this.snapshotFile = config.getSnapshotFile();
+        this.snapshotInterval = config.getSnapshotInterval();
+        this.resumeFile = config.getResumeFile();
+        this.etaReportFile = config.getEtaReportFile();
+        this.durations = new DurationSampler(config.getChefTimeDistribution(), config.getBakeTimeDistribution(),
+            config.getDeliveryTimeDistribution(), config.getSeed());
+        this.staffing = config.hasDynamicStaffing() ? new Staffing(config) : null;
+        this.store = names == null ? new OrderStore() : new OrderStore(names, 64);
+        this.chefQueue = new OrderQueue(store, chefStrategy);
+        this.ovenQueue = new OrderQueue(store);
+        this.driverQueue = new OrderQueue(store);
+        orders = new IntList();
         chefs = new ArrayList<>();
         ovens = new ArrayList<>();
         drivers = new ArrayList<>();
         currentMinute = 1;
     }
 
-    // Prompt used: "Generate a function to parse 
-    // command line arguments for a Java program
-    // that handles both --key=value and --key 
-    // value formats for the following parameters:
-    // input-file, available-chefs, available-ovens, 
-    // available-drivers, bake-time, 
-    // chef-time, chef-strategy, and chef-quantum"
-    private void parseArguments(String[] args) {
-        for (int i = 0; i < args.length; i++) {
-            String arg = args[i];
-            String value;
-            
-            if (arg.contains("=")) {
-                // Handle --key=value format
-                String[] parts = arg.split("=", 2);
-                arg = parts[0];
-                value = parts[1];
-            } else {
-                // Handle --key value format
-                if (i + 1 >= args.length) {
-                    throw new IllegalArgumentException("Missing value for argument: " + arg);
-                }
-                value = args[++i];
-            }
-            
-            switch (arg) {
-                case "--input-file":
-                    inputFile = value;
-                    break;
-                case "--available-chefs":
-                    availableChefs = Integer.parseInt(value);
-                    break;
-                case "--available-ovens":
-                    availableOvens = Integer.parseInt(value);
-                    break;
-                case "--available-drivers":
-                    availableDrivers = Integer.parseInt(value);
-                    break;
-                case "--bake-time":
-                    bakeTime = Integer.parseInt(value);
-                    break;
-                case "--chef-time":
-                    chefTime = Integer.parseInt(value);
-                    break;
-                case "--chef-strategy":
-                    chefStrategy = value;
-                    break;
-                case "--chef-quantum":
-                    chefQuantum = Integer.parseInt(value);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown argument: " + arg);
-            }
-        }
-        validateArguments();
-    }
-
-    private void validateArguments() {
-        if (inputFile == null || availableChefs <= 0 || availableOvens <= 0 || 
-            availableDrivers <= 0 || bakeTime <= 0 || chefTime <= 0) {
-            throw new IllegalArgumentException("Missing or invalid required arguments");
-        }
-        if (!chefStrategy.equals("FOCUSED") && !chefStrategy.equals("RR")) {
-            throw new IllegalArgumentException("Chef strategy must be either FOCUSED or RR");
-        }
-        if (chefStrategy.equals("RR") && chefQuantum <= 0) {
-            throw new IllegalArgumentException("Chef quantum must be positive for RR strategy");
-        }
+    // Orders are read lazily: each one joins the simulation in its arrival minute.
+    // Generated workloads are parsed straight from the generator's stream.
+    public void loadOrders() throws IOException {
+        orderSource = new OrderSource(input != null ? input : config.openInput(), store, reorderWindow);
+        store.setStateListener(this::onStateChange);
     }
 
-    private void loadOrders() throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length != 4) {
-                    throw new IllegalArgumentException("Invalid order format: " + line);
-                }
-                String person = parts[0];
-                int numPizzas = Integer.parseInt(parts[1]);
-                int deliveryTime = Integer.parseInt(parts[2]);
-                int priority = Integer.parseInt(parts[3]);
-                Order order = new Order(person, numPizzas, deliveryTime, priority);
-                order.setChefTime(chefTime);
-                order.setBakeTime(bakeTime);
+    void admitArrivals() throws IOException {
+        int order;
+        while ((order = orderSource.poll(currentMinute)) != OrderStore.NONE) {
+            store.setChefTime(order, durations.chefTime(chefTime));
+            store.setBakeTime(order, durations.bakeTime(bakeTime));
+            if (durations.samplesDelivery()) {
+                store.setDeliveryTime(order, durations.deliveryTime(store.getDeliveryTime(order)));
+            }
+            chefQueue.add(order);
+            metrics.admitted(store, order, currentMinute);
+            eta.admitted(order, currentMinute);
+            admittedOrders++;
+            liveOrders++;
+            admittedPizzas += store.getNumPizzas(order);
+            if (traceWriter.isFull()) {
                 orders.add(order);
+            } else if (binaryTrace != null) {
+                binaryTrace.admitted(order);
             }
         }
     }
 
     private void initializeResources() {
+        // With shifts, everyone who is ever on shift is on the roster
+        int rosterChefs = staffing == null ? availableChefs : staffing.getRosterChefs();
+        int rosterDrivers = staffing == null ? availableDrivers : staffing.getRosterDrivers();
+
         // Initialize chefs
-        for (int i = 0; i < availableChefs; i++) {
-            chefs.add(new Chef(i, chefStrategy, chefTime));
+        for (int i = 0; i < rosterChefs; i++) {
+            chefs.add(new Chef(i, chefStrategy, store, freeChefs));
         }
         
         // Initialize ovens
         for (int i = 0; i < availableOvens; i++) {
-            ovens.add(new Oven(i, bakeTime));
+            ovens.add(new Oven(i, ovenSlots, bakeByPizza, store, freeOvens));
         }
         
         // Initialize drivers
-        for (int i = 0; i < availableDrivers; i++) {
-            drivers.add(new Driver(i));
+        for (int i = 0; i < rosterDrivers; i++) {
+            drivers.add(new Driver(i, driverBatch, driverStopTime, store, freeDrivers));
         }
     }
 
-    private void assignOrdersToChefs() {
-        // Get all orders that need chef work and sort by priority
-        List<Order> waitingOrders = new ArrayList<>();
-        for (Order order : orders) {
-            if (order.getCurrentState() == Order.State.PENDING ||
-                order.getCurrentState() == Order.State.CHEF_WAITING) {
-                waitingOrders.add(order);
-            }
+    // Shift changes and autoscaling take effect at the start of the minute,
+    // after its arrivals and before its assignments
+    private void applyStaffing() {
+        if (staffing == null) {
+            return;
         }
-        waitingOrders.sort(Comparator.comparingInt(Order::getPriority));
-
-        // In RR mode, we want to assign orders to all free chefs
-        // In FOCUSED mode, we want to assign the same order to all free chefs
-        if (chefStrategy.equals("FOCUSED")) {
-            // In FOCUSED mode, assign the same order to all free chefs
-            if (!waitingOrders.isEmpty()) {
-                Order highestPriorityOrder = waitingOrders.get(0);
-                for (Chef chef : chefs) {
-                    if (chef.isFree()) {
-                        chef.assignOrder(highestPriorityOrder);
-                    }
-                }
-            }
-        } else {
-            // In RR mode, each free chef gets the highest priority order available
-            for (Chef chef : chefs) {
-                if (chef.isFree() && !waitingOrders.isEmpty()) {
-                    // Always pick the highest priority order (index 0 since list is sorted)
-                    Order highestPriorityOrder = waitingOrders.get(0);
-                    chef.setRemainingQuantum(chefQuantum);
-                    chef.assignOrder(highestPriorityOrder);
-                    // Only remove the order from waiting list if all its pizzas are being prepared
-                    int pizzasBeingPrepared = (int) chefs.stream()
-                        .filter(c -> c.getCurrentOrder() != null && 
-                                   c.getCurrentOrder().getPerson().equals(highestPriorityOrder.getPerson()))
-                        .count();
-                    if (pizzasBeingPrepared >= highestPriorityOrder.getNumPizzas()) {
-                        waitingOrders.remove(0);
-                    }
-                }
-            }
+        if (staffing.isCheckMinute(currentMinute)) {
+            staffing.scale(currentMinute, load(chefQueue, freeChefs.onShift(chefs.size())),
+                load(driverQueue, freeDrivers.onShift(drivers.size())));
+        }
+        setShifts();
+    }
+
+    private void setShifts() {
+        freeChefs.setOnShift(staffing.chefsAt(currentMinute), chefs.size());
+        freeDrivers.setOnShift(staffing.driversAt(currentMinute), drivers.size());
+        eta.setStaffing(freeChefs.onShift(chefs.size()), freeDrivers.onShift(drivers.size()));
+    }
+
+    private double load(OrderQueue queue, int onShift) {
+        if (queue.isEmpty()) {
+            return 0;
+        }
+        if (staffing.measuresWait()) {
+            return currentMinute - store.getStateSince(queue.peek());
+        }
+        return onShift == 0 ? Double.MAX_VALUE : (double) queue.size() / onShift;
+    }
+
+    private OrderQueue queueFor(Order.State state) {
+        switch (state) {
+            case PENDING:
+            case CHEF_WAITING:
+                return chefQueue;
+            case OVEN_WAITING:
+                return ovenQueue;
+            case DRIVER_WAITING:
+                return driverQueue;
+            default:
+                return null;
+        }
+    }
+
+    // Move the order between stage queues as its state changes
+    private void onStateChange(int order, Order.State from, Order.State to) {
+        checkHolders(order, from, to);
+        metrics.stateChanged(store, order, from, currentMinute);
+        eta.stateChanged(order, from, to, currentMinute);
+        if (from == Order.State.PENDING && startListener != null) {
+            startListener.accept(order);
+        }
+        OrderQueue source = queueFor(from);
+        OrderQueue target = queueFor(to);
+        if (traceWriter.tracksChanges() && store.getChangedMinute(order) != currentMinute) {
+            store.setChangedMinute(order, currentMinute);
+            changedOrders.add(order);
+        }
+        if (to == Order.State.DELIVERED) {
+            retire(order);
+        }
+        if (source == target) {
+            return;
+        }
+        if (source != null) {
+            source.remove(order);
+        }
+        if (target != null) {
+            target.add(order);
+        }
+    }
+
+    // The holder making the change still counts, so more than one means
+    // others are left holding an order that has moved on
+    private void checkHolders(int order, Order.State from, Order.State to) {
+        if ((from == Order.State.PREPARING || from == Order.State.OVEN_PREPARING ||
+             to == Order.State.DELIVERED) && store.getHolders(order) > 1) {
+            holdersWentStale = true;
+        }
+    }
+
+    // Delivered orders leave the live set; only their final stats are kept
+    // and the store slot is recycled once no resource points at it
+    private void retire(int order) {
+        liveOrders--;
+        deliveredOrders++;
+        deliveredPizzas += store.getNumPizzas(order);
+        lastDeliveryMinute = currentMinute;
+        deliveryMinuteTotal += currentMinute;
+        metrics.delivered(store, order, currentMinute);
+        try {
+            archive.add(store, order, currentMinute);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        store.retire(order);
+    }
+
+    void assignOrdersToChefs() {
+        if (chefQueue.isEmpty()) {
+            return;
         }
+        chefStrategy.assign(chefQueue, chefs, freeChefs, store);
     }
 
-    private void assignOrdersToOvens() {
-        // Get all orders waiting for ovens and sort by priority (lower number = higher priority)
-        List<Order> waitingOrders = new ArrayList<>();
-        for (Order order : orders) {
-            if (order.getCurrentState() == Order.State.OVEN_WAITING) {
-                // Add the order multiple times based on remaining pizzas to bake
-                int remainingPizzas = order.getNumPizzas() - order.getPizzasBaked();
-                for (int i = 0; i < remainingPizzas; i++) {
-                    waitingOrders.add(order);
+    void assignOrdersToOvens() {
+        if (bakeByPizza) {
+            fillOvenSlots();
+            return;
+        }
+        // Each remaining pizza of the highest priority order can take a free oven.
+        // The first oven moves the order to OVEN_PREPARING and out of the queue.
+        int order = OrderStore.NONE;
+        int unassignedPizzas = 0;
+        for (int id = freeOvens.nextFree(0); id >= 0; id = freeOvens.nextFree(id + 1)) {
+            if (unassignedPizzas == 0) {
+                order = ovenQueue.peek();
+                if (order == OrderStore.NONE) {
+                    break;
                 }
+                unassignedPizzas = store.getNumPizzas(order) - store.getPizzasBaked(order);
             }
+            ovens.get(id).assignOrder(order);
+            unassignedPizzas--;
         }
-        waitingOrders.sort(Comparator.comparingInt(Order::getPriority));
+    }
 
-        // Try to assign orders to free ovens
-        for (Order order : waitingOrders) {
-            for (Oven oven : ovens) {
-                if (oven.isFree()) {
-                    oven.assignOrder(order);
-                        break;
-                    }
+    // Baking by pizza: free slots take pizzas one at a time from the highest
+    // priority waiting order. An order stays in the oven queue until its last
+    // pizza has a slot, and only then becomes OVEN_PREPARING.
+    private void fillOvenSlots() {
+        for (int id = freeOvens.nextFree(0); id >= 0; id = freeOvens.nextFree(id + 1)) {
+            Oven oven = ovens.get(id);
+            while (oven.getOccupiedSlots() < oven.getSlots()) {
+                int order = ovenQueue.peek();
+                if (order == OrderStore.NONE) {
+                    return;
+                }
+                int unplaced = store.getNumPizzas(order) - store.getPizzasBaked(order) -
+                    store.getPizzasInOven(order);
+                oven.placePizza(order, unplaced == 1);
+                if (unplaced == 1) {
+                    store.setState(order, Order.State.OVEN_PREPARING);
                 }
             }
         }
+    }
 
-    private void assignOrdersToDrivers() {
-        // Get all orders waiting for drivers and sort by priority
-        List<Order> waitingOrders = new ArrayList<>();
-        for (Order order : orders) {
-            if (order.getCurrentState() == Order.State.DRIVER_WAITING) {
-                waitingOrders.add(order);
+    void assignOrdersToDrivers() {
+        if (driverBatch > 1) {
+            assignDriverRuns();
+            return;
+        }
+        // Orders keep DRIVER_WAITING while out for delivery, so they are taken
+        // off the queue only while being handed out and then put back
+        if (driverQueue.isEmpty() || freeDrivers.isEmpty()) {
+            return;
+        }
+        assignedDrivers.clear();
+        for (int id = freeDrivers.nextFree(0); id >= 0 && !driverQueue.isEmpty();
+             id = freeDrivers.nextFree(id + 1)) {
+            int order = driverQueue.poll();
+            drivers.get(id).assignOrder(order);
+            assignedDrivers.add(order);
+        }
+        for (int i = 0; i < assignedDrivers.size(); i++) {
+            driverQueue.add(assignedDrivers.get(i));
+        }
+    }
+
+    // Batching drivers: runs still loading top up first, then free drivers
+    // start new runs. Batched orders leave the driver queue. A run leaves when
+    // it is full, when its wait is over and no order is ready, or when the
+    // next ready order would break the delivery bound.
+    private void assignDriverRuns() {
+        for (Driver driver : drivers) {
+            if (driver.isLoading()) {
+                loadRun(driver);
             }
         }
-        waitingOrders.sort(Comparator.comparingInt(Order::getPriority));
+        for (int id = freeDrivers.nextFree(0); id >= 0 && !driverQueue.isEmpty();
+             id = freeDrivers.nextFree(id + 1)) {
+            loadRun(drivers.get(id));
+        }
+    }
 
-        // Try to assign orders to free drivers
-        for (Order order : waitingOrders) {
-            for (Driver driver : drivers) {
-                if (driver.isFree()) {
-                    driver.assignOrder(order);
-                    break;
+    private void loadRun(Driver driver) {
+        while (!driver.isBatchFull()) {
+            int order = driverQueue.peek();
+            if (order == OrderStore.NONE) {
+                if (driver.getWaitLeft() == 0) {
+                    driver.depart();
                 }
+                return;
             }
+            if (!driver.fits(order, driverMaxDelivery)) {
+                driver.depart();
+                return;
+            }
+            driverQueue.poll();
+            driver.addToBatch(order, driverBatchWait);
         }
+        driver.depart();
     }
 
     private void simulateMinute() {
-
-        System.out.println("==== MINUTE " + currentMinute);
-        
+        countStaffed(1);
         // Let resources work
+        if (ticker != null) {
+            ticker.workMinute();
+            printMinute();
+            currentMinute++;
+            return;
+        }
         for (Chef chef : chefs) {
             chef.work();
         }
@@ -243,38 +414,526 @@ public class PizzaScheduler {
             driver.work();
         }
 
-        // Print order status
-        for (Order order : orders) {
-            System.out.println(order.toString());
+        printMinute();
+        currentMinute++;
+    }
+
+    private void printMinute() {
+        if (traceWriter.isFull()) {
+            traceWriter.writeMinute(currentMinute, store, orders, chefs, ovens, drivers);
+        } else if (traceWriter.isChanges()) {
+            changedOrders.sortBySequence(store);
+            traceWriter.writeChanges(currentMinute, store, changedOrders,
+                chefs, freeChefs, ovens, freeOvens, drivers, freeDrivers);
+        } else if (binaryTrace != null) {
+            binaryTrace.writeMinute(currentMinute, changedOrders, freeChefs, freeOvens, freeDrivers);
         }
+        clearChanges();
+    }
 
-        // Print resource status
-        for (Chef chef : chefs) {
-            System.out.println(chef.toString());
+    private void clearChanges() {
+        changedOrders.clear();
+        freeChefs.clearChanged();
+        freeOvens.clearChanged();
+        freeDrivers.clearChanged();
+    }
+
+    // Advance the busy resources through minutes in which work() would only count down
+    private void skipQuietMinutes(int minutes) {
+        countStaffed(minutes);
+        if (traceWriter.isFull()) {
+            // The trace needs every minute, so step one at a time
+            for (int i = 0; i < minutes; i++) {
+                advanceResources(1);
+                printMinute();
+                currentMinute++;
+            }
+            return;
         }
-        for (Oven oven : ovens) {
-            System.out.println(oven.toString());
+        // Only the first minute can carry changes, from this minute's assignments
+        advanceResources(1);
+        printMinute();
+        advanceResources(minutes - 1);
+        if (binaryTrace != null) {
+            binaryTrace.skip(currentMinute, minutes - 1);
         }
-        for (Driver driver : drivers) {
-            System.out.println(driver.toString());
+        currentMinute += minutes;
+    }
+
+    // Before the minutes' work, so a resource finishing before it leaves counts its last minute
+    private void countStaffed(int minutes) {
+        chefMinutes += (long) freeChefs.staffed(chefs.size()) * minutes;
+        ovenMinutes += (long) ovens.size() * minutes;
+        driverMinutes += (long) freeDrivers.staffed(drivers.size()) * minutes;
+    }
+
+    // Only resources holding work have anything to count down
+    private void advanceResources(int minutes) {
+        for (int id = freeChefs.nextWorking(0); id >= 0; id = freeChefs.nextWorking(id + 1)) {
+            chefs.get(id).advance(minutes);
+        }
+        for (int id = freeOvens.nextWorking(0); id >= 0; id = freeOvens.nextWorking(id + 1)) {
+            ovens.get(id).advance(minutes);
         }
+        for (int id = freeDrivers.nextWorking(0); id >= 0; id = freeDrivers.nextWorking(id + 1)) {
+            drivers.get(id).advance(minutes);
+        }
+    }
 
-        currentMinute++;
+    // Number of minutes, starting with the current one, before the next event:
+    // a pizza or delivery finishing, an RR quantum expiring or a stale order
+    // being released, the next order arriving, or a shift change or
+    // autoscaling check. Returns Integer.MAX_VALUE when nothing is busy and
+    // no more orders will arrive.
+    //
+    // Resource events come from the event heap. Between events a resource's
+    // next event minute stays put, so only resources that took, dropped or
+    // reloaded work since the last call, and those whose event has come, are
+    // looked at again. Another resource joining an order brings its event
+    // forward for every holder, and the joiner's own entry carries the new
+    // minute. A holder leaving only pushes it back, which at worst wakes the
+    // engine early.
+    private int minutesUntilNextEvent() throws IOException {
+        int nextArrival = orderSource.nextArrival();
+        int quiet = nextArrival == Integer.MAX_VALUE ? Integer.MAX_VALUE : nextArrival - currentMinute;
+        if (staffing != null) {
+            int nextChange = staffing.nextChange(currentMinute);
+            if (nextChange != Integer.MAX_VALUE) {
+                quiet = Math.min(quiet, nextChange - currentMinute);
+            }
+        }
+
+        // The other holders of an order that left their stage release it on
+        // their next work(), and their timers don't show it
+        if (holdersWentStale) {
+            holdersWentStale = false;
+            return 0;
+        }
+
+        // One resource whose event is still due settles it; the rest stay
+        // due and are looked at on a later call
+        rescheduleTouched();
+        for (int key = events.pollDue(currentMinute); key >= 0; key = events.pollDue(currentMinute)) {
+            if (reschedule(key) <= currentMinute) {
+                return 0;
+            }
+        }
+        int nextEvent = events.nextMinute();
+        if (nextEvent != Integer.MAX_VALUE) {
+            quiet = Math.min(quiet, nextEvent - currentMinute);
+        }
+        return Math.max(quiet, 0);
+    }
+
+    // Puts every resource in the event heap, e.g. after a snapshot is restored
+    private void rescheduleAll() {
+        events.clear();
+        for (int key = 0; key < chefs.size() + ovens.size() + drivers.size(); key++) {
+            reschedule(key);
+        }
+        freeChefs.clearTouched();
+        freeOvens.clearTouched();
+        freeDrivers.clearTouched();
+    }
+
+    private void rescheduleTouched() {
+        for (int id = freeChefs.nextTouched(0); id >= 0; id = freeChefs.nextTouched(id + 1)) {
+            reschedule(id);
+        }
+        for (int id = freeOvens.nextTouched(0); id >= 0; id = freeOvens.nextTouched(id + 1)) {
+            reschedule(chefs.size() + id);
+        }
+        for (int id = freeDrivers.nextTouched(0); id >= 0; id = freeDrivers.nextTouched(id + 1)) {
+            reschedule(chefs.size() + ovens.size() + id);
+        }
+        freeChefs.clearTouched();
+        freeOvens.clearTouched();
+        freeDrivers.clearTouched();
+    }
+
+    // Keys are chefs, then ovens, then drivers. Returns the resource's next
+    // event minute, Integer.MAX_VALUE if it has none.
+    private int reschedule(int key) {
+        int quiet;
+        if (key < chefs.size()) {
+            quiet = quietMinutes(chefs.get(key));
+        } else if (key < chefs.size() + ovens.size()) {
+            quiet = quietMinutes(ovens.get(key - chefs.size()));
+        } else {
+            quiet = quietMinutes(drivers.get(key - chefs.size() - ovens.size()));
+        }
+        int minute = quiet == Integer.MAX_VALUE ? quiet :
+            (int) Math.min(Integer.MAX_VALUE - 1, (long) currentMinute + Math.max(quiet, 0));
+        events.schedule(key, minute);
+        return minute;
+    }
+
+    // Minutes, starting with the current one, the resource can skip;
+    // Integer.MAX_VALUE when it has no work. Orders shared by several
+    // resources count down once per holder per minute.
+    private int quietMinutes(Chef chef) {
+        int order = chef.getCurrentOrderIndex();
+        if (order == OrderStore.NONE) {
+            return Integer.MAX_VALUE;
+        }
+        // Stale holders are released on the next work()
+        if (store.getState(order) != Order.State.PREPARING) {
+            return 0;
+        }
+        int quiet = quietCountdown(store.getRemainingPrepTime(order), store.getHolders(order));
+        if (chefStrategy.usesQuantum()) {
+            quiet = Math.min(quiet, chef.getRemainingQuantum() - 1);
+        }
+        return quiet;
+    }
+
+    private int quietMinutes(Oven oven) {
+        // Slots baking single pizzas have their own timers and never go stale
+        int quiet = oven.bakesByPizza() ? oven.quietMinutes() : Integer.MAX_VALUE;
+        int order = oven.getCurrentOrderIndex();
+        if (order == OrderStore.NONE) {
+            return quiet;
+        }
+        if (store.getState(order) != Order.State.OVEN_PREPARING) {
+            return 0;
+        }
+        return Math.min(quiet, quietCountdown(store.getRemainingBakeTime(order), store.getHolders(order)));
+    }
+
+    private int quietMinutes(Driver driver) {
+        int order = driver.getCurrentOrderIndex();
+        if (order != OrderStore.NONE) {
+            return quietCountdown(store.getRemainingDeliveryTime(order), store.getHolders(order));
+        }
+        return driver.isBatching() ? driver.quietMinutes() : Integer.MAX_VALUE;
+    }
+
+    private static int quietCountdown(int remaining, int workers) {
+        return remaining <= 0 ? 0 : (remaining - 1) / workers;
+    }
+
+    // True if the next assignment pass would hand out work, e.g. a free
+    // driver joining an order that is already out for delivery
+    private boolean hasAssignableWork() {
+        return (!chefQueue.isEmpty() && !freeChefs.isEmpty()) ||
+               (!ovenQueue.isEmpty() && !freeOvens.isEmpty()) ||
+               (!driverQueue.isEmpty() && !freeDrivers.isEmpty());
+    }
+
+    private boolean isSimulationComplete() throws IOException {
+        return liveOrders == 0 && orderSource.isEmpty();
+    }
+
+    public RunSummary runSimulation() throws IOException {
+        startRun();
+        try {
+            if (snapshotInterval > 0) {
+                while (!runUntil(nextSnapshotMinute())) {
+                    saveSnapshot();
+                }
+            } else {
+                runUntil(Integer.MAX_VALUE);
+            }
+            writeResults();
+        } finally {
+            finishRun();
+        }
+        return summarize(currentMinute - 1);
+    }
+
+    // The trace summary or end, and the metrics file, once the run is complete
+    void writeResults() throws IOException {
+        traceWriter.writeSummary(currentMinute - 1, admittedOrders, admittedPizzas,
+            deliveredOrders, deliveryMinuteTotal);
+        if (staffing != null) {
+            traceWriter.writeStaffing(deliveredOrders, chefMinutes, ovenMinutes, driverMinutes);
+        }
+        if (binaryTrace != null) {
+            binaryTrace.finish(currentMinute - 1);
+        }
+        if (metricsFile != null) {
+            metrics.export(metricsFile, metricsFormat, currentMinute - 1, chefs, ovens, drivers,
+                chefMinutes, ovenMinutes, driverMinutes);
+        }
+        if (etaReportFile != null) {
+            eta.writeReport(etaReportFile);
+        }
+    }
+
+    // Predicted delivery minute of a live order (its store slot), from the
+    // current queues and resources; see EtaEstimator. Call between minutes.
+    public int estimateDelivery(int order) {
+        checkRunning();
+        return eta.estimate(order, currentMinute);
+    }
+
+    // Predicted delivery minute of an order placed now
+    public int estimateNewOrder(int numPizzas, int deliveryTime, int priority) {
+        checkRunning();
+        return eta.estimateNew(numPizzas, deliveryTime, priority, currentMinute);
+    }
+
+    private void checkRunning() {
+        if (eta == null) {
+            throw new IllegalStateException("Estimates need a started run");
+        }
+    }
+
+    // Hands what has been traced so far to the output stream, so a server
+    // streams each minute as it is simulated
+    void flushTrace() throws IOException {
+        traceWriter.flush();
+        if (binaryTrace != null) {
+            binaryTrace.flush();
+        }
+    }
+
+    // Runs minutes until the simulation is complete or the clock reaches
+    // endMinute, whichever comes first; true once it is complete. Runs that
+    // are fed orders while they go (StoreFleet) call this once per window.
+    boolean runUntil(int endMinute) throws IOException {
+        if (engine.equals("EVENT")) {
+            runEventDriven(endMinute);
+        } else {
+            runTicks(endMinute);
+        }
+        return isSimulationComplete();
+    }
+
+    // Snapshots are taken at the start of every minute that is a multiple of
+    // the interval, before that minute's arrivals
+    private int nextSnapshotMinute() {
+        long next = ((long) currentMinute / snapshotInterval + 1) * snapshotInterval;
+        return (int) Math.min(Integer.MAX_VALUE, next);
+    }
+
+    // Everything the remaining minutes depend on. The header repeats the
+    // settings that shape the saved state, so a resume with different
+    // staffing fails instead of misreading it. Other options (engine,
+    // threads, the chef and bake time of orders not admitted yet) may change
+    // between the run and the resume.
+    void saveSnapshot() throws IOException {
+        String path = snapshotFile.replace("{minute}", Integer.toString(currentMinute));
+        try (SnapshotWriter out = new SnapshotWriter(Paths.get(path))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(availableChefs);
+            out.writeInt(chefs.size());
+            out.writeInt(availableOvens);
+            out.writeInt(ovenSlots);
+            out.writeBoolean(bakeByPizza);
+            out.writeInt(availableDrivers);
+            out.writeInt(drivers.size());
+            out.writeInt(driverBatch);
+            out.writeString(chefStrategy.getName());
+            out.writeInt(config.getChefQuantum());
+            out.writeBoolean(traceWriter.isFull());
+
+            out.writeInt(currentMinute);
+            out.writeInt(liveOrders);
+            out.writeInt(admittedOrders);
+            out.writeLong(admittedPizzas);
+            out.writeInt(deliveredOrders);
+            out.writeLong(deliveredPizzas);
+            out.writeInt(lastDeliveryMinute);
+            out.writeLong(deliveryMinuteTotal);
+            out.writeLong(chefMinutes);
+            out.writeLong(ovenMinutes);
+            out.writeLong(driverMinutes);
+            orders.saveState(out);
+
+            store.getNames().saveState(out);
+            store.saveState(out);
+            orderSource.saveState(out);
+            chefQueue.saveState(out);
+            ovenQueue.saveState(out);
+            driverQueue.saveState(out);
+            freeChefs.saveState(out);
+            freeOvens.saveState(out);
+            freeDrivers.saveState(out);
+            for (Chef chef : chefs) {
+                chef.saveState(out);
+            }
+            for (Oven oven : ovens) {
+                oven.saveState(out);
+            }
+            for (Driver driver : drivers) {
+                driver.saveState(out);
+            }
+            metrics.saveState(out);
+            eta.saveState(out);
+            durations.saveState(out);
+            out.writeBoolean(staffing != null);
+            if (staffing != null) {
+                staffing.saveState(out);
+            }
+        }
     }
 
-    private boolean isSimulationComplete() {
-        for (Order order : orders) {
-            if (order.getCurrentState() != Order.State.DELIVERED) {
-                return false;
+    // Called by startRun() on a fresh scheduler whose orders are loaded
+    private void restoreSnapshot() throws IOException {
+        try (SnapshotReader in = new SnapshotReader(Paths.get(resumeFile))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalArgumentException("Not a snapshot: " + resumeFile);
             }
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version: " + resumeFile);
+            }
+            checkSnapshot("available chefs", in.readInt(), availableChefs);
+            checkSnapshot("chefs on the roster", in.readInt(), chefs.size());
+            checkSnapshot("available ovens", in.readInt(), availableOvens);
+            checkSnapshot("oven slots", in.readInt(), ovenSlots);
+            if (in.readBoolean() != bakeByPizza) {
+                throw new IllegalArgumentException("Snapshot was taken with a different bake unit");
+            }
+            checkSnapshot("available drivers", in.readInt(), availableDrivers);
+            checkSnapshot("drivers on the roster", in.readInt(), drivers.size());
+            checkSnapshot("driver batch", in.readInt(), driverBatch);
+            String strategy = in.readString();
+            if (!strategy.equals(chefStrategy.getName())) {
+                throw new IllegalArgumentException("Snapshot was taken with chef strategy " + strategy);
+            }
+            checkSnapshot("chef quantum", in.readInt(), config.getChefQuantum());
+            if (in.readBoolean() != traceWriter.isFull()) {
+                throw new IllegalArgumentException("Resume a FULL trace snapshot with the FULL trace, and only then");
+            }
+
+            currentMinute = in.readInt();
+            liveOrders = in.readInt();
+            admittedOrders = in.readInt();
+            admittedPizzas = in.readLong();
+            deliveredOrders = in.readInt();
+            deliveredPizzas = in.readLong();
+            lastDeliveryMinute = in.readInt();
+            deliveryMinuteTotal = in.readLong();
+            chefMinutes = in.readLong();
+            ovenMinutes = in.readLong();
+            driverMinutes = in.readLong();
+            orders.restoreState(in);
+
+            store.getNames().restoreState(in);
+            store.restoreState(in);
+            orderSource.restoreState(in);
+            chefQueue.restoreState(in);
+            ovenQueue.restoreState(in);
+            driverQueue.restoreState(in);
+            freeChefs.restoreState(in);
+            freeOvens.restoreState(in);
+            freeDrivers.restoreState(in);
+            for (Chef chef : chefs) {
+                chef.restoreState(in);
+            }
+            for (Oven oven : ovens) {
+                oven.restoreState(in);
+            }
+            for (Driver driver : drivers) {
+                driver.restoreState(in);
+            }
+            metrics.restoreState(in);
+            eta.restoreState(in);
+            durations.restoreState(in);
+            if (in.readBoolean() != (staffing != null)) {
+                throw new IllegalArgumentException("Snapshot was taken with different shift or autoscale options");
+            }
+            if (staffing != null) {
+                staffing.restoreState(in);
+            }
+        }
+    }
+
+    private void checkSnapshot(String setting, int saved, int configured) {
+        if (saved != configured) {
+            throw new IllegalArgumentException("Snapshot was taken with " + setting + " " + saved +
+                ", not " + configured);
+        }
+    }
+
+    RunSummary summarize(int minutes) {
+        long driverRuns = 0;
+        long driverBusyMinutes = 0;
+        for (Driver driver : drivers) {
+            driverRuns += driver.getRuns();
+            driverBusyMinutes += driver.getBusyMinutes();
         }
-        return true;
+        return new RunSummary(minutes, admittedOrders, admittedPizzas,
+            metrics.getLatencyHistogram(), driverRuns, driverBusyMinutes, chefMinutes, ovenMinutes, driverMinutes);
+    }
+
+    int getCurrentMinute() {
+        return currentMinute;
+    }
+
+    boolean hasLiveOrders() {
+        return liveOrders > 0;
+    }
+
+    // Called with the slot of every order a chef takes for the first time
+    void setStartListener(IntConsumer startListener) {
+        this.startListener = startListener;
+    }
+
+    int getLastDeliveryMinute() {
+        return lastDeliveryMinute;
+    }
+
+    long getDeliveredPizzas() {
+        return deliveredPizzas;
     }
 
-    public void runSimulation() {
+    // Setup and teardown around the main loop. The benchmarks call these
+    // directly to drive single scheduling passes.
+    void startRun() throws IOException {
+        traceWriter = new TraceWriter(trace, out);
+        archive = new OrderArchive(archiveFile == null ? null : Paths.get(archiveFile));
+        // The FULL trace prints delivered orders every minute, so their slots must stay
+        store.setRecycling(!traceWriter.isFull());
         initializeResources();
-        
-        while (!isSimulationComplete()) {
+        events = new EventHeap(chefs.size() + ovens.size() + drivers.size());
+        eta = new EtaEstimator(store, chefStrategy, chefQueue, ovenQueue, chefs, ovens, drivers,
+            chefTime, bakeTime, ovenSlots, bakeByPizza, driverBatch);
+        eta.setTracking(etaReportFile != null);
+        if (resumeFile != null) {
+            if (traceWriter.isBinary()) {
+                throw new IllegalArgumentException("The BINARY trace cannot start from a snapshot");
+            }
+            restoreSnapshot();
+            if (staffing != null) {
+                eta.setStaffing(freeChefs.onShift(chefs.size()), freeDrivers.onShift(drivers.size()));
+            }
+        } else if (staffing != null) {
+            setShifts();
+        }
+        if (traceWriter.isBinary()) {
+            binaryTrace = new BinaryTraceWriter(out, store, chefs, ovens, drivers, chefStrategy.usesQuantum());
+        }
+        if (threads > 1) {
+            ticker = new ParallelTicker(threads, chefs, ovens, drivers);
+        }
+        clearChanges();
+    }
+
+    void finishRun() throws IOException {
+        if (ticker != null) {
+            ticker.close();
+            ticker = null;
+        }
+        traceWriter.flush();
+        orderSource.close();
+        archive.close();
+    }
+
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    OrderStore getStore() {
+        return store;
+    }
+
+    private void runTicks(int endMinute) throws IOException {
+        while (!isSimulationComplete() && currentMinute < endMinute) {
+            admitArrivals();
+            applyStaffing();
             assignOrdersToChefs();
             assignOrdersToOvens();
             assignOrdersToDrivers();
@@ -282,14 +941,51 @@ public class PizzaScheduler {
         }
     }
 
-    public static void main(String[] args) {
+    // Same minute semantics as the tick loop, but minutes in which every
+    // resource only counts down are skipped in one step instead of calling
+    // work() on each resource.
+    private void runEventDriven(int endMinute) throws IOException {
+        rescheduleAll();
+        while (!isSimulationComplete() && currentMinute < endMinute) {
+            admitArrivals();
+            applyStaffing();
+            assignOrdersToChefs();
+            assignOrdersToOvens();
+            assignOrdersToDrivers();
+
+            // Pending assignments mean the next minute is an event even if
+            // no countdown finishes, so there is nothing to skip. The event
+            // heap catches up with the resources' changes on the next call.
+            if (hasAssignableWork()) {
+                simulateMinute();
+                continue;
+            }
+            int quiet = minutesUntilNextEvent();
+            if (quiet == Integer.MAX_VALUE || quiet == 0) {
+                simulateMinute();
+                continue;
+            }
+            skipQuietMinutes(Math.min(quiet, endMinute - currentMinute));
+        }
+    }
+
+    // Runs the command line and returns the exit status
+    public static int run(String[] args, PrintStream out, PrintStream err) {
         try {
-            PizzaScheduler scheduler = new PizzaScheduler(args);
+            PizzaScheduler scheduler = new PizzaScheduler(SchedulerConfig.parse(args), out);
             scheduler.loadOrders();
             scheduler.runSimulation();
+            return 0;
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            System.exit(1);
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,288 @@
+package com.pizzascheduling;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs the scheduler as a long-running service instead of over one file.
+// Orders come in as lines in the order file format
+// (person,pizzas,deliveryTime,priority), on stdin or over any number of
+// connections to --listen <port> on the loopback interface, and join the
+// simulation in the current minute. Each minute's trace (CHANGES unless
+// --trace says otherwise) is flushed as soon as the minute is simulated.
+//
+// --minute-millis sets the clock: 60000 is real time, 0 (the default) runs
+// minutes as fast as the scheduler can and stops the clock while there is
+// nothing to do. Orders pass through an OrderIntake of --intake-capacity;
+// when it is full, readers stop reading until the scheduler catches up.
+// The run ends at the end of stdin, or when a connection sends SHUTDOWN,
+// after every order received has been delivered.
+//
+// Every --stats-seconds (0 for none) a CSV row goes to the error stream
+// with the orders received and started by a chef in that window, the
+// intake rate and the time from intake to a chef in microseconds; a Total
+// row follows at the end.
+public class PizzaServer {
+    private static final String STATS_HEADER =
+        "Minute,Received,Started,OrdersPerSecond,MeanIntakeMicros,P99IntakeMicros";
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    private final SchedulerConfig config;
+    private final int port;  // -1 reads stdin
+    private final int minuteMillis;
+    private final int statsSeconds;
+    private final OrderIntake intake;
+    private volatile ServerSocket listener;
+
+    public PizzaServer(SchedulerConfig config, int port, int minuteMillis, int statsSeconds, int intakeCapacity) {
+        if (port != -1 && (port <= 0 || port > 65535)) {
+            throw new IllegalArgumentException("Port must be between 1 and 65535");
+        }
+        if (minuteMillis < 0) {
+            throw new IllegalArgumentException("Minute millis must not be negative");
+        }
+        if (statsSeconds < 0) {
+            throw new IllegalArgumentException("Stats seconds must not be negative");
+        }
+        config.validateSettings();
+        this.config = config;
+        this.port = port;
+        this.minuteMillis = minuteMillis;
+        this.statsSeconds = statsSeconds;
+        this.intake = new OrderIntake(intakeCapacity);
+    }
+
+    public static PizzaServer parse(String[] args) {
+        SchedulerConfig config = new SchedulerConfig();
+        config.setTrace("CHANGES");
+        Map<String, String> serverArgs = new HashMap<>();
+        SchedulerConfig.forEachArgument(args, (arg, value) -> {
+            switch (arg) {
+                case "--listen":
+                case "--minute-millis":
+                case "--stats-seconds":
+                case "--intake-capacity":
+                    serverArgs.put(arg, value);
+                    break;
+                case "--input-file":
+                case "--generate-orders":
+                case "--snapshot-file":
+                case "--snapshot-interval":
+                case "--resume-from":
+                    throw new IllegalArgumentException(arg + " is not supported by the server");
+                default:
+                    if (!config.set(arg, value)) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+            }
+        });
+        int port = Integer.parseInt(serverArgs.getOrDefault("--listen", "-1"));
+        int minuteMillis = Integer.parseInt(serverArgs.getOrDefault("--minute-millis", "0"));
+        int statsSeconds = Integer.parseInt(serverArgs.getOrDefault("--stats-seconds", "10"));
+        int intakeCapacity = Integer.parseInt(serverArgs.getOrDefault("--intake-capacity", String.valueOf(1 << 16)));
+        return new PizzaServer(config, port, minuteMillis, statsSeconds, intakeCapacity);
+    }
+
+    public OrderIntake getIntake() {
+        return intake;
+    }
+
+    // Serves until the input ends or SHUTDOWN, then finishes every order
+    public RunSummary serve(InputStream in, PrintStream out, PrintStream err) throws IOException {
+        NameTable names = new NameTable();
+        OrderFeed feed = new OrderFeed();
+        PizzaScheduler scheduler = new PizzaScheduler(config, names, feed, out);
+        OrderStore store = scheduler.getStore();
+        LatencyHistogram window = new LatencyHistogram();
+        LatencyHistogram total = new LatencyHistogram();
+        scheduler.setStartListener(order -> {
+            long received = intake.started(store.getSequence(order));
+            if (received != Long.MIN_VALUE) {
+                int micros = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - received) / 1000);
+                window.record(micros);
+                total.record(micros);
+            }
+        });
+        startIntake(in, err);
+
+        scheduler.loadOrders();
+        scheduler.startRun();
+        try {
+            long start = System.nanoTime();
+            long windowStart = start;
+            long windowReceived = 0;
+            long received = 0;
+            long minutesRun = 0;
+            err.println(STATS_HEADER);
+            while (!intake.isFinished()) {
+                int minute = scheduler.getCurrentMinute();
+                int drained = intake.drainTo(feed, names, minute);
+                received += drained;
+                windowReceived += drained;
+                if (minuteMillis == 0 && feed.pending() == 0 && !scheduler.hasLiveOrders()) {
+                    // Nothing to simulate: wait for orders instead of running empty minutes
+                    if (intake.isEmpty()) {
+                        LockSupport.parkNanos(100_000);
+                    }
+                } else {
+                    scheduler.runUntil(minute + 1);
+                    scheduler.flushTrace();
+                    minutesRun++;
+                    if (minuteMillis > 0) {
+                        waitUntil(start + minutesRun * minuteMillis * 1_000_000L);
+                    }
+                }
+                long now = System.nanoTime();
+                if (statsSeconds > 0 && now - windowStart >= statsSeconds * 1_000_000_000L) {
+                    err.println(statsRow(Integer.toString(scheduler.getCurrentMinute() - 1),
+                        windowReceived, window, now - windowStart));
+                    window.clear();
+                    windowStart = now;
+                    windowReceived = 0;
+                }
+            }
+            feed.finish();
+            scheduler.runUntil(Integer.MAX_VALUE);
+            scheduler.writeResults();
+            err.println(statsRow("Total", received, total, System.nanoTime() - start));
+        } finally {
+            intake.close();
+            closeListener();
+            scheduler.finishRun();
+        }
+        return scheduler.summarize(scheduler.getCurrentMinute() - 1);
+    }
+
+    private static void waitUntil(long deadline) {
+        long left;
+        while ((left = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    private static String statsRow(String label, long received, LatencyHistogram latencies, long nanos) {
+        double perSecond = nanos == 0 ? 0 : received * 1e9 / nanos;
+        return label + "," + received + "," + latencies.getCount() + "," +
+               String.format(Locale.ROOT, "%.2f", perSecond) + "," +
+               String.format(Locale.ROOT, "%.2f", latencies.getMean()) + "," + latencies.percentile(99);
+    }
+
+    // Readers run on daemon threads and only touch the intake
+    private void startIntake(InputStream in, PrintStream err) throws IOException {
+        if (port == -1) {
+            startThread("pizza-intake", err, () -> {
+                try {
+                    readOrders(in, err, false);
+                } finally {
+                    intake.close();
+                }
+            });
+            return;
+        }
+        listener = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        startThread("pizza-listener", err, () -> {
+            while (!intake.isClosed()) {
+                Socket socket = listener.accept();
+                startThread("pizza-intake", err, () -> {
+                    try (Socket connection = socket) {
+                        readOrders(connection.getInputStream(), err, true);
+                    }
+                });
+            }
+        });
+    }
+
+    private void readOrders(InputStream in, PrintStream err, boolean acceptShutdown) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (acceptShutdown && line.equals("SHUTDOWN")) {
+                intake.close();
+                closeListener();
+                return;
+            }
+            String[] fields = line.split(",", -1);
+            long numPizzas = fields.length == 4 ? parseInt(fields[1]) : NOT_AN_INT;
+            long deliveryTime = fields.length == 4 ? parseInt(fields[2]) : NOT_AN_INT;
+            long priority = fields.length == 4 ? parseInt(fields[3]) : NOT_AN_INT;
+            // An order without pizzas or delivery time would never be delivered
+            if (numPizzas <= 0 || deliveryTime <= 0 || priority == NOT_AN_INT) {
+                err.println("Error: Invalid order format: " + line);
+                continue;
+            }
+            if (!intake.put(fields[0], (int) numPizzas, (int) deliveryTime, (int) priority)) {
+                return;
+            }
+        }
+    }
+
+    // The field's value, or NOT_AN_INT
+    private static long parseInt(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            return NOT_AN_INT;
+        }
+    }
+
+    private void closeListener() {
+        ServerSocket socket = listener;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private interface IntakeTask {
+        void run() throws IOException;
+    }
+
+    // Once the intake is closed, failures (a dropped connection, the
+    // listener being closed) just end the thread
+    private void startThread(String name, PrintStream err, IntakeTask task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                if (!intake.isClosed()) {
+                    err.println("Error: " + e.getMessage());
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        try {
+            parse(args).serve(in, out, err);
+            return 0;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.in, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+// Idle resources of one kind, by id. Resources acquire and release
+// themselves as they take and drop orders, so assignment can walk the free
+// ids in ascending order (the order the old isFree() scans used) and stop as
+// soon as the pool is empty.
+//
+// With shifts, a resource taken off shift leaves the pool. One that is still
+// working is "leaving": it finishes its order and then stays out instead of
+// coming back to the pool.
+//
+// The pool also records which resources may have a new next event for the
+// event engine. That record is kept apart from the trace's changes, which
+// are cleared every minute. And it records which resources hold work, so
+// the event engine can skip quiet minutes without visiting idle ones.
+public class ResourcePool {
+    private final BitSet free;
+    private final BitSet changed;  // Resources that took or dropped an order since clearChanged()
+    private final BitSet offShift;
+    private final BitSet leaving;  // Off shift but still working
+    private final BitSet touched;  // Resources whose next event may have moved since clearTouched()
+    private final BitSet working;  // Resources holding work, not saved with the pool
+    private int freeCount;
+    private int offShiftCount;
+    private int awayCount;  // Off shift and done working
+
+    public ResourcePool() {
+        this.free = new BitSet();
+        this.changed = new BitSet();
+        this.offShift = new BitSet();
+        this.leaving = new BitSet();
+        this.touched = new BitSet();
+        this.working = new BitSet();
+        this.freeCount = 0;
+    }
+
+    public void release(int id) {
+        changed.set(id);
+        touched.set(id);
+        working.clear(id);
+        if (offShift.get(id)) {
+            if (leaving.get(id)) {
+                leaving.clear(id);
+                awayCount++;
+            }
+            return;
+        }
+        if (!free.get(id)) {
+            free.set(id);
+            freeCount++;
+        }
+    }
+
+    public void acquire(int id) {
+        changed.set(id);
+        touched.set(id);
+        working.set(id);
+        if (free.get(id)) {
+            free.clear(id);
+            freeCount--;
+        }
+    }
+
+    // Records a change that did not move the resource in or out of the pool
+    public void markChanged(int id) {
+        changed.set(id);
+        touched.set(id);
+    }
+
+    // Records a change to the resource's timers that the trace doesn't show
+    public void touch(int id) {
+        touched.set(id);
+    }
+
+    // Lowest touched id that is >= fromId, or -1 if there is none
+    public int nextTouched(int fromId) {
+        return touched.nextSetBit(fromId);
+    }
+
+    public void clearTouched() {
+        touched.clear();
+    }
+
+    // For work the pool doesn't see: an oven baking by pizza keeps working
+    // while it has free slots. Resources also call it after a restore.
+    public void setWorking(int id, boolean holdsWork) {
+        working.set(id, holdsWork);
+    }
+
+    // Lowest id that is >= fromId and holds work, or -1 if there is none
+    public int nextWorking(int fromId) {
+        return working.nextSetBit(fromId);
+    }
+
+    public boolean isEmpty() {
+        return freeCount == 0;
+    }
+
+    public int size() {
+        return freeCount;
+    }
+
+    // Lowest free id that is >= fromId, or -1 if there is none
+    public int nextFree(int fromId) {
+        return free.nextSetBit(fromId);
+    }
+
+    public boolean isOnShift(int id) {
+        return !offShift.get(id);
+    }
+
+    // Resources of the first `size` ids that are on shift
+    public int onShift(int size) {
+        return size - offShiftCount;
+    }
+
+    // Resources of the first `size` ids that are on shift or still finishing
+    // their work, the ones that count as staffed
+    public int staffed(int size) {
+        return size - awayCount;
+    }
+
+    // Puts resources of the first `size` ids on or off shift until `target`
+    // are on. Leaving resources come back first, then the lowest ids. The
+    // highest ids go off shift, idle ones before busy ones. Neither marks the
+    // resource changed, as its order does not change.
+    public void setOnShift(int target, int size) {
+        while (onShift(size) < target) {
+            int id = leaving.nextSetBit(0);
+            if (id >= 0) {
+                leaving.clear(id);
+            } else {
+                id = offShift.nextSetBit(0);
+                awayCount--;
+                free.set(id);
+                freeCount++;
+            }
+            offShift.clear(id);
+            offShiftCount--;
+        }
+        while (onShift(size) > target) {
+            int id = free.previousSetBit(size - 1);
+            if (id >= 0) {
+                free.clear(id);
+                freeCount--;
+                awayCount++;
+            } else {
+                id = offShift.previousClearBit(size - 1);
+                leaving.set(id);
+            }
+            offShift.set(id);
+            offShiftCount++;
+        }
+    }
+
+    public boolean isChanged(int id) {
+        return changed.get(id);
+    }
+
+    // Lowest changed id that is >= fromId, or -1 if there is none
+    public int nextChanged(int fromId) {
+        return changed.nextSetBit(fromId);
+    }
+
+    // Snapshots are taken between minutes, when no change is pending
+    void saveState(SnapshotWriter out) throws IOException {
+        saveBits(out, free);
+        saveBits(out, offShift);
+        saveBits(out, leaving);
+    }
+
+    private static void saveBits(SnapshotWriter out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        out.writeLongs(words, words.length);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        restoreBits(in, free);
+        restoreBits(in, offShift);
+        restoreBits(in, leaving);
+        freeCount = free.cardinality();
+        offShiftCount = offShift.cardinality();
+        awayCount = offShiftCount - leaving.cardinality();
+        changed.clear();
+        touched.clear();
+    }
+
+    private static void restoreBits(SnapshotReader in, BitSet bits) throws IOException {
+        long[] words = new long[in.readCount()];
+        in.readLongs(words, words.length);
+        bits.clear();
+        bits.or(BitSet.valueOf(words));
+    }
+
+    public void clearChanged() {
+        changed.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// Stores take turns, whatever their load
+public class RoundRobinRouter implements OrderRouter {
+    private int next;
+
+    @Override
+    public int route(int pizzas, long[] outstanding, List<SchedulerConfig> stores) {
+        int store = next;
+        next = (next + 1) % stores.size();
+        return store;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// Chefs take turns on orders by priority, giving an order back to the queue
+// when their quantum runs out
+public class RoundRobinStrategy implements ChefStrategy {
+    private final int quantum;
+
+    public RoundRobinStrategy(int quantum) {
+        this.quantum = quantum;
+    }
+
+    @Override
+    public String getName() {
+        return "RR";
+    }
+
+    @Override
+    public boolean usesQuantum() {
+        return true;
+    }
+
+    @Override
+    public int maxChefsPerOrder(int chefs, int pizzas) {
+        return Math.min(chefs, pizzas);
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        return Integer.compare(store.getPriority(a), store.getPriority(b));
+    }
+
+    // Each free chef gets the highest priority order available. Assigning an
+    // order takes it out of the queue, so keep handing it out until enough
+    // chefs are on it and only then move to the next one.
+    @Override
+    public void assign(OrderQueue queue, List<Chef> chefs, ResourcePool freeChefs, OrderStore store) {
+        int highestPriorityOrder = queue.peek();
+        for (int id = freeChefs.nextFree(0); id >= 0 && highestPriorityOrder != OrderStore.NONE;
+             id = freeChefs.nextFree(id + 1)) {
+            Chef chef = chefs.get(id);
+            chef.setRemainingQuantum(quantum);
+            chef.assignOrder(highestPriorityOrder);
+            // The order counts its own chefs, so orders from the same
+            // customer don't share a count
+            if (store.getChefs(highestPriorityOrder) >= store.getNumPizzas(highestPriorityOrder)) {
+                highestPriorityOrder = queue.peek();
+            }
+        }
+    }
+}
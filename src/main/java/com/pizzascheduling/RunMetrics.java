@@ -0,0 +1,248 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Always-on run instrumentation. Each state change records how long the
+// order spent in the state it left, keyed by state and by priority; each
+// delivery records the order's total latency. Both cost one histogram
+// increment, so nothing is done per minute. Resources count their own busy
+// minutes. export() writes the histograms and utilization as JSON or CSV.
+// Each resource's idle minutes include any it spent off shift; the staffing
+// rows give each kind's utilization over its resource-minutes on shift.
+public class RunMetrics {
+    private static final Order.State[] STATES = Order.State.values();
+    private static final String TOTAL = "TOTAL";
+    private static final String[] KINDS = {"Chefs", "Ovens", "Drivers"};
+
+    // One histogram per state, plus end-to-end latency in the last slot
+    private final LatencyHistogram[] byState = newHistograms();
+    private final Map<Integer, LatencyHistogram[]> byPriority = new TreeMap<>();
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[STATES.length + 1];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private LatencyHistogram[] forPriority(int priority) {
+        LatencyHistogram[] histograms = byPriority.get(priority);
+        if (histograms == null) {
+            histograms = newHistograms();
+            byPriority.put(priority, histograms);
+        }
+        return histograms;
+    }
+
+    public void admitted(OrderStore store, int order, int minute) {
+        store.setStateSince(order, minute);
+    }
+
+    public void stateChanged(OrderStore store, int order, Order.State from, int minute) {
+        int minutes = minute - store.getStateSince(order);
+        byState[from.ordinal()].record(minutes);
+        forPriority(store.getPriority(order))[from.ordinal()].record(minutes);
+        store.setStateSince(order, minute);
+    }
+
+    // Latency counts the arrival and delivery minutes, like RunSummary
+    public void delivered(OrderStore store, int order, int minute) {
+        int latency = minute - store.getArrivalMinute(order) + 1;
+        byState[STATES.length].record(latency);
+        forPriority(store.getPriority(order))[STATES.length].record(latency);
+    }
+
+    void saveState(SnapshotWriter out) throws IOException {
+        for (LatencyHistogram histogram : byState) {
+            histogram.saveState(out);
+        }
+        out.writeInt(byPriority.size());
+        for (Map.Entry<Integer, LatencyHistogram[]> entry : byPriority.entrySet()) {
+            out.writeInt(entry.getKey());
+            for (LatencyHistogram histogram : entry.getValue()) {
+                histogram.saveState(out);
+            }
+        }
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        for (LatencyHistogram histogram : byState) {
+            histogram.restoreState(in);
+        }
+        byPriority.clear();
+        int priorities = in.readCount();
+        for (int i = 0; i < priorities; i++) {
+            for (LatencyHistogram histogram : forPriority(in.readInt())) {
+                histogram.restoreState(in);
+            }
+        }
+    }
+
+    // Time spent in the state, over all orders
+    public LatencyHistogram getStateHistogram(Order.State state) {
+        return byState[state.ordinal()];
+    }
+
+    // Arrival to delivery, over all orders
+    public LatencyHistogram getLatencyHistogram() {
+        return byState[STATES.length];
+    }
+
+    // Arrival to delivery for one priority, null if no order had it
+    public LatencyHistogram getLatencyHistogram(int priority) {
+        LatencyHistogram[] histograms = byPriority.get(priority);
+        return histograms == null ? null : histograms[STATES.length];
+    }
+
+    private static String stageName(int stage) {
+        return stage == STATES.length ? TOTAL : STATES[stage].name();
+    }
+
+    // format is JSON or CSV; minutes is the length of the run, and the
+    // resource-minutes are each kind's minutes on shift
+    public void export(String path, String format, int minutes, List<Chef> chefs,
+                       List<Oven> ovens, List<Driver> drivers,
+                       long chefMinutes, long ovenMinutes, long driverMinutes) throws IOException {
+        long[] staffed = {chefMinutes, ovenMinutes, driverMinutes};
+        try (Writer out = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            if (format.equals("CSV")) {
+                writeCsv(out, minutes, chefs, ovens, drivers, staffed);
+            } else {
+                writeJson(out, minutes, chefs, ovens, drivers, staffed);
+            }
+        }
+    }
+
+    private static long[] busyByKind(List<Chef> chefs, List<Oven> ovens, List<Driver> drivers) {
+        long[] busy = new long[KINDS.length];
+        for (Chef chef : chefs) {
+            busy[0] += chef.getBusyMinutes();
+        }
+        for (Oven oven : ovens) {
+            busy[1] += oven.getBusyMinutes();
+        }
+        for (Driver driver : drivers) {
+            busy[2] += driver.getBusyMinutes();
+        }
+        return busy;
+    }
+
+    private void writeCsv(Writer out, int minutes, List<Chef> chefs, List<Oven> ovens,
+                          List<Driver> drivers, long[] staffed) throws IOException {
+        out.write("priority,stage,count,mean,p50,p95,p99,max\n");
+        for (int stage = 0; stage <= STATES.length; stage++) {
+            csvRow(out, "ALL", stage, byState[stage]);
+        }
+        for (Map.Entry<Integer, LatencyHistogram[]> entry : byPriority.entrySet()) {
+            for (int stage = 0; stage <= STATES.length; stage++) {
+                csvRow(out, entry.getKey().toString(), stage, entry.getValue()[stage]);
+            }
+        }
+        out.write("\nresource,busy,idle,utilization\n");
+        for (Chef chef : chefs) {
+            csvResource(out, "Chef" + chef.getId(), chef.getBusyMinutes(), minutes);
+        }
+        for (int i = 0; i < ovens.size(); i++) {
+            csvResource(out, "Oven" + i, ovens.get(i).getBusyMinutes(), minutes);
+        }
+        for (int i = 0; i < drivers.size(); i++) {
+            csvResource(out, "Driver" + i, drivers.get(i).getBusyMinutes(), minutes);
+        }
+        out.write("\nstaffing,resourceMinutes,busy,utilization\n");
+        long[] busy = busyByKind(chefs, ovens, drivers);
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            out.write(KINDS[kind] + "," + staffed[kind] + "," + busy[kind] + "," +
+                utilization(busy[kind], staffed[kind]) + "\n");
+        }
+    }
+
+    private static void csvRow(Writer out, String priority, int stage, LatencyHistogram histogram)
+            throws IOException {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        out.write(priority + "," + stageName(stage) + "," + histogram.getCount() + "," +
+            String.format(Locale.ROOT, "%.2f", histogram.getMean()) + "," + histogram.percentile(50) + "," +
+            histogram.percentile(95) + "," + histogram.percentile(99) + "," + histogram.getMax() + "\n");
+    }
+
+    private static void csvResource(Writer out, String name, long busy, int minutes) throws IOException {
+        out.write(name + "," + busy + "," + (minutes - busy) + "," + utilization(busy, minutes) + "\n");
+    }
+
+    private void writeJson(Writer out, int minutes, List<Chef> chefs, List<Oven> ovens,
+                           List<Driver> drivers, long[] staffed) throws IOException {
+        out.write("{\n  \"minutes\": " + minutes + ",\n  \"stages\": ");
+        jsonStages(out, byState, "  ");
+        out.write(",\n  \"priorities\": [");
+        boolean first = true;
+        for (Map.Entry<Integer, LatencyHistogram[]> entry : byPriority.entrySet()) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("    {\"priority\": " + entry.getKey() + ", \"stages\": ");
+            jsonStages(out, entry.getValue(), "    ");
+            out.write("}");
+        }
+        out.write("\n  ],\n  \"resources\": [");
+        first = true;
+        for (Chef chef : chefs) {
+            jsonResource(out, first, "Chef" + chef.getId(), chef.getBusyMinutes(), minutes);
+            first = false;
+        }
+        for (int i = 0; i < ovens.size(); i++) {
+            jsonResource(out, first, "Oven" + i, ovens.get(i).getBusyMinutes(), minutes);
+            first = false;
+        }
+        for (int i = 0; i < drivers.size(); i++) {
+            jsonResource(out, first, "Driver" + i, drivers.get(i).getBusyMinutes(), minutes);
+            first = false;
+        }
+        out.write("\n  ],\n  \"staffing\": [");
+        long[] busy = busyByKind(chefs, ovens, drivers);
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            out.write(kind == 0 ? "\n" : ",\n");
+            out.write("    {\"kind\": \"" + KINDS[kind] + "\", \"resourceMinutes\": " + staffed[kind] +
+                ", \"busy\": " + busy[kind] + ", \"utilization\": " + utilization(busy[kind], staffed[kind]) + "}");
+        }
+        out.write("\n  ]\n}\n");
+    }
+
+    private static void jsonStages(Writer out, LatencyHistogram[] histograms, String indent)
+            throws IOException {
+        out.write("{");
+        boolean first = true;
+        for (int stage = 0; stage < histograms.length; stage++) {
+            LatencyHistogram histogram = histograms[stage];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write(indent + "  \"" + stageName(stage) + "\": {\"count\": " + histogram.getCount() +
+                ", \"mean\": " + String.format(Locale.ROOT, "%.2f", histogram.getMean()) +
+                ", \"p50\": " + histogram.percentile(50) + ", \"p95\": " + histogram.percentile(95) +
+                ", \"p99\": " + histogram.percentile(99) + ", \"max\": " + histogram.getMax() + "}");
+        }
+        out.write("\n" + indent + "}");
+    }
+
+    private static void jsonResource(Writer out, boolean first, String name, long busy, int minutes)
+            throws IOException {
+        out.write(first ? "\n" : ",\n");
+        out.write("    {\"resource\": \"" + name + "\", \"busy\": " + busy + ", \"idle\": " + (minutes - busy) +
+            ", \"utilization\": " + utilization(busy, minutes) + "}");
+    }
+
+    private static String utilization(long busy, long minutes) {
+        return String.format(Locale.ROOT, "%.4f", minutes == 0 ? 0.0 : (double) busy / minutes);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pizzascheduling;
+
+// Outcome of one simulation run. Delivery latency is counted from the
+// order's arrival minute to its delivery minute, both included, so for
+// orders that arrive in minute 1 it equals the delivery minute. The p99 comes
+// from a LatencyHistogram, so above 64 minutes it is within about 3%.
+public class RunSummary {
+    private final int minutes;
+    private final int orders;
+    private final long pizzas;
+    private final int delivered;
+    private final double meanLatency;
+    private final int p99Latency;
+    private final long driverRuns;
+    private final long driverBusyMinutes;
+    private final long chefMinutes;
+    private final long ovenMinutes;
+    private final long driverMinutes;
+
+    public RunSummary(int minutes, int orders, long pizzas, LatencyHistogram latencies,
+                      long driverRuns, long driverBusyMinutes,
+                      long chefMinutes, long ovenMinutes, long driverMinutes) {
+        this.minutes = minutes;
+        this.orders = orders;
+        this.pizzas = pizzas;
+        this.delivered = (int) latencies.getCount();
+        this.meanLatency = latencies.getMean();
+        this.p99Latency = latencies.percentile(99);
+        this.driverRuns = driverRuns;
+        this.driverBusyMinutes = driverBusyMinutes;
+        this.chefMinutes = chefMinutes;
+        this.ovenMinutes = ovenMinutes;
+        this.driverMinutes = driverMinutes;
+    }
+
+    // Minutes until the last order was delivered
+    public int getMinutes() {
+        return minutes;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public long getPizzas() {
+        return pizzas;
+    }
+
+    public int getDelivered() {
+        return delivered;
+    }
+
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    public int getP99Latency() {
+        return p99Latency;
+    }
+
+    // Trips the drivers made; with batching one trip can deliver several orders
+    public long getDriverRuns() {
+        return driverRuns;
+    }
+
+    public long getDriverBusyMinutes() {
+        return driverBusyMinutes;
+    }
+
+    // Driver throughput: orders delivered per hour of driver time in use
+    public double getDeliveriesPerDriverHour() {
+        return driverBusyMinutes == 0 ? 0.0 : delivered * 60.0 / driverBusyMinutes;
+    }
+
+    // Resource-minutes: each minute counts every resource on shift, or off
+    // shift but still finishing its work
+    public long getChefMinutes() {
+        return chefMinutes;
+    }
+
+    public long getOvenMinutes() {
+        return ovenMinutes;
+    }
+
+    public long getDriverMinutes() {
+        return driverMinutes;
+    }
+
+    // Staff throughput: orders delivered per hour of chef and driver time on shift
+    public double getDeliveriesPerStaffHour() {
+        long staffMinutes = chefMinutes + driverMinutes;
+        return staffMinutes == 0 ? 0.0 : delivered * 60.0 / staffMinutes;
+    }
+}
@@ -0,0 +1,579 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+// Settings for one simulation run. Parsed from the command line by parse(),
+// checked by validate() when a PizzaScheduler is built from it. Configs are
+// plain values: copy() one to vary it without touching the original.
+public class SchedulerConfig {
+    private int availableChefs;
+    private int availableOvens;
+    private int availableDrivers;
+    private int bakeTime;
+    private int ovenSlots = 1;  // Pizzas each oven bakes at once
+    private String bakeUnit = "ORDER";  // What a single-slot oven bakes: a whole ORDER or one PIZZA
+    private int driverBatch = 1;  // Orders each driver can take per run
+    private int driverBatchWait;  // Minutes a run waits for more ready orders
+    private int driverMaxDelivery;  // Bound on any order's delivery within a run, 0 for none
+    private int driverStopTime = 2;  // Minutes each earlier stop adds to a delivery
+    private int chefTime;
+    private String chefStrategy;
+    private int chefQuantum;
+    private String inputFile;
+    private String engine = "TICK";
+    private int threads = 1;  // Threads that share each minute's resource work
+    private String trace = "FULL";
+    private int reorderWindow = 1024;
+    private String archiveFile;
+    private long generateOrders;  // Synthetic orders to run instead of an input file
+    private long seed = 1;
+    private int ordersPerDay = 2000;
+    private String metricsFile;  // Where to export RunMetrics, none if null
+    private String metricsFormat = "JSON";
+    private String snapshotFile;  // Where to save snapshots; "{minute}" is replaced by the minute
+    private int snapshotInterval;  // Minutes between snapshots, 0 for none
+    private String resumeFile;  // Snapshot to continue from, none if null
+    private String etaReportFile;  // Where to report delivery estimate accuracy, none if null
+    private String chefTimeDistribution = "FIXED";  // See DurationSampler
+    private String bakeTimeDistribution = "FIXED";
+    private String deliveryTimeDistribution = "FIXED";
+    private String chefShifts;  // "from-to:count" ranges, see ShiftSchedule; none if null
+    private String driverShifts;
+    private int shiftPeriod;  // Minutes after which the shifts repeat, 0 for never
+    private String autoscale = "NONE";  // Load the autoscaler follows: NONE, QUEUE or WAIT
+    private int autoscaleInterval = 10;
+    private double scaleUpAt;
+    private double scaleDownAt;
+    private int maxChefs;  // Most chefs the autoscaler puts on shift, 0 to not scale chefs
+    private int maxDrivers;
+
+    // Prompt used: "Generate a function to parse
+    // command line arguments for a Java program
+    // that handles both --key=value and --key
+    // value formats for the following parameters:
+    // input-file, available-chefs, available-ovens,
+    // available-drivers, bake-time,
+    // chef-time, chef-strategy, and chef-quantum"
+    public static SchedulerConfig parse(String[] args) {
+        SchedulerConfig config = new SchedulerConfig();
+        forEachArgument(args, (arg, value) -> {
+            if (!config.set(arg, value)) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        });
+        return config;
+    }
+
+    // Hands each --key=value or --key value pair on the command line to
+    // `handler`, in order. Every entry point reads its arguments this way.
+    static void forEachArgument(String[] args, BiConsumer<String, String> handler) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value;
+
+            if (arg.contains("=")) {
+                // Handle --key=value format
+                String[] parts = arg.split("=", 2);
+                arg = parts[0];
+                value = parts[1];
+            } else {
+                // Handle --key value format
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for argument: " + arg);
+                }
+                value = args[++i];
+            }
+            handler.accept(arg, value);
+        }
+    }
+
+    // Applies one --key value pair; false if the key is not a scheduler option
+    public boolean set(String arg, String value) {
+        switch (arg) {
+            case "--input-file":
+                inputFile = value;
+                break;
+            case "--available-chefs":
+                availableChefs = Integer.parseInt(value);
+                break;
+            case "--available-ovens":
+                availableOvens = Integer.parseInt(value);
+                break;
+            case "--available-drivers":
+                availableDrivers = Integer.parseInt(value);
+                break;
+            case "--bake-time":
+                bakeTime = Integer.parseInt(value);
+                break;
+            case "--oven-slots":
+                ovenSlots = Integer.parseInt(value);
+                break;
+            case "--bake-unit":
+                bakeUnit = value;
+                break;
+            case "--driver-batch":
+                driverBatch = Integer.parseInt(value);
+                break;
+            case "--driver-batch-wait":
+                driverBatchWait = Integer.parseInt(value);
+                break;
+            case "--driver-max-delivery":
+                driverMaxDelivery = Integer.parseInt(value);
+                break;
+            case "--driver-stop-time":
+                driverStopTime = Integer.parseInt(value);
+                break;
+            case "--chef-time":
+                chefTime = Integer.parseInt(value);
+                break;
+            case "--chef-strategy":
+                chefStrategy = value;
+                break;
+            case "--chef-quantum":
+                chefQuantum = Integer.parseInt(value);
+                break;
+            case "--engine":
+                engine = value;
+                break;
+            case "--threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "--trace":
+                trace = value;
+                break;
+            case "--reorder-window":
+                reorderWindow = Integer.parseInt(value);
+                break;
+            case "--archive-file":
+                archiveFile = value;
+                break;
+            case "--generate-orders":
+                generateOrders = Long.parseLong(value);
+                break;
+            case "--seed":
+                seed = Long.parseLong(value);
+                break;
+            case "--orders-per-day":
+                ordersPerDay = Integer.parseInt(value);
+                break;
+            case "--metrics-file":
+                metricsFile = value;
+                break;
+            case "--metrics-format":
+                metricsFormat = value;
+                break;
+            case "--snapshot-file":
+                snapshotFile = value;
+                break;
+            case "--snapshot-interval":
+                snapshotInterval = Integer.parseInt(value);
+                break;
+            case "--resume-from":
+                resumeFile = value;
+                break;
+            case "--eta-report":
+                etaReportFile = value;
+                break;
+            case "--chef-time-dist":
+                chefTimeDistribution = value;
+                break;
+            case "--bake-time-dist":
+                bakeTimeDistribution = value;
+                break;
+            case "--delivery-time-dist":
+                deliveryTimeDistribution = value;
+                break;
+            case "--chef-shifts":
+                chefShifts = value;
+                break;
+            case "--driver-shifts":
+                driverShifts = value;
+                break;
+            case "--shift-period":
+                shiftPeriod = Integer.parseInt(value);
+                break;
+            case "--autoscale":
+                autoscale = value;
+                break;
+            case "--autoscale-interval":
+                autoscaleInterval = Integer.parseInt(value);
+                break;
+            case "--scale-up-at":
+                scaleUpAt = Double.parseDouble(value);
+                break;
+            case "--scale-down-at":
+                scaleDownAt = Double.parseDouble(value);
+                break;
+            case "--max-chefs":
+                maxChefs = Integer.parseInt(value);
+                break;
+            case "--max-drivers":
+                maxDrivers = Integer.parseInt(value);
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    // Checks everything except the order input, which preloaded runs don't need
+    public void validateSettings() {
+        if (availableChefs <= 0 || availableOvens <= 0 ||
+            availableDrivers <= 0 || bakeTime <= 0 || chefTime <= 0) {
+            throw new IllegalArgumentException("Missing or invalid required arguments");
+        }
+        if (ovenSlots <= 0) {
+            throw new IllegalArgumentException("Oven slots must be positive");
+        }
+        if (!bakeUnit.equals("ORDER") && !bakeUnit.equals("PIZZA")) {
+            throw new IllegalArgumentException("Bake unit must be either ORDER or PIZZA");
+        }
+        if (driverBatch <= 0) {
+            throw new IllegalArgumentException("Driver batch size must be positive");
+        }
+        if (driverBatchWait < 0 || driverMaxDelivery < 0 || driverStopTime < 0) {
+            throw new IllegalArgumentException("Driver batch wait, max delivery and stop time must not be negative");
+        }
+        if (chefStrategy == null || !ChefStrategy.isValidName(chefStrategy)) {
+            throw new IllegalArgumentException("Chef strategy must be one of FOCUSED, RR, SJF, SRTF, EDF or MLFQ");
+        }
+        if (ChefStrategy.usesQuantum(chefStrategy) && chefQuantum <= 0) {
+            throw new IllegalArgumentException("Chef quantum must be positive for " + chefStrategy + " strategy");
+        }
+        if (!engine.equals("TICK") && !engine.equals("EVENT")) {
+            throw new IllegalArgumentException("Engine must be either TICK or EVENT");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        if (reorderWindow <= 0) {
+            throw new IllegalArgumentException("Reorder window must be positive");
+        }
+        if (!TraceWriter.isValidMode(trace)) {
+            throw new IllegalArgumentException("Trace must be one of FULL, CHANGES, SUMMARY, BINARY or NONE");
+        }
+        if (!metricsFormat.equals("JSON") && !metricsFormat.equals("CSV")) {
+            throw new IllegalArgumentException("Metrics format must be either JSON or CSV");
+        }
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative");
+        }
+        if ((snapshotFile == null) != (snapshotInterval == 0)) {
+            throw new IllegalArgumentException("Use --snapshot-file and --snapshot-interval together");
+        }
+        DurationSampler.validate(chefTimeDistribution);
+        DurationSampler.validate(bakeTimeDistribution);
+        DurationSampler.validate(deliveryTimeDistribution);
+        validateStaffing();
+    }
+
+    private void validateStaffing() {
+        if (shiftPeriod < 0) {
+            throw new IllegalArgumentException("Shift period must not be negative");
+        }
+        if (shiftPeriod > 0 && chefShifts == null && driverShifts == null) {
+            throw new IllegalArgumentException("Use --shift-period with --chef-shifts or --driver-shifts");
+        }
+        ShiftSchedule chefSchedule = Staffing.schedule(chefShifts, availableChefs, shiftPeriod);
+        ShiftSchedule driverSchedule = Staffing.schedule(driverShifts, availableDrivers, shiftPeriod);
+        if (!Staffing.isValidAutoscale(autoscale)) {
+            throw new IllegalArgumentException("Autoscale must be one of NONE, QUEUE or WAIT");
+        }
+        if (maxChefs < 0 || maxDrivers < 0) {
+            throw new IllegalArgumentException("Max chefs and drivers must not be negative");
+        }
+        if (autoscale.equals("NONE")) {
+            if (maxChefs > 0 || maxDrivers > 0) {
+                throw new IllegalArgumentException("Use --max-chefs and --max-drivers with --autoscale");
+            }
+            return;
+        }
+        if (autoscaleInterval <= 0) {
+            throw new IllegalArgumentException("Autoscale interval must be positive");
+        }
+        if (maxChefs == 0 && maxDrivers == 0) {
+            throw new IllegalArgumentException("Autoscaling needs --max-chefs, --max-drivers or both");
+        }
+        if ((maxChefs > 0 && maxChefs < chefSchedule.getMaxCount()) ||
+            (maxDrivers > 0 && maxDrivers < driverSchedule.getMaxCount())) {
+            throw new IllegalArgumentException("Max chefs and drivers must be at least the most on any shift");
+        }
+        if (scaleDownAt < 0 || !(scaleUpAt > scaleDownAt)) {
+            throw new IllegalArgumentException("Scale-up threshold must be above the scale-down threshold");
+        }
+    }
+
+    public void validate() {
+        validateInput();
+        validateSettings();
+    }
+
+    public void validateInput() {
+        if (inputFile == null && generateOrders <= 0) {
+            throw new IllegalArgumentException("Missing or invalid required arguments");
+        }
+        if (inputFile != null && generateOrders > 0) {
+            throw new IllegalArgumentException("Use either --input-file or --generate-orders, not both");
+        }
+        if (ordersPerDay <= 0) {
+            throw new IllegalArgumentException("Orders per day must be positive");
+        }
+    }
+
+    // The configured order input: the input file, or a generated stream
+    public OrderInput openInput() throws IOException {
+        if (generateOrders > 0) {
+            return new OrderReader(new WorkloadGenerator(generateOrders, seed, ordersPerDay).channel());
+        }
+        return OrderReader.open(inputFile);
+    }
+
+    public SchedulerConfig copy() {
+        SchedulerConfig copy = new SchedulerConfig();
+        copy.availableChefs = availableChefs;
+        copy.availableOvens = availableOvens;
+        copy.availableDrivers = availableDrivers;
+        copy.bakeTime = bakeTime;
+        copy.ovenSlots = ovenSlots;
+        copy.bakeUnit = bakeUnit;
+        copy.driverBatch = driverBatch;
+        copy.driverBatchWait = driverBatchWait;
+        copy.driverMaxDelivery = driverMaxDelivery;
+        copy.driverStopTime = driverStopTime;
+        copy.chefTime = chefTime;
+        copy.chefStrategy = chefStrategy;
+        copy.chefQuantum = chefQuantum;
+        copy.inputFile = inputFile;
+        copy.engine = engine;
+        copy.threads = threads;
+        copy.trace = trace;
+        copy.reorderWindow = reorderWindow;
+        copy.archiveFile = archiveFile;
+        copy.generateOrders = generateOrders;
+        copy.seed = seed;
+        copy.ordersPerDay = ordersPerDay;
+        copy.metricsFile = metricsFile;
+        copy.metricsFormat = metricsFormat;
+        copy.snapshotFile = snapshotFile;
+        copy.snapshotInterval = snapshotInterval;
+        copy.resumeFile = resumeFile;
+        copy.etaReportFile = etaReportFile;
+        copy.chefTimeDistribution = chefTimeDistribution;
+        copy.bakeTimeDistribution = bakeTimeDistribution;
+        copy.deliveryTimeDistribution = deliveryTimeDistribution;
+        copy.chefShifts = chefShifts;
+        copy.driverShifts = driverShifts;
+        copy.shiftPeriod = shiftPeriod;
+        copy.autoscale = autoscale;
+        copy.autoscaleInterval = autoscaleInterval;
+        copy.scaleUpAt = scaleUpAt;
+        copy.scaleDownAt = scaleDownAt;
+        copy.maxChefs = maxChefs;
+        copy.maxDrivers = maxDrivers;
+        return copy;
+    }
+
+    public int getAvailableChefs() {
+        return availableChefs;
+    }
+
+    public void setAvailableChefs(int availableChefs) {
+        this.availableChefs = availableChefs;
+    }
+
+    public int getAvailableOvens() {
+        return availableOvens;
+    }
+
+    public void setAvailableOvens(int availableOvens) {
+        this.availableOvens = availableOvens;
+    }
+
+    public int getAvailableDrivers() {
+        return availableDrivers;
+    }
+
+    public void setAvailableDrivers(int availableDrivers) {
+        this.availableDrivers = availableDrivers;
+    }
+
+    public int getBakeTime() {
+        return bakeTime;
+    }
+
+    public int getOvenSlots() {
+        return ovenSlots;
+    }
+
+    public String getBakeUnit() {
+        return bakeUnit;
+    }
+
+    public int getDriverBatch() {
+        return driverBatch;
+    }
+
+    public void setDriverBatch(int driverBatch) {
+        this.driverBatch = driverBatch;
+    }
+
+    public int getDriverBatchWait() {
+        return driverBatchWait;
+    }
+
+    public int getDriverMaxDelivery() {
+        return driverMaxDelivery;
+    }
+
+    public int getDriverStopTime() {
+        return driverStopTime;
+    }
+
+    public int getChefTime() {
+        return chefTime;
+    }
+
+    public String getChefStrategy() {
+        return chefStrategy;
+    }
+
+    public void setChefStrategy(String chefStrategy) {
+        this.chefStrategy = chefStrategy;
+    }
+
+    public int getChefQuantum() {
+        return chefQuantum;
+    }
+
+    public void setChefQuantum(int chefQuantum) {
+        this.chefQuantum = chefQuantum;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public String getTrace() {
+        return trace;
+    }
+
+    public void setTrace(String trace) {
+        this.trace = trace;
+    }
+
+    public int getReorderWindow() {
+        return reorderWindow;
+    }
+
+    public String getArchiveFile() {
+        return archiveFile;
+    }
+
+    public void setArchiveFile(String archiveFile) {
+        this.archiveFile = archiveFile;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public String getMetricsFormat() {
+        return metricsFormat;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public String getResumeFile() {
+        return resumeFile;
+    }
+
+    public String getEtaReportFile() {
+        return etaReportFile;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public String getChefTimeDistribution() {
+        return chefTimeDistribution;
+    }
+
+    public String getBakeTimeDistribution() {
+        return bakeTimeDistribution;
+    }
+
+    public String getDeliveryTimeDistribution() {
+        return deliveryTimeDistribution;
+    }
+
+    // True if any duration is drawn from a distribution
+    public boolean isStochastic() {
+        return !DurationSampler.isFixed(chefTimeDistribution) || !DurationSampler.isFixed(bakeTimeDistribution) ||
+               !DurationSampler.isFixed(deliveryTimeDistribution);
+    }
+
+    public String getChefShifts() {
+        return chefShifts;
+    }
+
+    public String getDriverShifts() {
+        return driverShifts;
+    }
+
+    public int getShiftPeriod() {
+        return shiftPeriod;
+    }
+
+    public String getAutoscale() {
+        return autoscale;
+    }
+
+    public int getAutoscaleInterval() {
+        return autoscaleInterval;
+    }
+
+    public double getScaleUpAt() {
+        return scaleUpAt;
+    }
+
+    public double getScaleDownAt() {
+        return scaleDownAt;
+    }
+
+    public int getMaxChefs() {
+        return maxChefs;
+    }
+
+    public int getMaxDrivers() {
+        return maxDrivers;
+    }
+
+    // True if chefs or drivers go on and off shift during the run
+    public boolean hasDynamicStaffing() {
+        return chefShifts != null || driverShifts != null || !autoscale.equals("NONE");
+    }
+}
@@ -0,0 +1,130 @@
+package com.pizzascheduling;
+
+import java.util.Arrays;
+
+// How many resources of one kind are on shift in each minute, from a list
+// of "from-to:count" ranges such as "1-360:2,361-720:6" (both minutes
+// included). Minutes no range covers get the default count, the
+// --available-* setting. With a period the ranges repeat every `period`
+// minutes, so a day of 1440 minutes describes every day of a longer run.
+class ShiftSchedule {
+    private final int[] from;  // Ranges by start minute
+    private final int[] to;
+    private final int[] count;
+    private final int defaultCount;
+    private final int period;  // 0 to not repeat
+
+    private ShiftSchedule(int[] from, int[] to, int[] count, int defaultCount, int period) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+        this.defaultCount = defaultCount;
+        this.period = period;
+    }
+
+    // Every minute gets the default count
+    static ShiftSchedule fixed(int defaultCount) {
+        return new ShiftSchedule(new int[0], new int[0], new int[0], defaultCount, 0);
+    }
+
+    // Throws if a range is malformed, overlaps another or falls outside the period
+    static ShiftSchedule parse(String ranges, int defaultCount, int period) {
+        String[] parts = ranges.split(",");
+        int[][] parsed = new int[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int dash = part.indexOf('-');
+            int colon = part.indexOf(':');
+            if (dash <= 0 || colon < dash) {
+                throw new IllegalArgumentException("Invalid shift range: " + part);
+            }
+            try {
+                parsed[i] = new int[] {
+                    Integer.parseInt(part.substring(0, dash)),
+                    Integer.parseInt(part.substring(dash + 1, colon)),
+                    Integer.parseInt(part.substring(colon + 1))
+                };
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid shift range: " + part);
+            }
+            int[] range = parsed[i];
+            if (range[0] < 1 || range[1] < range[0] || range[2] < 0) {
+                throw new IllegalArgumentException("Invalid shift range: " + part);
+            }
+            if (period > 0 && range[1] > period) {
+                throw new IllegalArgumentException("Shift range " + part + " goes past the shift period");
+            }
+        }
+        Arrays.sort(parsed, (a, b) -> Integer.compare(a[0], b[0]));
+        int[] from = new int[parsed.length];
+        int[] to = new int[parsed.length];
+        int[] count = new int[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            if (i > 0 && parsed[i][0] <= to[i - 1]) {
+                throw new IllegalArgumentException("Shift ranges overlap at minute " + parsed[i][0]);
+            }
+            from[i] = parsed[i][0];
+            to[i] = parsed[i][1];
+            count[i] = parsed[i][2];
+        }
+        ShiftSchedule schedule = new ShiftSchedule(from, to, count, defaultCount, period);
+        if (period > 0 && schedule.isAlwaysEmpty()) {
+            throw new IllegalArgumentException("Shifts " + ranges + " never put anyone on shift");
+        }
+        return schedule;
+    }
+
+    // True if a repeating schedule covers its whole period with zero counts
+    private boolean isAlwaysEmpty() {
+        int covered = 0;
+        for (int i = 0; i < from.length; i++) {
+            if (count[i] > 0) {
+                return false;
+            }
+            covered += to[i] - from[i] + 1;
+        }
+        return covered == period;
+    }
+
+    // Minute within the period, or the minute itself without one
+    private int position(int minute) {
+        return period > 0 ? (minute - 1) % period + 1 : minute;
+    }
+
+    int countAt(int minute) {
+        int position = position(minute);
+        int i = Arrays.binarySearch(from, position);
+        if (i < 0) {
+            i = -i - 2;  // Last range starting before the position
+        }
+        return i >= 0 && position <= to[i] ? count[i] : defaultCount;
+    }
+
+    // Most resources on shift in any minute
+    int getMaxCount() {
+        int max = defaultCount;
+        for (int c : count) {
+            max = Math.max(max, c);
+        }
+        return max;
+    }
+
+    // The first minute after `minute` whose count may differ from this one's,
+    // or Integer.MAX_VALUE if there is none
+    int nextChange(int minute) {
+        int position = position(minute);
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] > position) {
+                next = Math.min(next, from[i]);
+            }
+            if (to[i] + 1 > position) {
+                next = Math.min(next, to[i] + 1);
+            }
+        }
+        if (period > 0 && from.length > 0) {
+            next = Math.min(next, period + 1L);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, next == Long.MAX_VALUE ? next : minute + next - position);
+    }
+}
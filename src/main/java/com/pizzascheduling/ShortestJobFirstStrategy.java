@@ -0,0 +1,19 @@
+package com.pizzascheduling;
+
+// The order with the least chef work left goes first and keeps its chef
+// until it is ready
+public class ShortestJobFirstStrategy extends SingleChefStrategy {
+    public ShortestJobFirstStrategy() {
+        super(false);
+    }
+
+    @Override
+    public String getName() {
+        return "SJF";
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        return Integer.compare(store.getRemainingPrepWork(a), store.getRemainingPrepWork(b));
+    }
+}
@@ -0,0 +1,19 @@
+package com.pizzascheduling;
+
+// Preemptive shortest job first: a waiting order with less chef work left
+// than a busy chef's order takes that chef over
+public class ShortestRemainingTimeStrategy extends SingleChefStrategy {
+    public ShortestRemainingTimeStrategy() {
+        super(true);
+    }
+
+    @Override
+    public String getName() {
+        return "SRTF";
+    }
+
+    @Override
+    public int compare(OrderStore store, int a, int b) {
+        return Integer.compare(store.getRemainingPrepWork(a), store.getRemainingPrepWork(b));
+    }
+}
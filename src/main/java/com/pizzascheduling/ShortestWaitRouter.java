@@ -0,0 +1,30 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// The store predicted to get the order out of its ovens first. The
+// prediction is deliberately rough: the chefs work through the outstanding
+// pizzas and this order's at chef-time each, then the order's pizzas bake
+// in rounds of one per oven slot.
+public class ShortestWaitRouter implements OrderRouter {
+    @Override
+    public int route(int pizzas, long[] outstanding, List<SchedulerConfig> stores) {
+        int best = 0;
+        double bestWait = Double.MAX_VALUE;
+        for (int s = 0; s < stores.size(); s++) {
+            double wait = predictedWait(pizzas, outstanding[s], stores.get(s));
+            if (wait < bestWait) {
+                best = s;
+                bestWait = wait;
+            }
+        }
+        return best;
+    }
+
+    static double predictedWait(int pizzas, long outstanding, SchedulerConfig store) {
+        double prep = (double) (outstanding + pizzas) * store.getChefTime() / store.getAvailableChefs();
+        int slots = store.getAvailableOvens() * store.getOvenSlots();
+        int rounds = (pizzas + slots - 1) / slots;
+        return prep + (double) rounds * store.getBakeTime();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pizzascheduling;
+
+import java.util.List;
+
+// Base for the strategies that put one chef on each order: every free chef
+// takes the head of the queue. A preemptive strategy also lets the head
+// take over from the busy chef whose order comes last in the queue
+// ordering, if the head comes before it; the preempted order keeps the
+// progress on its current pizza. Chefs going off shift are left to finish.
+public abstract class SingleChefStrategy implements ChefStrategy {
+    private final boolean preemptive;
+
+    protected SingleChefStrategy(boolean preemptive) {
+        this.preemptive = preemptive;
+    }
+
+    @Override
+    public boolean usesQuantum() {
+        return false;
+    }
+
+    @Override
+    public int maxChefsPerOrder(int chefs, int pizzas) {
+        return 1;
+    }
+
+    // Quantum a chef gets with the order, for strategies that use one
+    protected int quantumFor(OrderStore store, int order) {
+        return 0;
+    }
+
+    @Override
+    public void assign(OrderQueue queue, List<Chef> chefs, ResourcePool freeChefs, OrderStore store) {
+        for (int id = freeChefs.nextFree(0); id >= 0 && !queue.isEmpty(); id = freeChefs.nextFree(id + 1)) {
+            give(chefs.get(id), queue.peek(), store);
+        }
+        if (!preemptive) {
+            return;
+        }
+        while (!queue.isEmpty()) {
+            int head = queue.peek();
+            Chef last = null;
+            for (Chef chef : chefs) {
+                int order = chef.getCurrentOrderIndex();
+                if (order == OrderStore.NONE || store.getState(order) != Order.State.PREPARING ||
+                    !freeChefs.isOnShift(chef.getId())) {
+                    continue;
+                }
+                if (last == null || compare(store, order, last.getCurrentOrderIndex()) > 0) {
+                    last = chef;
+                }
+            }
+            if (last == null || compare(store, head, last.getCurrentOrderIndex()) >= 0) {
+                return;
+            }
+            last.preempt();
+            give(last, head, store);
+        }
+    }
+
+    private void give(Chef chef, int order, OrderStore store) {
+        chef.setRemainingQuantum(quantumFor(store, order));
+        chef.assignOrder(order);
+    }
+}
@@ -0,0 +1,105 @@
+package com.pizzascheduling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads back what a SnapshotWriter wrote, in the same order
+class SnapshotReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    SnapshotReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);
+    }
+
+    int readInt() throws IOException {
+        ensure(4);
+        return buffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        ensure(8);
+        return buffer.getLong();
+    }
+
+    boolean readBoolean() throws IOException {
+        ensure(1);
+        return buffer.get() != 0;
+    }
+
+    void readInts(int[] values, int length) throws IOException {
+        int i = 0;
+        while (i < length) {
+            ensure(4);
+            int n = Math.min(length - i, buffer.remaining() / 4);
+            buffer.asIntBuffer().get(values, i, n);
+            buffer.position(buffer.position() + n * 4);
+            i += n;
+        }
+    }
+
+    void readLongs(long[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            values[i] = readLong();
+        }
+    }
+
+    void readBytes(byte[] values, int length) throws IOException {
+        int i = 0;
+        while (i < length) {
+            ensure(1);
+            int n = Math.min(length - i, buffer.remaining());
+            buffer.get(values, i, n);
+            i += n;
+        }
+    }
+
+    void readBooleans(boolean[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            values[i] = readBoolean();
+        }
+    }
+
+    String readString() throws IOException {
+        byte[] bytes = new byte[readInt()];
+        readBytes(bytes, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // A count read from the snapshot, checked before it sizes an array
+    int readCount() throws IOException {
+        int count = readInt();
+        if (count < 0) {
+            throw new IOException("Snapshot is corrupt: " + path);
+        }
+        return count;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Snapshot is truncated: " + path);
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.pizzascheduling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Binary output for simulation snapshots. Values go big-endian into one
+// large buffer and int columns are copied in bulk, so saving an OrderStore
+// costs a few array copies per column rather than a call per value. The
+// snapshot is written next to its final path and moved into place on
+// close(), so a crash while saving leaves the previous snapshot intact.
+class SnapshotWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final Path partial;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    SnapshotWriter(Path path) throws IOException {
+        this.path = path;
+        this.partial = path.resolveSibling(path.getFileName() + ".partial");
+        this.channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        ensure(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    // The first `length` values
+    void writeInts(int[] values, int length) throws IOException {
+        int i = 0;
+        while (i < length) {
+            ensure(4);
+            int n = Math.min(length - i, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, i, n);
+            buffer.position(buffer.position() + n * 4);
+            i += n;
+        }
+    }
+
+    void writeLongs(long[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            writeLong(values[i]);
+        }
+    }
+
+    void writeBytes(byte[] values, int length) throws IOException {
+        int i = 0;
+        while (i < length) {
+            ensure(1);
+            int n = Math.min(length - i, buffer.remaining());
+            buffer.put(values, i, n);
+            i += n;
+        }
+    }
+
+    void writeBooleans(boolean[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            writeBoolean(values[i]);
+        }
+    }
+
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes, bytes.length);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Forces the data to disk before the move, so the new name never points
+    // at a snapshot the disk doesn't hold yet
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,110 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+
+// How many chefs and drivers are on shift each minute, for runs with
+// --chef-shifts, --driver-shifts or --autoscale. The shift schedules set a
+// floor. Every --autoscale-interval minutes the autoscaler measures the
+// load on each kind that has a --max-chefs or --max-drivers. It adds one
+// resource above the floor when the load reaches --scale-up-at, and takes
+// one back when the load is at most --scale-down-at. The load is:
+//   QUEUE  orders in the kind's queue per resource on shift
+//   WAIT   minutes the head of the queue has been waiting there
+// The driver queue also holds orders out with unbatched drivers, as it does
+// for assignment. Ovens are equipment and never change.
+class Staffing {
+    private final ShiftSchedule chefShifts;
+    private final ShiftSchedule driverShifts;
+    private final String autoscale;
+    private final int interval;
+    private final double scaleUpAt;
+    private final double scaleDownAt;
+    private final int maxChefs;  // 0 if chefs don't scale
+    private final int maxDrivers;
+    private int extraChefs;  // Added by the autoscaler above the floor
+    private int extraDrivers;
+
+    Staffing(SchedulerConfig config) {
+        this.chefShifts = schedule(config.getChefShifts(), config.getAvailableChefs(), config.getShiftPeriod());
+        this.driverShifts = schedule(config.getDriverShifts(), config.getAvailableDrivers(),
+            config.getShiftPeriod());
+        this.autoscale = config.getAutoscale();
+        this.interval = config.getAutoscaleInterval();
+        this.scaleUpAt = config.getScaleUpAt();
+        this.scaleDownAt = config.getScaleDownAt();
+        this.maxChefs = config.getMaxChefs();
+        this.maxDrivers = config.getMaxDrivers();
+    }
+
+    static ShiftSchedule schedule(String ranges, int defaultCount, int period) {
+        return ranges == null ? ShiftSchedule.fixed(defaultCount) : ShiftSchedule.parse(ranges, defaultCount, period);
+    }
+
+    static boolean isValidAutoscale(String autoscale) {
+        return autoscale.equals("NONE") || autoscale.equals("QUEUE") || autoscale.equals("WAIT");
+    }
+
+    // Chefs and drivers to create: the most that are ever on shift
+    int getRosterChefs() {
+        return Math.max(chefShifts.getMaxCount(), maxChefs);
+    }
+
+    int getRosterDrivers() {
+        return Math.max(driverShifts.getMaxCount(), maxDrivers);
+    }
+
+    boolean measuresWait() {
+        return autoscale.equals("WAIT");
+    }
+
+    boolean isCheckMinute(int minute) {
+        return !autoscale.equals("NONE") && minute % interval == 0;
+    }
+
+    // Called in check minutes with each kind's load
+    void scale(int minute, double chefLoad, double driverLoad) {
+        if (maxChefs > 0) {
+            extraChefs = scale(extraChefs, chefShifts.countAt(minute), maxChefs, chefLoad);
+        }
+        if (maxDrivers > 0) {
+            extraDrivers = scale(extraDrivers, driverShifts.countAt(minute), maxDrivers, driverLoad);
+        }
+    }
+
+    private int scale(int extra, int scheduled, int max, double load) {
+        if (load >= scaleUpAt && scheduled + extra < max) {
+            return extra + 1;
+        }
+        if (load <= scaleDownAt && extra > 0) {
+            return extra - 1;
+        }
+        return extra;
+    }
+
+    int chefsAt(int minute) {
+        return Math.min(getRosterChefs(), chefShifts.countAt(minute) + extraChefs);
+    }
+
+    int driversAt(int minute) {
+        return Math.min(getRosterDrivers(), driverShifts.countAt(minute) + extraDrivers);
+    }
+
+    // The first minute after `minute` in which staffing may change
+    int nextChange(int minute) {
+        int next = Math.min(chefShifts.nextChange(minute), driverShifts.nextChange(minute));
+        if (!autoscale.equals("NONE")) {
+            next = (int) Math.min(next, ((long) minute / interval + 1) * interval);
+        }
+        return next;
+    }
+
+    void saveState(SnapshotWriter out) throws IOException {
+        out.writeInt(extraChefs);
+        out.writeInt(extraDrivers);
+    }
+
+    void restoreState(SnapshotReader in) throws IOException {
+        extraChefs = in.readInt();
+        extraDrivers = in.readInt();
+    }
+}
@@ -0,0 +1,296 @@
+package com.pizzascheduling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Simulates several stores, each with its own chefs, ovens and drivers and
+// its own PizzaScheduler, against one stream of orders. Time advances in
+// windows of --sync-minutes. At the start of each window a router assigns
+// every order arriving in the window to a store, using the loads seen at
+// that synchronization point; then every store runs the window on its own
+// thread. Routing depends only on the synchronization points, so the
+// results do not depend on thread timing.
+//
+// --available-chefs, --available-ovens and --available-drivers take one
+// value for every store or a comma-separated value per store. Any other
+// option is passed through to each store, as with ConfigSweep.
+public class StoreFleet {
+    // Per-store summaries, in store order, and the fleet as a whole
+    public static class Result {
+        private final List<RunSummary> stores;
+        private final RunSummary fleet;
+
+        Result(List<RunSummary> stores, RunSummary fleet) {
+            this.stores = stores;
+            this.fleet = fleet;
+        }
+
+        public List<RunSummary> getStores() {
+            return stores;
+        }
+
+        // Latencies over every order, minutes until the last delivery anywhere
+        public RunSummary getFleet() {
+            return fleet;
+        }
+    }
+
+    private final SchedulerConfig base;
+    private final List<SchedulerConfig> stores = new ArrayList<>();
+    private final OrderRouter router;
+    private final int syncMinutes;
+
+    public StoreFleet(SchedulerConfig base, List<SchedulerConfig> stores, String router, int syncMinutes) {
+        if (stores.isEmpty()) {
+            throw new IllegalArgumentException("A fleet needs at least one store");
+        }
+        if (!OrderRouter.isValidName(router)) {
+            throw new IllegalArgumentException("Router must be one of ROUND_ROBIN, LEAST_LOADED or SHORTEST_WAIT");
+        }
+        if (syncMinutes <= 0) {
+            throw new IllegalArgumentException("Sync minutes must be positive");
+        }
+        this.base = base;
+        this.stores.addAll(stores);
+        this.router = OrderRouter.create(router);
+        this.syncMinutes = syncMinutes;
+    }
+
+    public static StoreFleet parse(String[] args) {
+        SchedulerConfig base = new SchedulerConfig();
+        Map<String, String> fleetArgs = new HashMap<>();
+        SchedulerConfig.forEachArgument(args, (arg, value) -> {
+            switch (arg) {
+                case "--stores":
+                case "--router":
+                case "--sync-minutes":
+                case "--available-chefs":
+                case "--available-ovens":
+                case "--available-drivers":
+                    fleetArgs.put(arg, value);
+                    break;
+                case "--trace":
+                case "--archive-file":
+                case "--metrics-file":
+                case "--snapshot-file":
+                case "--resume-from":
+                    throw new IllegalArgumentException(arg + " is not supported in a fleet");
+                default:
+                    if (!base.set(arg, value)) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+            }
+        });
+        int storeCount = Integer.parseInt(fleetArgs.getOrDefault("--stores", "0"));
+        String router = fleetArgs.getOrDefault("--router", "ROUND_ROBIN");
+        int syncMinutes = Integer.parseInt(fleetArgs.getOrDefault("--sync-minutes", "5"));
+        String chefs = fleetArgs.get("--available-chefs");
+        String ovens = fleetArgs.get("--available-ovens");
+        String drivers = fleetArgs.get("--available-drivers");
+        if (storeCount <= 0) {
+            throw new IllegalArgumentException("Missing or invalid --stores");
+        }
+        int[] chefCounts = perStore(chefs, storeCount, "--available-chefs");
+        int[] ovenCounts = perStore(ovens, storeCount, "--available-ovens");
+        int[] driverCounts = perStore(drivers, storeCount, "--available-drivers");
+        List<SchedulerConfig> stores = new ArrayList<>();
+        for (int s = 0; s < storeCount; s++) {
+            SchedulerConfig config = base.copy();
+            config.setAvailableChefs(chefCounts[s]);
+            config.setAvailableOvens(ovenCounts[s]);
+            config.setAvailableDrivers(driverCounts[s]);
+            config.setTrace("NONE");
+            config.validateSettings();
+            stores.add(config);
+        }
+        return new StoreFleet(base, stores, router, syncMinutes);
+    }
+
+    // One value for every store, or one per store
+    static int[] perStore(String value, int storeCount, String arg) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + arg);
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 1 && parts.length != storeCount) {
+            throw new IllegalArgumentException(arg + " needs one value or one per store");
+        }
+        int[] counts = new int[storeCount];
+        for (int s = 0; s < storeCount; s++) {
+            counts[s] = Integer.parseInt(parts[parts.length == 1 ? 0 : s]);
+        }
+        return counts;
+    }
+
+    public List<SchedulerConfig> getStores() {
+        return stores;
+    }
+
+    // A store's minutes run until its last delivery
+    public Result run() throws IOException, InterruptedException {
+        base.validateInput();
+        NameTable names = new NameTable();
+        OrderStore arrivals = new OrderStore(names, 64);
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+        int count = stores.size();
+        OrderFeed[] feeds = new OrderFeed[count];
+        PizzaScheduler[] schedulers = new PizzaScheduler[count];
+        boolean[] started = new boolean[count];
+        long[] routed = new long[count];
+        long[] outstanding = new long[count];
+        ExecutorService pool = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "pizza-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (OrderSource source = new OrderSource(base.openInput(), arrivals, base.getReorderWindow())) {
+            for (int s = 0; s < count; s++) {
+                feeds[s] = new OrderFeed();
+                schedulers[s] = new PizzaScheduler(stores.get(s), names, feeds[s], discard);
+                schedulers[s].loadOrders();
+                schedulers[s].startRun();
+                started[s] = true;
+            }
+            int windowStart = 1;
+            boolean last = false;
+            while (!last) {
+                int windowEnd = windowStart + syncMinutes;
+                int order;
+                while ((order = source.poll(windowEnd - 1)) != OrderStore.NONE) {
+                    int pizzas = arrivals.getNumPizzas(order);
+                    int s = router.route(pizzas, outstanding, stores);
+                    feeds[s].offer(arrivals, order);
+                    routed[s] += pizzas;
+                    outstanding[s] += pizzas;
+                    arrivals.retire(order);
+                }
+                last = source.isEmpty();
+                if (last) {
+                    for (OrderFeed feed : feeds) {
+                        feed.finish();
+                    }
+                }
+                runWindow(pool, schedulers, last ? Integer.MAX_VALUE : windowEnd);
+                for (int s = 0; s < count; s++) {
+                    outstanding[s] = routed[s] - schedulers[s].getDeliveredPizzas();
+                }
+                windowStart = windowEnd;
+            }
+        } finally {
+            pool.shutdownNow();
+            for (int s = 0; s < count; s++) {
+                if (started[s]) {
+                    schedulers[s].finishRun();
+                }
+            }
+        }
+
+        List<RunSummary> summaries = new ArrayList<>();
+        LatencyHistogram latencies = new LatencyHistogram();
+        for (PizzaScheduler scheduler : schedulers) {
+            summaries.add(scheduler.summarize(scheduler.getLastDeliveryMinute()));
+            latencies.add(scheduler.getMetrics().getLatencyHistogram());
+        }
+        return new Result(summaries, fleetSummary(summaries, latencies));
+    }
+
+    // Every store runs up to endMinute on its own thread
+    private static void runWindow(ExecutorService pool, PizzaScheduler[] schedulers, int endMinute)
+            throws IOException, InterruptedException {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (PizzaScheduler scheduler : schedulers) {
+            tasks.add(() -> scheduler.runUntil(endMinute));
+        }
+        for (Future<Boolean> future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private static RunSummary fleetSummary(List<RunSummary> summaries, LatencyHistogram latencies) {
+        int minutes = 0;
+        int orders = 0;
+        long pizzas = 0;
+        long driverRuns = 0;
+        long driverBusyMinutes = 0;
+        long chefMinutes = 0;
+        long ovenMinutes = 0;
+        long driverMinutes = 0;
+        for (RunSummary summary : summaries) {
+            minutes = Math.max(minutes, summary.getMinutes());
+            orders += summary.getOrders();
+            pizzas += summary.getPizzas();
+            driverRuns += summary.getDriverRuns();
+            driverBusyMinutes += summary.getDriverBusyMinutes();
+            chefMinutes += summary.getChefMinutes();
+            ovenMinutes += summary.getOvenMinutes();
+            driverMinutes += summary.getDriverMinutes();
+        }
+        return new RunSummary(minutes, orders, pizzas, latencies, driverRuns, driverBusyMinutes,
+            chefMinutes, ovenMinutes, driverMinutes);
+    }
+
+    public void report(Result result, PrintStream out) {
+        List<RunSummary> summaries = result.getStores();
+        out.println("Store,Chefs,Ovens,Drivers,Orders,Pizzas,Delivered,Minutes,OrdersPerHour,MeanLatency,P99Latency");
+        int chefs = 0;
+        int ovens = 0;
+        int drivers = 0;
+        for (int s = 0; s < summaries.size(); s++) {
+            SchedulerConfig config = stores.get(s);
+            chefs += config.getAvailableChefs();
+            ovens += config.getAvailableOvens();
+            drivers += config.getAvailableDrivers();
+            out.println(s + "," + format(config.getAvailableChefs(), config.getAvailableOvens(),
+                config.getAvailableDrivers(), summaries.get(s)));
+        }
+        out.println("Fleet," + format(chefs, ovens, drivers, result.getFleet()));
+    }
+
+    private static String format(int chefs, int ovens, int drivers, RunSummary summary) {
+        double perHour = summary.getMinutes() == 0 ? 0 : summary.getDelivered() * 60.0 / summary.getMinutes();
+        return chefs + "," + ovens + "," + drivers + "," + summary.getOrders() + "," + summary.getPizzas() + "," +
+               summary.getDelivered() + "," + summary.getMinutes() + "," + String.format(Locale.ROOT, "%.2f", perHour) + "," +
+               String.format(Locale.ROOT, "%.2f", summary.getMeanLatency()) + "," + summary.getP99Latency();
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        try {
+            StoreFleet fleet = parse(args);
+            fleet.report(fleet.run(), out);
+            return 0;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
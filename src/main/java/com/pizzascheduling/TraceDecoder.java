@@ -0,0 +1,355 @@
+package com.pizzascheduling;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replays a BINARY trace (see BinaryTraceWriter) and prints the FULL trace
+// text for the minutes from --from to --to, both included:
+//
+//   java -cp target/classes com.pizzascheduling.TraceDecoder --trace-file run.trace --from 100 --to 120
+//
+// Records before --from are applied without printing, and decoding stops
+// after --to.
+public class TraceDecoder {
+    private static final Order.State[] STATES = Order.State.values();
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final DataInputStream in;
+    private final PrintStream out;
+    private final int from;
+    private final int to;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+
+    private boolean chefQuantum;
+    private int[] chefOrder;
+    private int[] chefQuanta;
+    private int[][] ovenSlots;
+    private int[][] driverOrders;  // Count, then the orders
+
+    private final List<String> names = new ArrayList<>();
+    private int orderCount;
+    private int[] name = new int[64];
+    private byte[] state = new byte[64];
+    private int[] done = new int[64];
+    private int[] pending = new int[64];
+    private int[] remaining = new int[64];
+
+    private int minute = 1;  // First minute not printed yet; the current lines belong to it
+
+    public TraceDecoder(InputStream in, PrintStream out, int from, int to) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        this.out = out;
+        this.from = from;
+        this.to = to;
+    }
+
+    public void decode() throws IOException {
+        try {
+            readHeader();
+            int recordMinute = 0;
+            while (minute <= to) {
+                int tag = readVarint();
+                switch (tag) {
+                    case BinaryTraceWriter.MINUTE:
+                        recordMinute += readVarint();
+                        printUntil(recordMinute - 1);
+                        break;
+                    case BinaryTraceWriter.NAME:
+                        byte[] bytes = new byte[readVarint()];
+                        in.readFully(bytes);
+                        names.add(new String(bytes, StandardCharsets.UTF_8));
+                        break;
+                    case BinaryTraceWriter.ORDER:
+                        readOrder();
+                        break;
+                    case BinaryTraceWriter.LINE:
+                        int order = checkOrder(readVarint());
+                        state[order] = (byte) readVarint();
+                        done[order] = readZigzag();
+                        pending[order] = readZigzag();
+                        remaining[order] = readZigzag();
+                        break;
+                    case BinaryTraceWriter.REMAINING:
+                        int changed = checkOrder(readVarint());
+                        remaining[changed] += readZigzag();
+                        break;
+                    case BinaryTraceWriter.CHEF:
+                        int chef = readVarint();
+                        chefOrder[chef] = readVarint();
+                        chefQuanta[chef] = readZigzag();
+                        break;
+                    case BinaryTraceWriter.OVEN:
+                        int[] slots = ovenSlots[readVarint()];
+                        for (int slot = 0; slot < slots.length; slot++) {
+                            slots[slot] = readVarint();
+                        }
+                        break;
+                    case BinaryTraceWriter.DRIVER:
+                        int driver = readVarint();
+                        int count = readVarint();
+                        if (driverOrders[driver].length <= count) {
+                            driverOrders[driver] = new int[count + 1];
+                        }
+                        int[] orders = driverOrders[driver];
+                        orders[0] = count;
+                        for (int k = 1; k <= count; k++) {
+                            orders[k] = readVarint();
+                        }
+                        break;
+                    case BinaryTraceWriter.SKIP:
+                        readSkip();
+                        break;
+                    case BinaryTraceWriter.END:
+                        printUntil(recordMinute + readVarint());
+                        return;
+                    default:
+                        throw new IOException("Unknown trace record: " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Trace is truncated", e);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Trace is corrupt", e);
+        } finally {
+            flush();
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (in.readInt() != BinaryTraceWriter.MAGIC) {
+            throw new IOException("Not a binary trace");
+        }
+        if (readVarint() != BinaryTraceWriter.VERSION) {
+            throw new IOException("Unsupported binary trace version");
+        }
+        int chefs = readVarint();
+        chefQuantum = readVarint() != 0;
+        int ovens = readVarint();
+        int slots = readVarint();
+        int drivers = readVarint();
+        chefOrder = new int[chefs];
+        chefQuanta = new int[chefs];
+        ovenSlots = new int[ovens][slots];
+        driverOrders = new int[drivers][];
+        for (int id = 0; id < drivers; id++) {
+            driverOrders[id] = new int[1];
+        }
+    }
+
+    private void readOrder() throws IOException {
+        if (orderCount == name.length) {
+            int capacity = orderCount * 2;
+            name = Arrays.copyOf(name, capacity);
+            state = Arrays.copyOf(state, capacity);
+            done = Arrays.copyOf(done, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+        }
+        int order = orderCount++;
+        name[order] = readVarint();
+        state[order] = (byte) readVarint();
+        done[order] = readZigzag();
+        pending[order] = readZigzag();
+        remaining[order] = readZigzag();
+    }
+
+    // The current minute, then k - 1 interpolated minutes; the lines end up
+    // at the values of the k-th, which is printed later
+    private void readSkip() throws IOException {
+        int minutes = readVarint();
+        int count = readVarint();
+        int[] lines = new int[count];
+        int[] changes = new int[count];
+        int[] base = new int[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = readVarint();
+            changes[i] = readZigzag();
+            base[i] = lineValue(lines[i]);
+        }
+        int start = minute;
+        printUntil(start);
+        for (int j = 1; j < minutes && minute <= to; j++) {
+            if (minute >= from) {
+                for (int i = 0; i < count; i++) {
+                    setLineValue(lines[i], base[i] + (int) ((long) changes[i] * j / minutes));
+                }
+            }
+            printUntil(start + j);
+        }
+        for (int i = 0; i < count; i++) {
+            setLineValue(lines[i], base[i] + changes[i]);
+        }
+        minute = start + minutes;
+    }
+
+    private int lineValue(int line) {
+        return (line & 1) == 0 ? remaining[checkOrder(line >>> 1)] : chefQuanta[line >>> 1];
+    }
+
+    private void setLineValue(int line, int value) {
+        if ((line & 1) == 0) {
+            remaining[line >>> 1] = value;
+        } else {
+            chefQuanta[line >>> 1] = value;
+        }
+    }
+
+    private int checkOrder(int order) {
+        if (order >= orderCount) {
+            throw new ArrayIndexOutOfBoundsException(order);
+        }
+        return order;
+    }
+
+    // Prints the current lines for every minute up to `last`
+    private void printUntil(int last) {
+        for (; minute <= last && minute <= to; minute++) {
+            if (minute >= from) {
+                printMinute();
+            }
+        }
+        if (minute <= last) {
+            minute = last + 1;
+        }
+    }
+
+    // Same text as TraceWriter.writeMinute()
+    private void printMinute() {
+        buffer.append("==== MINUTE ").append(minute).append(NEWLINE);
+        for (int order = 0; order < orderCount; order++) {
+            buffer.append(names.get(name[order])).append(',')
+                .append(STATES[state[order]].name()).append(',')
+                .append(done[order]).append(',')
+                .append(pending[order]).append(',')
+                .append(remaining[order]).append(NEWLINE);
+        }
+        for (int id = 0; id < chefOrder.length; id++) {
+            buffer.append("Chef").append(id).append(',');
+            if (chefOrder[id] == 0) {
+                buffer.append("None");
+            } else {
+                buffer.append(person(chefOrder[id]));
+                if (chefQuantum) {
+                    buffer.append(',').append(chefQuanta[id]);
+                }
+            }
+            buffer.append(NEWLINE);
+        }
+        for (int id = 0; id < ovenSlots.length; id++) {
+            buffer.append("Oven").append(id).append(',');
+            int[] slots = ovenSlots[id];
+            for (int slot = 0; slot < slots.length; slot++) {
+                if (slot > 0) {
+                    buffer.append(',');
+                }
+                buffer.append(slots[slot] == 0 ? "None" : person(slots[slot]));
+            }
+            buffer.append(NEWLINE);
+        }
+        for (int id = 0; id < driverOrders.length; id++) {
+            buffer.append("Driver").append(id).append(',');
+            int[] orders = driverOrders[id];
+            if (orders[0] == 0) {
+                buffer.append("None");
+            }
+            for (int k = 1; k <= orders[0]; k++) {
+                buffer.append(k > 1 ? "," : "").append(person(orders[k]));
+            }
+            buffer.append(NEWLINE);
+        }
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    // Person of a trace id + 1
+    private String person(int traceId) {
+        return names.get(name[checkOrder(traceId - 1)]);
+    }
+
+    private void flush() {
+        if (buffer.length() > 0) {
+            out.print(buffer);
+            buffer.setLength(0);
+        }
+        out.flush();
+    }
+
+    private int readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value > Integer.MAX_VALUE) {
+                    throw new IOException("Trace is corrupt: varint out of range");
+                }
+                return (int) value;
+            }
+        }
+        throw new IOException("Trace is corrupt: varint too long");
+    }
+
+    private int readZigzag() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                int raw = (int) value;
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new IOException("Trace is corrupt: varint too long");
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        try {
+            Map<String, String> options = new HashMap<>();
+            SchedulerConfig.forEachArgument(args, (arg, value) -> {
+                switch (arg) {
+                    case "--trace-file":
+                    case "--from":
+                    case "--to":
+                        options.put(arg, value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            });
+            String file = options.get("--trace-file");
+            int from = Integer.parseInt(options.getOrDefault("--from", "1"));
+            int to = Integer.parseInt(options.getOrDefault("--to", String.valueOf(Integer.MAX_VALUE)));
+            if (file == null || from <= 0 || to < from) {
+                throw new IllegalArgumentException("Missing or invalid required arguments");
+            }
+            try (InputStream in = Files.newInputStream(Paths.get(file))) {
+                new TraceDecoder(in, out, from, to).decode();
+            }
+            return 0;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.pizzascheduling;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+// Renders the simulation trace into one reusable buffer and hands it to the
+// output stream in large chunks instead of one println per line.
+//
+// Modes:
+//   FULL     every order and resource, every minute (the original format)
+//   CHANGES  only orders that changed state and resources that took or
+//            dropped an order, and only in minutes where something changed
+//   SUMMARY  nothing per minute, totals at the end
+//   BINARY   the FULL trace as binary deltas, written by BinaryTraceWriter
+//   NONE     no output
+public class TraceWriter {
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final PrintStream out;
+    private final boolean full;
+    private final boolean changes;
+    private final boolean summary;
+    private final boolean binary;
+    private final StringBuilder buffer;
+
+    public TraceWriter(String mode, PrintStream out) {
+        if (!isValidMode(mode)) {
+            throw new IllegalArgumentException("Trace must be one of FULL, CHANGES, SUMMARY, BINARY or NONE");
+        }
+        this.out = out;
+        this.full = mode.equals("FULL");
+        this.changes = mode.equals("CHANGES");
+        this.summary = mode.equals("SUMMARY");
+        this.binary = mode.equals("BINARY");
+        this.buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    }
+
+    public static boolean isValidMode(String mode) {
+        return mode.equals("FULL") || mode.equals("CHANGES") ||
+               mode.equals("SUMMARY") || mode.equals("BINARY") || mode.equals("NONE");
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public boolean isChanges() {
+        return changes;
+    }
+
+    // Modes that need the orders that changed state in each minute
+    public boolean tracksChanges() {
+        return changes || binary;
+    }
+
+    public void writeMinute(int minute, OrderStore store, IntList orders, List<Chef> chefs,
+                            List<Oven> ovens, List<Driver> drivers) {
+        if (!full) {
+            return;
+        }
+        header(minute);
+        for (int i = 0; i < orders.size(); i++) {
+            store.appendTo(orders.get(i), buffer);
+            buffer.append(NEWLINE);
+        }
+        for (Chef chef : chefs) {
+            chef.appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        for (Oven oven : ovens) {
+            oven.appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        for (Driver driver : drivers) {
+            driver.appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        flushIfFull();
+    }
+
+    // changedOrders is in sequence order; the pools hold the changed resource ids
+    public void writeChanges(int minute, OrderStore store, IntList changedOrders,
+                             List<Chef> chefs, ResourcePool chefPool,
+                             List<Oven> ovens, ResourcePool ovenPool,
+                             List<Driver> drivers, ResourcePool driverPool) {
+        if (!changes) {
+            return;
+        }
+        if (changedOrders.isEmpty() && chefPool.nextChanged(0) < 0 &&
+            ovenPool.nextChanged(0) < 0 && driverPool.nextChanged(0) < 0) {
+            return;
+        }
+        header(minute);
+        for (int i = 0; i < changedOrders.size(); i++) {
+            store.appendTo(changedOrders.get(i), buffer);
+            buffer.append(NEWLINE);
+        }
+        for (int id = chefPool.nextChanged(0); id >= 0; id = chefPool.nextChanged(id + 1)) {
+            chefs.get(id).appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        for (int id = ovenPool.nextChanged(0); id >= 0; id = ovenPool.nextChanged(id + 1)) {
+            ovens.get(id).appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        for (int id = driverPool.nextChanged(0); id >= 0; id = driverPool.nextChanged(id + 1)) {
+            drivers.get(id).appendTo(buffer);
+            buffer.append(NEWLINE);
+        }
+        flushIfFull();
+    }
+
+    public void writeSummary(int minutes, int orders, long pizzas, int delivered, long deliveryMinuteTotal) {
+        if (!summary) {
+            return;
+        }
+        buffer.append("==== SUMMARY").append(NEWLINE);
+        buffer.append("Minutes,").append(minutes).append(NEWLINE);
+        buffer.append("Orders,").append(orders).append(NEWLINE);
+        buffer.append("Pizzas,").append(pizzas).append(NEWLINE);
+        buffer.append("Delivered,").append(delivered).append(NEWLINE);
+        buffer.append("AverageDeliveryMinute,")
+            .append(delivered == 0 ? "0.00" :
+                String.format(Locale.ROOT, "%.2f", (double) deliveryMinuteTotal / delivered))
+            .append(NEWLINE);
+        flush();
+    }
+
+    // Resource-minutes used, after the summary of runs whose staffing changes
+    public void writeStaffing(int delivered, long chefMinutes, long ovenMinutes, long driverMinutes) {
+        if (!summary) {
+            return;
+        }
+        long staffMinutes = chefMinutes + driverMinutes;
+        buffer.append("ChefMinutes,").append(chefMinutes).append(NEWLINE);
+        buffer.append("OvenMinutes,").append(ovenMinutes).append(NEWLINE);
+        buffer.append("DriverMinutes,").append(driverMinutes).append(NEWLINE);
+        buffer.append("DeliveriesPerStaffHour,")
+            .append(staffMinutes == 0 ? "0.00" :
+                String.format(Locale.ROOT, "%.2f", delivered * 60.0 / staffMinutes))
+            .append(NEWLINE);
+        flush();
+    }
+
+    public void flush() {
+        if (buffer.length() > 0) {
+            out.print(buffer);
+            buffer.setLength(0);
+        }
+        out.flush();
+    }
+
+    private void header(int minute) {
+        buffer.append("==== MINUTE ").append(minute).append(NEWLINE);
+    }
+
+    private void flushIfFull() {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+}
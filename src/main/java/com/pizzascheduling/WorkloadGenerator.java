@@ -0,0 +1,238 @@
+package com.pizzascheduling;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Synthetic order streams in the order file format, with arrival minutes.
+// The same seed always gives the same orders. Arrivals follow a daily
+// profile with lunch and dinner peaks; pizza counts are heavy tailed;
+// priorities come from an urgent/elevated/normal mix; delivery times are
+// log-normal; customers are drawn from a skewed pool, so names repeat.
+//
+// Orders are produced on demand, so the stream can be written to a file
+// or read straight into the scheduler through channel().
+public class WorkloadGenerator {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_PIZZAS = 50;
+    private static final String[] FIRST_NAMES = {
+        "Juan", "Maria", "Ashley", "Tom", "Sarah", "Mike", "Ryan", "Ana", "Luis", "Sofia",
+        "Carlos", "Elena", "David", "Laura", "Pedro", "Lucia", "James", "Emma", "Diego", "Valeria"
+    };
+
+    private final long orders;
+    private final Random random;
+    private final int customers;
+    private final double[] arrivalRate;  // Expected orders in each minute of the day
+
+    private long generated;
+    private int minute;
+    private int arrivalsLeft;  // Orders still to emit in the current minute
+
+    public WorkloadGenerator(long orders, long seed) {
+        this(orders, seed, 2000);
+    }
+
+    public WorkloadGenerator(long orders, long seed, int ordersPerDay) {
+        if (orders < 0) {
+            throw new IllegalArgumentException("Order count must not be negative");
+        }
+        if (ordersPerDay <= 0) {
+            throw new IllegalArgumentException("Orders per day must be positive");
+        }
+        this.orders = orders;
+        this.random = new Random(seed);
+        // Roughly one customer per four orders, so regulars order many times
+        this.customers = (int) Math.max(1, Math.min(1_000_000, orders / 4));
+        this.arrivalRate = dailyProfile(ordersPerDay);
+        this.generated = 0;
+        this.minute = 0;
+        this.arrivalsLeft = 0;
+    }
+
+    // A quiet baseline plus a lunch peak around 12:30 and a larger dinner
+    // peak around 19:30, scaled to ordersPerDay
+    private static double[] dailyProfile(int ordersPerDay) {
+        double[] rate = new double[MINUTES_PER_DAY];
+        double total = 0;
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            rate[m] = 0.1 + peak(m, 12 * 60 + 30, 45) + 1.4 * peak(m, 19 * 60 + 30, 60);
+            total += rate[m];
+        }
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            rate[m] *= ordersPerDay / total;
+        }
+        return rate;
+    }
+
+    private static double peak(int minute, int center, int width) {
+        double z = (minute - center) / (double) width;
+        return Math.exp(-0.5 * z * z);
+    }
+
+    public boolean hasNext() {
+        return generated < orders;
+    }
+
+    // Appends the next order line, without a line end
+    public void next(StringBuilder out) {
+        if (!hasNext()) {
+            throw new IllegalStateException("All orders have been generated");
+        }
+        while (arrivalsLeft == 0) {
+            minute++;
+            arrivalsLeft = poisson(arrivalRate[(minute - 1) % MINUTES_PER_DAY]);
+        }
+        arrivalsLeft--;
+        generated++;
+
+        out.append(customerName()).append(',')
+            .append(pizzaCount()).append(',')
+            .append(deliveryTime()).append(',')
+            .append(priority()).append(',')
+            .append(minute);
+    }
+
+    // Skewed towards low ids: a few customers order very often
+    private String customerName() {
+        double u = random.nextDouble();
+        int id = (int) (customers * u * u * u);
+        return FIRST_NAMES[id % FIRST_NAMES.length] + (id / FIRST_NAMES.length);
+    }
+
+    // Pareto tail: two thirds order one pizza, a few order dozens
+    private int pizzaCount() {
+        double u = 1.0 - random.nextDouble();
+        return (int) Math.min(MAX_PIZZAS, Math.floor(Math.pow(u, -1.0 / 1.6)));
+    }
+
+    // Log-normal around 20 minutes
+    private int deliveryTime() {
+        double minutes = 20 * Math.exp(0.5 * random.nextGaussian());
+        return (int) Math.max(5, Math.min(120, Math.round(minutes)));
+    }
+
+    // Lower is more urgent: 10% urgent, 20% elevated, the rest normal
+    private int priority() {
+        double u = random.nextDouble();
+        if (u < 0.1) {
+            return random.nextInt(2);
+        }
+        if (u < 0.3) {
+            return 2 + random.nextInt(3);
+        }
+        return 5 + random.nextInt(6);
+    }
+
+    private int poisson(double mean) {
+        if (mean > 30) {
+            // Normal approximation; Knuth's method underflows for large means
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (hasNext()) {
+            line.setLength(0);
+            next(line);
+            line.append('\n');
+            for (int i = 0; i < line.length(); i++) {
+                out.write(line.charAt(i));
+            }
+        }
+        out.flush();
+    }
+
+    // The remaining orders as a byte stream for OrderReader
+    public ReadableByteChannel channel() {
+        return new ReadableByteChannel() {
+            private final StringBuilder line = new StringBuilder();
+            private byte[] pending = new byte[0];
+            private int pendingOffset = 0;
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                int written = 0;
+                while (dst.hasRemaining()) {
+                    if (pendingOffset == pending.length) {
+                        if (!hasNext()) {
+                            break;
+                        }
+                        line.setLength(0);
+                        next(line);
+                        line.append('\n');
+                        pending = line.toString().getBytes(StandardCharsets.US_ASCII);
+                        pendingOffset = 0;
+                    }
+                    int count = Math.min(dst.remaining(), pending.length - pendingOffset);
+                    dst.put(pending, pendingOffset, count);
+                    pendingOffset += count;
+                    written += count;
+                }
+                return written == 0 && !hasNext() && pendingOffset == pending.length ? -1 : written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+
+    // Writes a generated order file:
+    // --orders N [--seed S] [--orders-per-day R] [--output-file path]
+    public static void main(String[] args) {
+        try {
+            Map<String, String> options = new HashMap<>();
+            SchedulerConfig.forEachArgument(args, (arg, value) -> {
+                switch (arg) {
+                    case "--orders":
+                    case "--seed":
+                    case "--orders-per-day":
+                    case "--output-file":
+                        options.put(arg, value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            });
+            long orders = Long.parseLong(options.getOrDefault("--orders", "-1"));
+            long seed = Long.parseLong(options.getOrDefault("--seed", "1"));
+            int ordersPerDay = Integer.parseInt(options.getOrDefault("--orders-per-day", "2000"));
+            String outputFile = options.get("--output-file");
+            if (orders < 0) {
+                throw new IllegalArgumentException("Missing or invalid --orders");
+            }
+            WorkloadGenerator generator = new WorkloadGenerator(orders, seed, ordersPerDay);
+            OutputStream out = outputFile == null ? System.out : new FileOutputStream(outputFile);
+            try (OutputStream buffered = new BufferedOutputStream(out, 1 << 16)) {
+                generator.writeTo(buffered);
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
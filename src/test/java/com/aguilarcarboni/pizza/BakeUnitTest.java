@@ -0,0 +1,41 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Baking by pizza spreads a large order's pizzas over the free ovens.
+ */
+public class BakeUnitTest {
+
+    private static RunSummary run(String unit) throws IOException {
+        SchedulerConfig config = SchedulerConfig.parse(new String[] {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "6", "--available-ovens", "4", "--available-drivers", "6",
+            "--bake-time", "8", "--chef-time", "2", "--chef-strategy", "FOCUSED",
+            "--trace", "NONE", "--bake-unit", unit
+        });
+        PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        return scheduler.runSimulation();
+    }
+
+    @Test
+    public void pizzasBakeInParallelOvens() throws IOException {
+        RunSummary byOrder = run("ORDER");
+        RunSummary byPizza = run("PIZZA");
+        assertEquals(6, byPizza.getDelivered());
+        assertTrue(byPizza.getMinutes() < byOrder.getMinutes() * 2 / 3,
+            byPizza.getMinutes() + " vs " + byOrder.getMinutes());
+        assertTrue(byPizza.getMeanLatency() < byOrder.getMeanLatency());
+    }
+}
@@ -0,0 +1,58 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import com.pizzascheduling.TraceDecoder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Decoding a BINARY trace gives back the FULL trace, for either engine.
+ */
+public class BinaryTraceTest {
+
+    private static String decode(byte[] trace, int from, int to) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new TraceDecoder(new ByteArrayInputStream(trace), new PrintStream(buffer), from, to).decode();
+        return buffer.toString();
+    }
+
+    private static void assertDecodesToFullTrace(String... args) throws IOException {
+        String full = TraceRuns.run(args);
+        for (String engine : new String[] {"TICK", "EVENT"}) {
+            byte[] trace = TraceRuns.runBytes(TraceRuns.withArgs(args, "--trace", "BINARY", "--engine", engine));
+            assertEquals(full, decode(trace, 1, Integer.MAX_VALUE), engine);
+        }
+    }
+
+    @Test
+    public void roundRobinDecodesToFullTrace() throws IOException {
+        assertDecodesToFullTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3");
+    }
+
+    @Test
+    public void deckOvensAndBatchesDecodeToFullTrace() throws IOException {
+        assertDecodesToFullTrace("--generate-orders", "300", "--orders-per-day", "4000",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "3",
+            "--bake-time", "6", "--chef-time", "3", "--chef-strategy", "MLFQ", "--chef-quantum", "2",
+            "--oven-slots", "3", "--driver-batch", "3", "--driver-batch-wait", "2");
+    }
+
+    @Test
+    public void decodesMinuteRange() throws IOException {
+        String[] args = {"--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "3", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "3", "--chef-time", "2", "--chef-strategy", "FOCUSED"};
+        String full = TraceRuns.run(args);
+        String range = full.substring(full.indexOf("==== MINUTE 10" + System.lineSeparator()),
+            full.indexOf("==== MINUTE 21" + System.lineSeparator()));
+        byte[] trace = TraceRuns.runBytes(TraceRuns.withArgs(args, "--trace", "BINARY", "--engine", "EVENT"));
+        assertEquals(range, decode(trace, 10, 20));
+    }
+}
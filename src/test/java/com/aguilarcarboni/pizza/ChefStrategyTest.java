@@ -0,0 +1,108 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.pizzascheduling.ChefStrategy;
+import com.pizzascheduling.OrderQueue;
+import com.pizzascheduling.OrderStore;
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Chef strategies order the chef queue their own way, and every strategy
+ * delivers every order.
+ */
+public class ChefStrategyTest {
+
+    @TempDir
+    Path dir;
+
+    private static int order(OrderStore store, String person, int pizzas, int deliveryTime,
+                             int priority, int sequence) {
+        int order = store.add(person, pizzas, deliveryTime, priority);
+        store.setSequence(order, sequence);
+        store.setChefTime(order, 3);
+        return order;
+    }
+
+    @Test
+    public void shortestJobFirstOrdersByRemainingWork() {
+        OrderStore store = new OrderStore();
+        OrderQueue queue = new OrderQueue(store, ChefStrategy.create("SJF", 0));
+        int big = order(store, "Big", 5, 10, 0, 0);
+        int small = order(store, "Small", 1, 10, 9, 1);
+        int half = order(store, "Half", 2, 10, 5, 2);
+        store.setRemainingPrepTime(half, 1);  // Two of its six minutes done
+        queue.add(big);
+        queue.add(small);
+        queue.add(half);
+
+        assertEquals(small, queue.poll());
+        assertEquals(half, queue.poll());
+        assertEquals(big, queue.poll());
+    }
+
+    @Test
+    public void earliestDeadlineFirstOrdersByArrivalPlusDeliveryTime() {
+        OrderStore store = new OrderStore();
+        OrderQueue queue = new OrderQueue(store, ChefStrategy.create("EDF", 0));
+        int early = order(store, "Early", 1, 30, 0, 0);
+        int late = order(store, "Late", 1, 10, 0, 1);
+        int soon = order(store, "Soon", 1, 10, 9, 2);
+        store.setArrivalMinute(early, 1);
+        store.setArrivalMinute(late, 25);
+        store.setArrivalMinute(soon, 5);
+        queue.add(early);
+        queue.add(late);
+        queue.add(soon);
+
+        assertEquals(soon, queue.poll());
+        assertEquals(early, queue.poll());
+        assertEquals(late, queue.poll());
+    }
+
+    @Test
+    public void everyStrategyDeliversEveryOrder() throws IOException {
+        for (String strategy : ChefStrategy.NAMES) {
+            SchedulerConfig config = SchedulerConfig.parse(new String[] {
+                "--input-file", "src/main/tests/medium-order.txt",
+                "--available-chefs", "3", "--available-ovens", "2", "--available-drivers", "3",
+                "--bake-time", "3", "--chef-time", "4", "--chef-strategy", strategy, "--chef-quantum", "2",
+                "--trace", "NONE"
+            });
+            PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(OutputStream.nullOutputStream()));
+            scheduler.loadOrders();
+            assertEquals(6, scheduler.runSimulation().getDelivered(), strategy);
+        }
+    }
+
+    @Test
+    public void roundRobinCountsChefsPerOrderNotPerCustomer() throws IOException {
+        Path input = dir.resolve("orders.txt");
+        Files.write(input, "Ann,2,30,0\nAnn,2,30,0\n".getBytes());
+        SchedulerConfig config = SchedulerConfig.parse(new String[] {
+            "--input-file", input.toString(),
+            "--available-chefs", "4", "--available-ovens", "1", "--available-drivers", "1",
+            "--bake-time", "3", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "2",
+            "--trace", "FULL"
+        });
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(trace));
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+
+        // Both orders get two chefs in the first minute
+        String firstMinute = trace.toString().split("==== MINUTE 2")[0];
+        long busyChefs = firstMinute.lines().filter(line -> line.startsWith("Chef") && line.contains(",Ann")).count();
+        assertEquals(4, busyChefs, firstMinute);
+    }
+}
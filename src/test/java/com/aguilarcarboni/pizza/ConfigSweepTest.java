@@ -0,0 +1,53 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import com.pizzascheduling.ConfigSweep;
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Parallel sweeps must give the same results as separate runs.
+ */
+public class ConfigSweepTest {
+
+    private static final String[] SWEEP = {
+        "--input-file", "src/main/tests/medium-order.txt",
+        "--available-chefs", "1..3", "--available-ovens", "1,2", "--available-drivers", "2",
+        "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "FOCUSED,RR", "--chef-quantum", "2,3",
+        "--engine", "EVENT", "--target-p99-latency", "40", "--parallelism", "4"
+    };
+
+    @Test
+    public void sweepMatchesSeparateRuns() throws IOException, InterruptedException {
+        ConfigSweep sweep = ConfigSweep.parse(SWEEP);
+        List<ConfigSweep.Result> results = sweep.run();
+        assertEquals(3 * 2 * 3, results.size());
+
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        for (ConfigSweep.Result result : results) {
+            SchedulerConfig config = result.getConfig().copy();
+            PizzaScheduler scheduler = new PizzaScheduler(config, discard);
+            scheduler.loadOrders();
+            RunSummary expected = scheduler.runSimulation();
+            RunSummary actual = result.getSummary();
+            assertEquals(expected.getMinutes(), actual.getMinutes());
+            assertEquals(expected.getMeanLatency(), actual.getMeanLatency());
+            assertEquals(expected.getP99Latency(), actual.getP99Latency());
+        }
+
+        ConfigSweep.Result best = sweep.cheapest(results);
+        for (ConfigSweep.Result result : results) {
+            if (sweep.meetsTarget(result)) {
+                assertEquals(true, best.getCost() <= result.getCost());
+            }
+        }
+    }
+}
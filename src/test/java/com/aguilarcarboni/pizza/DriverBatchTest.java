@@ -0,0 +1,44 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Batched driver runs must deliver every order and, when drivers are the
+ * bottleneck, beat one order per driver on throughput and tail latency.
+ */
+public class DriverBatchTest {
+
+    private static RunSummary run(String batch) throws IOException {
+        SchedulerConfig config = SchedulerConfig.parse(new String[] {
+            "--generate-orders", "1500", "--orders-per-day", "3000", "--seed", "7",
+            "--available-chefs", "40", "--available-ovens", "30", "--available-drivers", "6",
+            "--bake-time", "8", "--chef-time", "3", "--chef-strategy", "FOCUSED", "--engine", "EVENT",
+            "--trace", "NONE", "--driver-batch", batch, "--driver-batch-wait", "3",
+            "--driver-max-delivery", "45"
+        });
+        PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        return scheduler.runSimulation();
+    }
+
+    @Test
+    public void batchingRaisesDriverThroughput() throws IOException {
+        RunSummary single = run("1");
+        RunSummary batched = run("4");
+        assertEquals(1500, single.getDelivered());
+        assertEquals(1500, batched.getDelivered());
+        assertTrue(batched.getDriverRuns() < batched.getDelivered());
+        assertTrue(batched.getDeliveriesPerDriverHour() > single.getDeliveriesPerDriverHour());
+        assertTrue(batched.getP99Latency() < single.getP99Latency());
+    }
+}
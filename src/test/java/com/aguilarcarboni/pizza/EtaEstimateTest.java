@@ -0,0 +1,103 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Delivery estimates from the live queues match the simulation when nothing
+ * else is in the way, and stay close on a busy day of one priority.
+ */
+public class EtaEstimateTest {
+
+    @TempDir
+    Path dir;
+
+    private SchedulerConfig loneOrder() throws Exception {
+        return loneOrder("Ann,2,30,0");
+    }
+
+    private SchedulerConfig loneOrder(String order, String... more) throws Exception {
+        Path orders = dir.resolve("orders.txt");
+        Files.write(orders, List.of(order));
+        String[] args = {
+            "--input-file", orders.toString(),
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "8",
+            "--bake-time", "8", "--chef-time", "3", "--chef-strategy", "FOCUSED",
+            "--trace", "NONE", "--eta-report", dir.resolve("eta.csv").toString()};
+        String[] all = Arrays.copyOf(args, args.length + more.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return SchedulerConfig.parse(all);
+    }
+
+    @Test
+    public void loneOrderIsEstimatedExactly() throws Exception {
+        PizzaScheduler scheduler = new PizzaScheduler(loneOrder(), new PrintStream(OutputStream.nullOutputStream()));
+        assertThrows(IllegalStateException.class, () -> scheduler.estimateNewOrder(1, 10, 0));
+        scheduler.loadOrders();
+        RunSummary summary = scheduler.runSimulation();
+
+        List<String> report = Files.readAllLines(dir.resolve("eta.csv"));
+        assertEquals("1,0.00,0.00,0,0,0,0", report.get(1));
+        // The same order placed on the idle kitchen takes as long as Ann's did
+        int placed = summary.getMinutes() + 1;
+        assertEquals(placed + summary.getMinutes() - 1, scheduler.estimateNewOrder(2, 30, 0));
+    }
+
+    @Test
+    public void loneOrderUsesItsOwnBakeTime() throws Exception {
+        for (String seed : new String[] {"1", "2", "3", "4"}) {
+            PizzaScheduler scheduler = new PizzaScheduler(
+                loneOrder("Bob,4,30,0", "--bake-time-dist", "UNIFORM:0.5", "--seed", seed),
+                new PrintStream(OutputStream.nullOutputStream()));
+            scheduler.loadOrders();
+            scheduler.runSimulation();
+            List<String> report = Files.readAllLines(dir.resolve("eta.csv"));
+            assertEquals("1,0.00,0.00,0,0,0,0", report.get(1), "seed " + seed);
+        }
+    }
+
+    // A day that keeps the drivers about 90% busy, so orders queue for them.
+    // With one priority no later order can pass an earlier one, so the
+    // estimates carry no bias from arrivals they cannot see.
+    @Test
+    public void busyDayIsEstimatedClosely() throws Exception {
+        Random random = new Random(7);
+        List<String> orders = new ArrayList<>();
+        int arrival = 1;
+        for (int i = 0; i < 1500; i++) {
+            arrival += random.nextInt(9);
+            orders.add("Order" + i + "," + (1 + random.nextInt(4)) + "," + (10 + random.nextInt(31)) + ",0," + arrival);
+        }
+        Path input = dir.resolve("day.txt");
+        Files.write(input, orders);
+        Path report = dir.resolve("eta.csv");
+        assertEquals(0, PizzaScheduler.run(new String[] {
+            "--input-file", input.toString(),
+            "--available-chefs", "4", "--available-ovens", "20", "--available-drivers", "8",
+            "--bake-time", "5", "--chef-time", "3", "--chef-strategy", "FOCUSED",
+            "--trace", "NONE", "--eta-report", report.toString()
+        }, new PrintStream(OutputStream.nullOutputStream()), System.err));
+
+        String[] fields = Files.readAllLines(report).get(1).split(",");
+        assertEquals("1500", fields[0]);
+        // Mean error within 2 minutes either way, 90% of orders within 10
+        assertTrue(Math.abs(Double.parseDouble(fields[1])) <= 2, fields[1]);
+        assertTrue(Integer.parseInt(fields[4]) <= 10, fields[4]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.aguilarcarboni.pizza;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The event engine must print the same trace as the tick loop.
+ */
+public class EventEngineTest {
+
+    private static void assertSameTrace(String... args) {
+        TraceRuns.assertSameTrace(args, "--engine", "EVENT");
+    }
+
+    @Test
+    public void focusedTraceMatchesTickLoop() {
+        assertSameTrace("--input-file", "src/main/tests/small-order.txt",
+            "--available-chefs", "2", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "5", "--chef-time", "3", "--chef-strategy", "FOCUSED", "--chef-quantum", "9");
+    }
+
+    @Test
+    public void roundRobinTraceMatchesTickLoop() {
+        assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3");
+    }
+
+    @Test
+    public void deckOvenTraceMatchesTickLoop() {
+        assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3",
+            "--oven-slots", "4", "--trace", "CHANGES");
+    }
+
+    @Test
+    public void pizzaBakeUnitTraceMatchesTickLoop() {
+        assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "3", "--available-drivers", "5",
+            "--bake-time", "4", "--chef-time", "2", "--chef-strategy", "SJF",
+            "--bake-unit", "PIZZA", "--trace", "CHANGES");
+    }
+
+    @Test
+    public void batchedDriverTraceMatchesTickLoop() {
+        assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3",
+            "--driver-batch", "3", "--driver-batch-wait", "2", "--driver-max-delivery", "40",
+            "--trace", "CHANGES");
+    }
+
+    @Test
+    public void preemptiveAndFeedbackStrategiesMatchTickLoop() {
+        for (String strategy : new String[] {"SRTF", "EDF", "MLFQ"}) {
+            assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+                "--available-chefs", "3", "--available-ovens", "2", "--available-drivers", "3",
+                "--bake-time", "3", "--chef-time", "4", "--chef-strategy", strategy, "--chef-quantum", "2");
+        }
+    }
+}
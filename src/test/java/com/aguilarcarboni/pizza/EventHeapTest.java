@@ -0,0 +1,67 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.pizzascheduling.EventHeap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The event heap hands out keys by minute, then key, and ignores entries a
+ * later schedule() has replaced.
+ */
+public class EventHeapTest {
+
+    @Test
+    public void emptyHeapHasNoNextMinute() {
+        EventHeap heap = new EventHeap(3);
+        assertEquals(Integer.MAX_VALUE, heap.nextMinute());
+        assertEquals(-1, heap.pollDue(Integer.MAX_VALUE));
+
+        heap.schedule(1, 5);
+        heap.clear();
+        assertEquals(Integer.MAX_VALUE, heap.nextMinute());
+    }
+
+    @Test
+    public void pollsDueKeysByMinuteThenKey() {
+        EventHeap heap = new EventHeap(4);
+        heap.schedule(3, 7);
+        heap.schedule(2, 4);
+        heap.schedule(0, 7);
+        heap.schedule(1, 9);
+
+        assertEquals(4, heap.nextMinute());
+        assertEquals(-1, heap.pollDue(3));
+        assertEquals(2, heap.pollDue(7));
+        assertEquals(0, heap.pollDue(7));
+        assertEquals(3, heap.pollDue(7));
+        assertEquals(-1, heap.pollDue(7));
+        assertEquals(9, heap.nextMinute());
+        assertEquals(1, heap.pollDue(20));
+        assertEquals(Integer.MAX_VALUE, heap.nextMinute());
+    }
+
+    @Test
+    public void rescheduledEntriesAreDropped() {
+        EventHeap heap = new EventHeap(3);
+        heap.schedule(0, 2);
+        heap.schedule(1, 3);
+        heap.schedule(0, 6);  // The entry for minute 2 is now stale
+        heap.schedule(2, 4);
+        heap.schedule(2, Integer.MAX_VALUE);  // Nothing coming up for key 2
+
+        assertEquals(3, heap.nextMinute());
+        assertEquals(1, heap.pollDue(5));
+        assertEquals(-1, heap.pollDue(5));
+        assertEquals(6, heap.nextMinute());
+
+        // Moving a key back to a minute it left brings it back only once
+        heap.schedule(0, 2);
+        assertEquals(0, heap.pollDue(2));
+        assertEquals(Integer.MAX_VALUE, heap.nextMinute());
+
+        // A polled key can be scheduled again
+        heap.schedule(0, 8);
+        assertEquals(8, heap.nextMinute());
+    }
+}
@@ -0,0 +1,54 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import com.pizzascheduling.MonteCarlo;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Replications depend on their seed only, not on how they are spread over
+ * threads.
+ */
+public class MonteCarloTest {
+
+    private static String[] args(String parallelism) {
+        return new String[] {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "2", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "3", "--chef-time", "2", "--chef-strategy", "FOCUSED", "--engine", "EVENT",
+            "--bake-time-dist", "LOGNORMAL:0.5", "--delivery-time-dist", "EXPONENTIAL",
+            "--replications", "40", "--parallelism", parallelism
+        };
+    }
+
+    @Test
+    public void replicationsDoNotDependOnParallelism() throws Exception {
+        MonteCarlo.Result serial = MonteCarlo.parse(args("1")).run();
+        MonteCarlo.Result parallel = MonteCarlo.parse(args("3")).run();
+        assertArrayEquals(serial.getMinutes(), parallel.getMinutes());
+        assertArrayEquals(new int[] {0, 2, 6, 10, 15}, parallel.getPriorities());
+        for (int priority : parallel.getPriorities()) {
+            assertArrayEquals(serial.getP95Latency(priority), parallel.getP95Latency(priority));
+        }
+        // The draws vary the outcome
+        assertTrue(Arrays.stream(serial.getMinutes()).distinct().count() > 1);
+    }
+
+    @Test
+    public void needsAKnownDistribution() {
+        String[] fixed = {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "2", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "3", "--chef-time", "2", "--chef-strategy", "FOCUSED"
+        };
+        assertThrows(IllegalArgumentException.class, () -> MonteCarlo.parse(fixed));
+        String[] unknown = Arrays.copyOf(fixed, fixed.length + 2);
+        unknown[fixed.length] = "--bake-time-dist";
+        unknown[fixed.length + 1] = "GAMMA";
+        assertThrows(IllegalArgumentException.class, () -> MonteCarlo.parse(unknown));
+    }
+}
@@ -0,0 +1,87 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pizzascheduling.OrderArchive;
+import com.pizzascheduling.OrderStore;
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Every delivered order reaches the spill file, including the last partial
+ * block.
+ */
+public class OrderArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Integer> sequences(OrderArchive archive) throws Exception {
+        List<Integer> sequences = new ArrayList<>();
+        archive.forEach((sequence, person, numPizzas, deliveryTime, priority, arrivalMinute, deliveredMinute) -> {
+            assertEquals("P" + sequence, person);
+            assertEquals(sequence + 7, deliveredMinute);
+            sequences.add(sequence);
+        });
+        return sequences;
+    }
+
+    private static void archive(OrderArchive archive, int orders) throws Exception {
+        OrderStore store = new OrderStore();
+        for (int i = 0; i < orders; i++) {
+            int order = store.add("P" + i, 1, 10, 0);
+            store.setSequence(order, i);
+            archive.add(store, order, i + 7);
+            store.retire(order);
+        }
+    }
+
+    @Test
+    public void closeWritesThePartialBlock() throws Exception {
+        for (int orders : new int[] {0, 10, 5000}) {
+            Path file = dir.resolve("archive-" + orders);
+            OrderArchive archive = new OrderArchive(file);
+            archive(archive, orders);
+            archive.close();
+            assertTrue(Files.exists(file));
+            List<Integer> sequences = sequences(archive);
+            assertEquals(orders, sequences.size());
+            for (int i = 0; i < orders; i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void onlyCountsWithoutASpillFile() throws Exception {
+        OrderArchive archive = new OrderArchive(null);
+        archive(archive, 5000);
+        archive.close();
+        assertEquals(5000, archive.size());
+        assertEquals(0, sequences(archive).size());
+    }
+
+    @Test
+    public void smallRunCreatesTheArchiveFile() throws Exception {
+        Path file = dir.resolve("delivered.bin");
+        SchedulerConfig config = SchedulerConfig.parse(new String[] {
+            "--input-file", "src/main/tests/small-order.txt",
+            "--available-chefs", "2", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "2", "--chef-time", "2", "--chef-strategy", "FOCUSED",
+            "--trace", "NONE", "--archive-file", file.toString()});
+        PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+        assertTrue(Files.size(file) > 0);
+    }
+}
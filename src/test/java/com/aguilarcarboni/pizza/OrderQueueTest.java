@@ -0,0 +1,64 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.pizzascheduling.OrderQueue;
+import com.pizzascheduling.OrderStore;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stage queues order by priority and keep input order among equal priorities.
+ */
+public class OrderQueueTest {
+
+    private static int order(OrderStore store, String person, int priority, int sequence) {
+        int order = store.add(person, 1, 5, priority);
+        store.setSequence(order, sequence);
+        return order;
+    }
+
+    @Test
+    public void pollsByPriorityThenInputOrder() {
+        OrderStore store = new OrderStore();
+        OrderQueue queue = new OrderQueue(store);
+        int tom = order(store, "Tom", 10, 0);
+        int sarah = order(store, "Sarah", 10, 1);
+        int mike = order(store, "Mike", 2, 2);
+        int ryan = order(store, "Ryan", 10, 3);
+        queue.add(ryan);
+        queue.add(sarah);
+        queue.add(mike);
+        queue.add(tom);
+
+        assertEquals(mike, queue.poll());
+        assertEquals(tom, queue.poll());
+        assertEquals(sarah, queue.poll());
+        assertEquals(ryan, queue.poll());
+        assertEquals(OrderStore.NONE, queue.poll());
+    }
+
+    @Test
+    public void removesFromTheMiddle() {
+        OrderStore store = new OrderStore();
+        OrderQueue queue = new OrderQueue(store);
+        int[] orders = new int[20];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = order(store, "P" + i, (i * 7) % 5, i);
+            queue.add(orders[i]);
+        }
+        queue.remove(orders[3]);
+        queue.remove(orders[11]);
+        queue.remove(orders[11]);
+
+        assertEquals(18, queue.size());
+        int previous = queue.poll();
+        while (!queue.isEmpty()) {
+            int next = queue.poll();
+            boolean ordered = store.getPriority(previous) < store.getPriority(next) ||
+                (store.getPriority(previous) == store.getPriority(next) &&
+                 store.getSequence(previous) < store.getSequence(next));
+            assertEquals(true, ordered);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import com.pizzascheduling.Order;
+import com.pizzascheduling.OrderReader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Streaming order parser.
+ */
+public class OrderReaderTest {
+
+    private static OrderReader reader(String text) {
+        return new OrderReader(Channels.newChannel(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void parsesLinesWithAnyLineEnding() throws IOException {
+        OrderReader reader = reader("Juan,5,15,2\r\nMaria,3,20,0\nAshley,10,30,-1");
+        Order juan = reader.next();
+        assertEquals("Juan", juan.getPerson());
+        assertEquals(5, juan.getNumPizzas());
+        assertEquals(15, juan.getDeliveryTime());
+        assertEquals(2, juan.getPriority());
+        assertEquals("Maria", reader.next().getPerson());
+        assertEquals(-1, reader.next().getPriority());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void readsOptionalArrivalMinute() throws IOException {
+        OrderReader reader = reader("Juan,5,15,2\nMaria,3,20,0,45\n");
+        assertEquals(1, reader.next().getArrivalMinute());
+        assertEquals(45, reader.next().getArrivalMinute());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void reportsMalformedLineNumber() throws IOException {
+        OrderReader reader = reader("Bob,1,5,0\nEmma,1,2,0 \n");
+        reader.next();
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(error.getMessage().contains("line 2"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.aguilarcarboni.pizza;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Multithreaded ticks must print the same trace as the serial loop.
+ */
+public class ParallelTickTest {
+
+    private static void assertSameTrace(String... args) {
+        TraceRuns.assertSameTrace(args, "--threads", "3");
+    }
+
+    @Test
+    public void sharedOrdersMatchSerialLoop() {
+        assertSameTrace("--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3");
+    }
+
+    @Test
+    public void largeKitchenMatchesSerialLoop() {
+        assertSameTrace("--generate-orders", "3000", "--orders-per-day", "6000",
+            "--available-chefs", "60", "--available-ovens", "20", "--available-drivers", "40",
+            "--bake-time", "8", "--chef-time", "3", "--chef-strategy", "SRTF",
+            "--oven-slots", "4", "--driver-batch", "2", "--driver-batch-wait", "1", "--trace", "CHANGES");
+    }
+}
@@ -0,0 +1,147 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.pizzascheduling.NameTable;
+import com.pizzascheduling.OrderFeed;
+import com.pizzascheduling.OrderIntake;
+import com.pizzascheduling.OrderStore;
+import com.pizzascheduling.PizzaServer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The server delivers everything it receives, on stdin or over several
+ * connections, and its intake pushes back when full.
+ */
+public class PizzaServerTest {
+
+    @Test
+    public void deliversEveryOrderFromStdin() throws Exception {
+        byte[] orders = Files.readAllBytes(Paths.get("src/main/tests/medium-order.txt"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = PizzaServer.run(new String[] {
+            "--available-chefs", "2", "--available-ovens", "1", "--available-drivers", "1",
+            "--bake-time", "3", "--chef-time", "2", "--chef-strategy", "RR", "--chef-quantum", "2",
+            "--trace", "SUMMARY", "--stats-seconds", "0", "--intake-capacity", "2"
+        }, new ByteArrayInputStream(orders), new PrintStream(out), new PrintStream(OutputStream.nullOutputStream()));
+
+        assertEquals(0, status);
+        assertTrue(out.toString().contains("Delivered,6"), out.toString());
+    }
+
+    @Test
+    public void skipsOrdersThatCouldNeverBeDelivered() throws Exception {
+        byte[] orders = "Bob,0,5,1\nAna,2,0,1\nCy,x,5,1\nDi,2,5\nEd,2,5,1\n".getBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = PizzaServer.run(new String[] {
+            "--available-chefs", "2", "--available-ovens", "1", "--available-drivers", "1",
+            "--bake-time", "3", "--chef-time", "2", "--chef-strategy", "FOCUSED",
+            "--trace", "SUMMARY", "--stats-seconds", "0"
+        }, new ByteArrayInputStream(orders), new PrintStream(out), new PrintStream(err));
+
+        assertEquals(0, status);
+        assertTrue(out.toString().contains("Delivered,1"), out.toString());
+        assertEquals(4, err.toString().split("Invalid order format").length - 1, err.toString());
+    }
+
+    @Test
+    public void servesSeveralConnectionsUntilShutdown() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        AtomicInteger status = new AtomicInteger(-1);
+        Thread server = new Thread(() -> status.set(PizzaServer.run(new String[] {
+            "--listen", Integer.toString(port),
+            "--available-chefs", "1", "--available-ovens", "1", "--available-drivers", "1",
+            "--bake-time", "2", "--chef-time", "1", "--chef-strategy", "FOCUSED", "--stats-seconds", "0"
+        }, new ByteArrayInputStream(new byte[0]), new PrintStream(out), new PrintStream(err))));
+        server.start();
+
+        try (Socket first = connect(port); Socket second = connect(port)) {
+            PrintWriter firstWriter = writer(first);
+            PrintWriter secondWriter = writer(second);
+            firstWriter.println("Ana,2,30,1");
+            secondWriter.println("Ben,1,30,1");
+            // Both orders have to reach the simulation before SHUTDOWN closes the intake
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (!(out.toString().contains("Ana,") && out.toString().contains("Ben,"))) {
+                assertTrue(System.nanoTime() < deadline, "Orders never arrived: " + out);
+                Thread.sleep(10);
+            }
+            secondWriter.println("SHUTDOWN");
+            server.join(10_000);
+        }
+
+        assertFalse(server.isAlive());
+        assertEquals(0, status.get(), err.toString());
+        assertTrue(out.toString().contains("Ana,DELIVERED"), out.toString());
+        assertTrue(out.toString().contains("Ben,DELIVERED"), out.toString());
+        assertThrows(IOException.class, () -> new Socket(InetAddress.getLoopbackAddress(), port).close());
+    }
+
+    // Retries until the server is listening
+    private static Socket connect(int port) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            try {
+                return new Socket(InetAddress.getLoopbackAddress(), port);
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static PrintWriter writer(Socket socket) throws IOException {
+        return new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+
+    @Test
+    public void intakeIsBoundedAndKeepsOrder() {
+        OrderIntake intake = new OrderIntake(2);
+        assertTrue(intake.offer("Ana", 1, 10, 0));
+        assertTrue(intake.offer("Ben", 2, 10, 0));
+        assertFalse(intake.offer("Cy", 3, 10, 0));
+
+        NameTable names = new NameTable();
+        OrderFeed feed = new OrderFeed();
+        assertEquals(2, intake.drainTo(feed, names, 7));
+        assertTrue(intake.offer("Cy", 3, 10, 0));
+
+        OrderStore store = new OrderStore(names, 4);
+        int first = feed.read(store);
+        assertEquals("Ana", store.getPerson(first));
+        assertEquals(7, store.getArrivalMinute(first));
+        assertEquals("Ben", store.getPerson(feed.read(store)));
+
+        intake.close();
+        assertFalse(intake.put("Di", 1, 10, 0));
+        assertFalse(intake.isFinished());
+        assertEquals(1, intake.drainTo(feed, names, 8));
+        assertTrue(intake.isFinished());
+    }
+}
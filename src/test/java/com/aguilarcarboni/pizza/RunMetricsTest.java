@@ -0,0 +1,61 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.pizzascheduling.LatencyHistogram;
+import com.pizzascheduling.Order;
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunMetrics;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stage histograms and utilization.
+ */
+public class RunMetricsTest {
+
+    private static RunMetrics run(String engine) throws IOException {
+        SchedulerConfig config = SchedulerConfig.parse(new String[] {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3",
+            "--trace", "NONE", "--engine", engine});
+        PizzaScheduler scheduler = new PizzaScheduler(config, new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+        return scheduler.getMetrics();
+    }
+
+    @Test
+    public void eventEngineRecordsTheSameStageTimes() throws IOException {
+        RunMetrics tick = run("TICK");
+        RunMetrics event = run("EVENT");
+        for (Order.State state : Order.State.values()) {
+            LatencyHistogram expected = tick.getStateHistogram(state);
+            LatencyHistogram actual = event.getStateHistogram(state);
+            assertEquals(expected.getCount(), actual.getCount(), state.name());
+            assertEquals(expected.getMean(), actual.getMean(), state.name());
+            assertEquals(expected.getMax(), actual.getMax(), state.name());
+        }
+        // Every order arrives in minute 1, so latency is the delivery minute
+        assertEquals(6, tick.getLatencyHistogram().getCount());
+        assertEquals(43.5, tick.getLatencyHistogram().getMean());
+    }
+
+    @Test
+    public void percentilesAreNearestRank() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(100, histogram.getMax());
+        // Above 64 the buckets are about 3% wide
+        int p99 = histogram.percentile(99);
+        assertEquals(true, p99 >= 99 && p99 <= 100);
+    }
+}
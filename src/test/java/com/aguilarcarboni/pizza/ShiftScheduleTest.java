@@ -0,0 +1,107 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Shift schedules and autoscaling change who is on shift, count the
+ * resource-minutes used and let leaving resources finish their work.
+ */
+public class ShiftScheduleTest {
+
+    @TempDir
+    Path dir;
+
+    private static RunSummary run(String... args) throws Exception {
+        PizzaScheduler scheduler = new PizzaScheduler(SchedulerConfig.parse(args),
+            new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        return scheduler.runSimulation();
+    }
+
+    private static String trace(String... args) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PizzaScheduler scheduler = new PizzaScheduler(SchedulerConfig.parse(args), new PrintStream(out));
+        scheduler.loadOrders();
+        scheduler.runSimulation();
+        return out.toString();
+    }
+
+    private static String[] with(String[] args, String... more) {
+        List<String> all = new ArrayList<>(Arrays.asList(args));
+        all.addAll(Arrays.asList(more));
+        return all.toArray(new String[0]);
+    }
+
+    @Test
+    public void chefsGoingOffShiftFinishTheirOrder() throws Exception {
+        Path orders = dir.resolve("orders.txt");
+        Files.write(orders, List.of("Ann,6,30,0"));
+        String[] args = {
+            "--input-file", orders.toString(),
+            "--available-chefs", "3", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "FOCUSED", "--trace", "NONE"};
+        RunSummary fixed = run(args);
+        // Three chefs until minute 5, then one. Chefs 1 and 2 are on Ann's
+        // order and keep going: chef 2 prepares the last pizza in minute 8,
+        // and chef 1 lets go of the order in minute 9, as chef 0 does.
+        RunSummary shifts = run(with(args, "--available-chefs", "1", "--chef-shifts", "1-5:3"));
+        assertEquals(fixed.getMinutes(), shifts.getMinutes());
+        assertEquals(3 * 8 + 2 + (shifts.getMinutes() - 9), shifts.getChefMinutes());
+        assertEquals(3L * fixed.getMinutes(), fixed.getChefMinutes());
+        assertEquals(2L * shifts.getMinutes(), shifts.getDriverMinutes());
+    }
+
+    @Test
+    public void autoscalingAddsChefsUnderLoad() throws Exception {
+        String[] args = {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "1", "--available-ovens", "4", "--available-drivers", "2",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "SRTF"};
+        RunSummary fixed = run(with(args, "--trace", "NONE"));
+        String[] scaled = with(args, "--autoscale", "QUEUE", "--autoscale-interval", "3",
+            "--scale-up-at", "1", "--scale-down-at", "0.5", "--max-chefs", "4");
+        RunSummary summary = run(with(scaled, "--trace", "NONE"));
+        assertTrue(summary.getMinutes() < fixed.getMinutes());
+        assertTrue(summary.getChefMinutes() > summary.getMinutes());
+        assertTrue(summary.getChefMinutes() <= 4L * summary.getMinutes());
+        assertEquals(fixed.getDelivered(), summary.getDelivered());
+
+        // Staffing checks are events, so both engines trace the same minutes
+        String tick = trace(with(scaled, "--trace", "CHANGES", "--engine", "TICK"));
+        String event = trace(with(scaled, "--trace", "CHANGES", "--engine", "EVENT"));
+        assertEquals(tick, event);
+    }
+
+    @Test
+    public void rejectsInvalidStaffing() {
+        String[] args = {
+            "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "2", "--available-ovens", "2", "--available-drivers", "2",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "FOCUSED"};
+        assertThrows(IllegalArgumentException.class,
+            () -> SchedulerConfig.parse(with(args, "--chef-shifts", "1-60:2,50-90:3")).validate());
+        assertThrows(IllegalArgumentException.class,
+            () -> SchedulerConfig.parse(with(args, "--chef-shifts", "1-1440:0", "--shift-period", "1440")).validate());
+        assertThrows(IllegalArgumentException.class,
+            () -> SchedulerConfig.parse(with(args, "--max-chefs", "4")).validate());
+        assertThrows(IllegalArgumentException.class,
+            () -> SchedulerConfig.parse(with(args, "--autoscale", "QUEUE", "--max-chefs", "4")).validate());
+    }
+}
@@ -0,0 +1,66 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.pizzascheduling.PizzaScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A run resumed from a snapshot prints the rest of the trace exactly as the
+ * uninterrupted run did.
+ */
+public class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private void assertResumesAt(int minute, String... args) {
+        String full = TraceRuns.run(args);
+        String snapshot = dir.resolve("run-{minute}.bin").toString();
+        assertEquals(full, TraceRuns.run(TraceRuns.withArgs(args, "--snapshot-file", snapshot,
+            "--snapshot-interval", Integer.toString(minute))));
+
+        Path saved = dir.resolve("run-" + minute + ".bin");
+        assertTrue(Files.exists(saved));
+        String rest = full.substring(full.indexOf("==== MINUTE " + minute + System.lineSeparator()));
+        assertEquals(rest, TraceRuns.run(TraceRuns.withArgs(args, "--resume-from", saved.toString())));
+    }
+
+    @Test
+    public void fullTraceResumes() {
+        assertResumesAt(30, "--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "RR", "--chef-quantum", "3");
+    }
+
+    @Test
+    public void batchedDeckOvenRunResumes() {
+        assertResumesAt(400, "--generate-orders", "2000", "--orders-per-day", "6000",
+            "--available-chefs", "6", "--available-ovens", "3", "--available-drivers", "4",
+            "--bake-time", "8", "--chef-time", "3", "--chef-strategy", "MLFQ", "--chef-quantum", "2",
+            "--oven-slots", "4", "--driver-batch", "3", "--driver-batch-wait", "1",
+            "--trace", "CHANGES", "--engine", "EVENT");
+    }
+
+    @Test
+    public void resumeRejectsDifferentStaffing() {
+        String[] args = {"--input-file", "src/main/tests/medium-order.txt",
+            "--available-chefs", "4", "--available-ovens", "2", "--available-drivers", "5",
+            "--bake-time", "2", "--chef-time", "4", "--chef-strategy", "FOCUSED", "--trace", "SUMMARY"};
+        TraceRuns.run(TraceRuns.withArgs(args,
+            "--snapshot-file", dir.resolve("s.bin").toString(), "--snapshot-interval", "10"));
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        String[] changed = TraceRuns.withArgs(args, "--resume-from", dir.resolve("s.bin").toString());
+        changed[3] = "5";
+        assertEquals(1, PizzaScheduler.run(changed, new PrintStream(new ByteArrayOutputStream()),
+            new PrintStream(err)));
+        assertTrue(err.toString().contains("available chefs"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.StoreFleet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every routed order is delivered by exactly one store, and routing does not
+ * depend on thread timing.
+ */
+public class StoreFleetTest {
+
+    private static final String[] FLEET = {
+        "--generate-orders", "2000", "--orders-per-day", "8000", "--stores", "3",
+        "--available-chefs", "6,3,2", "--available-ovens", "3,2,1", "--available-drivers", "6,4,3",
+        "--bake-time", "8", "--chef-time", "3", "--chef-strategy", "SJF", "--engine", "EVENT"
+    };
+
+    private static String[] withRouter(String router) {
+        String[] args = new String[FLEET.length + 2];
+        System.arraycopy(FLEET, 0, args, 0, FLEET.length);
+        args[FLEET.length] = "--router";
+        args[FLEET.length + 1] = router;
+        return args;
+    }
+
+    @Test
+    public void everyOrderIsDeliveredOnce() throws Exception {
+        for (String router : new String[] {"ROUND_ROBIN", "LEAST_LOADED", "SHORTEST_WAIT"}) {
+            StoreFleet.Result result = StoreFleet.parse(withRouter(router)).run();
+            List<RunSummary> stores = result.getStores();
+            int orders = 0;
+            long delivered = 0;
+            int minutes = 0;
+            for (RunSummary store : stores) {
+                orders += store.getOrders();
+                delivered += store.getDelivered();
+                minutes = Math.max(minutes, store.getMinutes());
+            }
+            assertEquals(2000, orders, router);
+            assertEquals(2000, delivered, router);
+            assertEquals(2000, result.getFleet().getOrders(), router);
+            assertEquals(minutes, result.getFleet().getMinutes(), router);
+        }
+    }
+
+    @Test
+    public void reportIsDeterministic() {
+        String[] args = withRouter("SHORTEST_WAIT");
+        assertEquals(report(args), report(args));
+    }
+
+    private static String report(String[] args) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        assertEquals(0, StoreFleet.run(args, new PrintStream(buffer), System.err));
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import com.pizzascheduling.PizzaScheduler;
+
+/**
+ * Runs the scheduler from the command line and compares what it prints.
+ */
+final class TraceRuns {
+
+    private TraceRuns() {
+    }
+
+    // The trace as printed, for the BINARY trace
+    static byte[] runBytes(String... args) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        assertEquals(0, PizzaScheduler.run(args, new PrintStream(buffer), System.err));
+        return buffer.toByteArray();
+    }
+
+    static String run(String... args) {
+        return new String(runBytes(args));
+    }
+
+    static String[] withArgs(String[] args, String... more) {
+        String[] all = new String[args.length + more.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+
+    // The run with `more` appended prints the same trace as the run without
+    static void assertSameTrace(String[] args, String... more) {
+        assertEquals(run(args), run(withArgs(args, more)));
+    }
+}
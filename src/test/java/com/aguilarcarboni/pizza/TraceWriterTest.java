@@ -0,0 +1,147 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.pizzascheduling.PizzaScheduler;
+import com.pizzascheduling.RunSummary;
+import com.pizzascheduling.SchedulerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The CHANGES trace carries every state change of the FULL trace, and the
+ * SUMMARY trace reports the run's own totals.
+ */
+public class TraceWriterTest {
+
+    private static final String[] LARGE_ORDER = {
+        "--input-file", "src/main/tests/large-order.txt",
+        "--available-chefs", "3", "--available-ovens", "2", "--available-drivers", "2",
+        "--bake-time", "3", "--chef-time", "2"
+    };
+
+    // Lines of each minute of a FULL or CHANGES trace, by minute
+    private static Map<Integer, List<String>> minutes(String trace) {
+        Map<Integer, List<String>> minutes = new LinkedHashMap<>();
+        List<String> lines = null;
+        for (String line : trace.split(System.lineSeparator())) {
+            if (line.startsWith("==== MINUTE ")) {
+                lines = new ArrayList<>();
+                minutes.put(Integer.parseInt(line.substring("==== MINUTE ".length())), lines);
+            } else {
+                lines.add(line);
+            }
+        }
+        return minutes;
+    }
+
+    private static boolean isResource(String name) {
+        return name.matches("(Chef|Oven|Driver)\\d+");
+    }
+
+    // Replays the CHANGES trace minute by minute and checks every line of
+    // the FULL trace against it. Orders carry their state across minutes;
+    // the timers that count down within a state are only printed on a
+    // change, so those are checked only on the lines CHANGES prints.
+    private static void assertChangesRebuildFullTrace(String... args) {
+        Map<Integer, List<String>> full = minutes(TraceRuns.run(TraceRuns.withArgs(args, "--trace", "FULL")));
+        Map<Integer, List<String>> changes = minutes(TraceRuns.run(TraceRuns.withArgs(args, "--trace", "CHANGES")));
+        assertTrue(full.keySet().containsAll(changes.keySet()), changes.keySet().toString());
+
+        Map<String, String> orderStates = new HashMap<>();
+        Map<String, String> resources = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> minute : full.entrySet()) {
+            for (String line : changes.getOrDefault(minute.getKey(), List.of())) {
+                assertTrue(minute.getValue().contains(line), "Minute " + minute.getKey() + ": " + line);
+                String[] fields = line.split(",");
+                if (isResource(fields[0])) {
+                    resources.put(fields[0], line);
+                } else {
+                    orderStates.put(fields[0], fields[1]);
+                }
+            }
+            for (String line : minute.getValue()) {
+                String[] fields = line.split(",");
+                if (isResource(fields[0])) {
+                    String idle = line.replaceAll(",[^,]+", ",None");
+                    assertEquals(resources.getOrDefault(fields[0], idle), line, "Minute " + minute.getKey());
+                } else {
+                    assertEquals(orderStates.getOrDefault(fields[0], "PENDING"), fields[1],
+                        "Minute " + minute.getKey() + ": " + line);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void changesRebuildFullTrace() {
+        assertChangesRebuildFullTrace(TraceRuns.withArgs(LARGE_ORDER, "--chef-strategy", "RR", "--chef-quantum", "2"));
+    }
+
+    @Test
+    public void changesRebuildDeckOvenAndBatchTrace() {
+        assertChangesRebuildFullTrace(TraceRuns.withArgs(LARGE_ORDER, "--chef-strategy", "SRTF",
+            "--oven-slots", "3", "--bake-unit", "PIZZA", "--driver-batch", "2", "--driver-batch-wait", "2"));
+    }
+
+    private static Map<String, String> summary(String... args) {
+        String trace = TraceRuns.run(TraceRuns.withArgs(args, "--trace", "SUMMARY"));
+        String[] lines = trace.split(System.lineSeparator());
+        assertEquals("==== SUMMARY", lines[0]);
+        Map<String, String> figures = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",");
+            figures.put(fields[0], fields[1]);
+        }
+        return figures;
+    }
+
+    private static RunSummary runSummary(String... args) throws Exception {
+        PizzaScheduler scheduler = new PizzaScheduler(SchedulerConfig.parse(args),
+            new PrintStream(OutputStream.nullOutputStream()));
+        scheduler.loadOrders();
+        return scheduler.runSimulation();
+    }
+
+    private static String twoDecimals(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    @Test
+    public void summaryMatchesRunSummary() throws Exception {
+        String[] args = TraceRuns.withArgs(LARGE_ORDER, "--chef-strategy", "EDF");
+        Map<String, String> figures = summary(args);
+        RunSummary run = runSummary(args);
+
+        assertEquals(Integer.toString(run.getMinutes()), figures.get("Minutes"));
+        assertEquals(Integer.toString(run.getOrders()), figures.get("Orders"));
+        assertEquals(Long.toString(run.getPizzas()), figures.get("Pizzas"));
+        assertEquals(Integer.toString(run.getDelivered()), figures.get("Delivered"));
+        // Every order arrives in minute 1, so its delivery minute is its latency
+        assertEquals(twoDecimals(run.getMeanLatency()), figures.get("AverageDeliveryMinute"));
+        assertEquals(5, figures.size());
+    }
+
+    @Test
+    public void staffedSummaryMatchesRunSummary() throws Exception {
+        String[] args = TraceRuns.withArgs(LARGE_ORDER, "--chef-strategy", "FOCUSED",
+            "--chef-shifts", "1-6:3,7-30:1", "--driver-shifts", "1-10:1");
+        Map<String, String> figures = summary(args);
+        RunSummary run = runSummary(args);
+
+        assertEquals(Integer.toString(run.getDelivered()), figures.get("Delivered"));
+        assertEquals(Long.toString(run.getChefMinutes()), figures.get("ChefMinutes"));
+        assertEquals(Long.toString(run.getOvenMinutes()), figures.get("OvenMinutes"));
+        assertEquals(Long.toString(run.getDriverMinutes()), figures.get("DriverMinutes"));
+        assertEquals(twoDecimals(run.getDeliveriesPerStaffHour()), figures.get("DeliveriesPerStaffHour"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.aguilarcarboni.pizza;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.pizzascheduling.Order;
+import com.pizzascheduling.OrderReader;
+import com.pizzascheduling.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Synthetic order streams.
+ */
+public class WorkloadGeneratorTest {
+
+    private static byte[] generate(long orders, long seed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new WorkloadGenerator(orders, seed).writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void sameSeedGivesSameOrders() throws IOException {
+        assertArrayEquals(generate(5000, 3), generate(5000, 3));
+        assertFalse(Arrays.equals(generate(5000, 3), generate(5000, 4)));
+    }
+
+    @Test
+    public void channelStreamsParsableOrdersInArrivalOrder() throws IOException {
+        OrderReader reader = new OrderReader(new WorkloadGenerator(20000, 9).channel());
+        int count = 0;
+        int lastArrival = 1;
+        Order order;
+        while ((order = reader.next()) != null) {
+            assertTrue(order.getArrivalMinute() >= lastArrival);
+            assertTrue(order.getNumPizzas() >= 1);
+            assertTrue(order.getDeliveryTime() >= 5);
+            lastArrival = order.getArrivalMinute();
+            count++;
+        }
+        assertEquals(20000, count);
+        assertNull(reader.next());
+    }
+}